@@ -0,0 +1,117 @@
+package com.hospital.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.dto.AppointmentView;
+import com.hospital.dto.PrescriptionView;
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Prescription;
+import com.hospital.entity.Specialization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response serialization of appointment and prescription lists, both as entity graphs and as
+// the view records the controllers return. The mapper is configured the way Spring Boot does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "100"})
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private List<Appointment> appointments;
+    private List<AppointmentView> appointmentViews;
+    private List<Prescription> prescriptions;
+    private List<PrescriptionView> prescriptionViews;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Specialization specialization = new Specialization();
+        specialization.setId(1);
+        specialization.setName("Cardiology");
+        Doctor doctor = new Doctor();
+        doctor.setDrId(1);
+        doctor.setName("Dr Bench");
+        doctor.setEmail("bench@hospital.example.com");
+        doctor.setSpecialization(specialization);
+
+        appointments = new ArrayList<>();
+        prescriptions = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Patient patient = new Patient();
+            patient.setpId(i);
+            patient.setName("Patient " + i);
+            patient.setEmail("patient" + i + "@example.com");
+            patient.setContact("98765" + String.format("%05d", i));
+            patient.setBloodGroup("O+");
+            patient.setDob(LocalDate.of(1980, 1, 1).plusDays(i));
+            patient.setAddress("221B Baker Street");
+
+            Appointment appointment = new Appointment();
+            appointment.setApId(i);
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentDate(LocalDate.of(2026, 1, 1).plusDays(i % 30));
+            appointment.setAppointmentTime(LocalTime.of(9, 0).plusMinutes(15L * (i % 32)));
+            appointment.setDescript("Follow-up visit");
+            appointments.add(appointment);
+
+            Prescription prescription = new Prescription();
+            prescription.setId(i);
+            prescription.setDoctor(doctor);
+            prescription.setPatient(patient);
+            prescription.setAppointment(appointment);
+            prescription.setPId(i);
+            prescription.setApId(i);
+            prescription.setMedicine("Atorvastatin 10mg");
+            prescription.setAdvice("Once daily after dinner");
+            prescriptions.add(prescription);
+        }
+        appointmentViews = appointments.stream().map(AppointmentView::of).toList();
+        prescriptionViews = prescriptions.stream().map(PrescriptionView::of).toList();
+    }
+
+    @Benchmark
+    public byte[] appointmentEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(appointments);
+    }
+
+    @Benchmark
+    public byte[] appointmentViews() throws Exception {
+        return objectMapper.writeValueAsBytes(appointmentViews);
+    }
+
+    @Benchmark
+    public byte[] prescriptionEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(prescriptions);
+    }
+
+    @Benchmark
+    public byte[] prescriptionViews() throws Exception {
+        return objectMapper.writeValueAsBytes(prescriptionViews);
+    }
+}
@@ -0,0 +1,60 @@
+package com.hospital.benchmark;
+
+import com.hospital.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Token issue and verification. extractClaims/validateToken hit the verified-claims cache after
+// the first call; parseUncached is the cost of a cache miss (full HMAC check and JSON parse).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(10_000, Duration.ofMinutes(5));
+        // A zero-sized cache never keeps anything, so every call verifies the signature
+        uncached = new JwtUtil(0, Duration.ofMinutes(5));
+        token = jwtUtil.generateToken("doctor@example.com", "DOCTOR");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("doctor@example.com", "DOCTOR");
+    }
+
+    @Benchmark
+    public Claims extractClaims() {
+        return jwtUtil.extractClaims(token);
+    }
+
+    @Benchmark
+    public Claims parseUncached() {
+        return uncached.extractClaims(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, "doctor@example.com");
+    }
+}
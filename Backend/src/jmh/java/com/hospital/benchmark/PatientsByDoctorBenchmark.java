@@ -0,0 +1,131 @@
+package com.hospital.benchmark;
+
+import com.hospital.HospitalManagementSystem1Application;
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.index.AppointmentIndexes;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.service.AppointmentService;
+import com.hospital.service.DoctorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// AppointmentService.getPatientsByDoctorId against an in-memory H2 database: one doctor with
+// `appointments` appointments spread over `patients` distinct patients. The patient ids come
+// from DoctorPatientIndex, so the query left is the primary-key load of the patients;
+// patientCount never touches the database. inMemoryDedupe is the old stream distinct() step
+// on the already-loaded appointment list, for comparison.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientsByDoctorBenchmark {
+
+    @Param({"200"})
+    public int patients;
+
+    @Param({"2000"})
+    public int appointments;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private DoctorService doctorService;
+    private Integer doctorId;
+    private List<Appointment> loaded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Full application (SecurityConfig needs the servlet stack) on a random port
+        context = SpringApplication.run(HospitalManagementSystem1Application.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.flyway.enabled=false",
+                "--hospital.mail.outbox.enabled=false",
+                "--logging.level.root=WARN");
+        appointmentService = context.getBean(AppointmentService.class);
+
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Bench");
+        doctorId = context.getBean(DoctorRepository.class).save(doctor).getDrId();
+
+        PatientRepository patientRepository = context.getBean(PatientRepository.class);
+        List<Patient> saved = new ArrayList<>();
+        for (int i = 0; i < patients; i++) {
+            Patient patient = new Patient();
+            patient.setName("Bench Patient " + i);
+            saved.add(patient);
+        }
+        saved = patientRepository.saveAll(saved);
+
+        AppointmentRepository appointmentRepository = context.getBean(AppointmentRepository.class);
+        List<Appointment> rows = new ArrayList<>();
+        LocalDate start = LocalDate.now().minusYears(1);
+        for (int i = 0; i < appointments; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(saved.get(i % patients));
+            appointment.setAppointmentDate(start.plusDays(i / 32));
+            appointment.setAppointmentTime(LocalTime.of(9, 0).plusMinutes(15L * (i % 32)));
+            rows.add(appointment);
+        }
+        appointmentRepository.saveAll(rows);
+        // Saved past the service, so the in-memory indexes are reloaded from the table
+        context.getBean(AppointmentIndexes.class).rebuild();
+        doctorService = context.getBean(DoctorService.class);
+
+        loaded = appointmentService.getAppointmentsByDoctor(doctorId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Patient> getPatientsByDoctorId() {
+        return appointmentService.getPatientsByDoctorId(doctorId);
+    }
+
+    @Benchmark
+    public long patientCount() {
+        return doctorService.getPatientCount(doctorId);
+    }
+
+    @Benchmark
+    public List<Patient> inMemoryDedupe() {
+        return loaded.stream()
+                .map(Appointment::getPatient)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,110 @@
+package com.hospital.benchmark;
+
+import com.hospital.HospitalManagementSystem1Application;
+import com.hospital.dto.BatchResult;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Prescription;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.service.PrescriptionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Rows/sec of the one-by-one createPrescription path against the createPrescriptions batch
+// path on in-memory H2. Both insert the same 1000-row sheet per invocation; the score is per row.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrescriptionIngestionBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private PrescriptionService prescriptionService;
+    private Doctor doctor;
+    private List<Patient> patients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(HospitalManagementSystem1Application.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:ingest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.flyway.enabled=false",
+                "--hospital.mail.outbox.enabled=false",
+                "--logging.level.root=WARN");
+        prescriptionService = context.getBean(PrescriptionService.class);
+
+        doctor = new Doctor();
+        doctor.setName("Dr Ingest");
+        context.getBean(DoctorRepository.class).save(doctor);
+
+        patients = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Patient patient = new Patient();
+            patient.setName("Ingest Patient " + i);
+            patients.add(patient);
+        }
+        patients = context.getBean(PatientRepository.class).saveAll(patients);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int oneByOne() {
+        int created = 0;
+        for (Prescription prescription : sheet()) {
+            prescriptionService.createPrescription(prescription);
+            created++;
+        }
+        return created;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BatchResult batch() {
+        return prescriptionService.createPrescriptions(sheet());
+    }
+
+    private List<Prescription> sheet() {
+        List<Prescription> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Prescription prescription = new Prescription();
+            prescription.setDoctor(doctor);
+            prescription.setPatient(patients.get(i % patients.size()));
+            prescription.setMedicine("Medicine " + i);
+            prescription.setAdvice("Twice daily");
+            rows.add(prescription);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,132 @@
+package com.hospital.benchmark;
+
+import com.hospital.HospitalManagementSystem1Application;
+import com.hospital.dto.CursorPage;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Prescription;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.service.PrescriptionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One page of a chronic patient's prescription history (`prescriptions` rows, `PAGE_SIZE` per
+// page) at increasing depths. keysetPage is PrescriptionService.getPrescriptionsByPatientPage,
+// which seeks to the cursor on (p_id, created_at), so the score should stay flat as depth grows.
+// offsetPage is what the removed findByPatientPIdWithPagination ran per page: the fetch-joined
+// query with OFFSET plus the COUNT behind Page.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrescriptionPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"5000"})
+    public int prescriptions;
+
+    @Param({"0", "10", "100", "240"})
+    public int depth;
+
+    private ConfigurableApplicationContext context;
+    private PrescriptionService prescriptionService;
+    private EntityManagerFactory entityManagerFactory;
+    private Integer patientId;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(HospitalManagementSystem1Application.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:paging;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.flyway.enabled=false",
+                "--hospital.mail.outbox.enabled=false",
+                "--logging.level.root=WARN");
+        prescriptionService = context.getBean(PrescriptionService.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Paging");
+        context.getBean(DoctorRepository.class).save(doctor);
+        Patient patient = new Patient();
+        patient.setName("Chronic Patient");
+        patientId = context.getBean(PatientRepository.class).save(patient).getpId();
+
+        List<Prescription> rows = new ArrayList<>(prescriptions);
+        LocalDate start = LocalDate.now().minusYears(10);
+        for (int i = 0; i < prescriptions; i++) {
+            Prescription prescription = new Prescription();
+            prescription.setDoctor(doctor);
+            prescription.setPatient(patient);
+            prescription.setMedicine("Medicine " + i);
+            // A few prescriptions per day, so the keyset has to break ties on id
+            prescription.setDate(start.plusDays(i / 3));
+            rows.add(prescription);
+        }
+        prescriptionService.createPrescriptions(rows);
+
+        // Walk to the requested depth once; each invocation then reads that one page
+        cursor = null;
+        for (int page = 0; page < depth; page++) {
+            cursor = prescriptionService.getPrescriptionsByPatientPage(patientId, cursor, PAGE_SIZE).nextCursor();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<Prescription> keysetPage() {
+        return prescriptionService.getPrescriptionsByPatientPage(patientId, cursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Prescription> offsetPage() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.createQuery("SELECT COUNT(p) FROM Prescription p WHERE p.pId = :patientId", Long.class)
+                    .setParameter("patientId", patientId)
+                    .getSingleResult();
+            return entityManager.createQuery("SELECT p FROM Prescription p LEFT JOIN FETCH p.doctor "
+                            + "LEFT JOIN FETCH p.appointment WHERE p.pId = :patientId ORDER BY p.date DESC",
+                            Prescription.class)
+                    .setParameter("patientId", patientId)
+                    .setFirstResult(depth * PAGE_SIZE)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
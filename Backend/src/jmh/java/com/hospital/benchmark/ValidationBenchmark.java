@@ -0,0 +1,50 @@
+package com.hospital.benchmark;
+
+import com.hospital.util.ValidationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Regex checks run on every registration and profile update
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    public String email = "firstname.lastname+tag@hospital.example.com";
+    public String phone = "9876543210";
+    public String bloodGroup = "AB+";
+    public String input = "  <b>O'Brien & \"Sons\"</b>  ";
+
+    @Benchmark
+    public boolean email() {
+        return ValidationUtil.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean phone() {
+        return ValidationUtil.isValidPhone(phone);
+    }
+
+    // Compiles its pattern on every call (String.matches)
+    @Benchmark
+    public boolean bloodGroup() {
+        return ValidationUtil.isValidBloodGroup(bloodGroup);
+    }
+
+    @Benchmark
+    public String sanitizeInput() {
+        return ValidationUtil.sanitizeInput(input);
+    }
+}
@@ -0,0 +1,374 @@
+package com.hospital.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Replays a weighted mix of hospital traffic against a running instance loaded by the datagen
+// profile, and reports throughput and p50/p99/p99.9 latency per operation.
+//
+//   mvn -Pload -DskipTests verify -Dload.args="--users=64 --duration=60s"
+//
+// Closed loop by default: --users virtual users each send a request, wait for the answer,
+// then send the next. With --rate=N requests are started on a fixed schedule instead, and
+// latency is measured from the scheduled start so a stalled server is not under-reported.
+//
+// Every request comes from this one machine, so the server's per-IP login throttle sees a
+// single client. Start the instance under test with the IP bucket raised past the --sessions
+// logins plus the login share of the mix, e.g.
+//
+//   --hospital.auth.throttle.ip.burst=1000000 --hospital.auth.throttle.ip.refill=PT0.001S
+//
+// Otherwise setup waits out each Retry-After, and most measured logins are refused.
+// 429 answers (throttle or a full hashing pool) are counted as rejected, not timed as latency.
+public class LoadDriver {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Options options;
+    private final HttpClient http;
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private final List<Operation> mix = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Integer> patientIds = new ArrayList<>();
+    private final List<Integer> doctorIds = new ArrayList<>();
+    private volatile boolean recording;
+
+    public static void main(String[] args) throws Exception {
+        new LoadDriver(Options.parse(args)).run();
+    }
+
+    LoadDriver(Options options) {
+        this.options = options;
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        for (Map.Entry<String, Integer> entry : options.mix.entrySet()) {
+            Operation operation = new Operation(entry.getKey());
+            operations.put(entry.getKey(), operation);
+            for (int i = 0; i < entry.getValue(); i++) mix.add(operation);
+        }
+    }
+
+    void run() throws Exception {
+        logIn();
+        System.out.printf("Logged in %d patients, %d doctors known; warming up for %ds%n",
+                tokens.size(), doctorIds.size(), options.warmup.toSeconds());
+
+        long end = System.nanoTime() + options.warmup.toNanos() + options.duration.toNanos();
+        long recordFrom = System.nanoTime() + options.warmup.toNanos();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            Thread.ofVirtual().start(() -> {
+                LockSupport.parkNanos(Math.max(0, recordFrom - System.nanoTime()));
+                recording = true;
+            });
+            if (options.rate > 0) {
+                openLoop(users, end);
+            } else {
+                for (int u = 0; u < options.users; u++) {
+                    SplittableRandom random = new SplittableRandom(options.seed * 1_000_003 + u);
+                    users.submit(() -> {
+                        while (System.nanoTime() < end) {
+                            long start = System.nanoTime();
+                            execute(pick(random), random, start);
+                        }
+                    });
+                }
+            }
+        }
+        report();
+    }
+
+    // Starts requests at a fixed rate whether or not earlier ones have finished
+    private void openLoop(ExecutorService users, long end) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        SplittableRandom seeds = new SplittableRandom(options.seed);
+        long next = System.nanoTime();
+        while (next < end) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            long scheduled = next;
+            SplittableRandom random = seeds.split();
+            users.submit(() -> execute(pick(random), random, scheduled));
+            next += interval;
+        }
+    }
+
+    private Operation pick(SplittableRandom random) {
+        return mix.get(random.nextInt(mix.size()));
+    }
+
+    private void execute(Operation operation, SplittableRandom random, long start) {
+        int status;
+        try {
+            status = http.send(request(operation.name, random), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (recording) {
+            operation.record(System.nanoTime() - start, status);
+        }
+    }
+
+    private HttpRequest request(String operation, SplittableRandom random) {
+        int user = random.nextInt(tokens.size());
+        String token = tokens.get(user);
+        Integer patientId = patientIds.get(user);
+        Integer doctorId = doctorIds.get(skewed(random, doctorIds.size()));
+        LocalDate day = LocalDate.now().plusDays(random.nextInt(30));
+        LocalTime time = options.open.plusMinutes(15L * random.nextInt(options.slotsPerDay()));
+
+        return switch (operation) {
+            case "login" -> post("/api/auth/patient/login", null, login(options.patientEmail(random)));
+            case "book" -> post("/api/appointments/book", token, JSON.createObjectNode()
+                    .put("doctorId", doctorId)
+                    .put("patientId", patientId)
+                    .put("date", day.toString())
+                    .put("time", time.toString())
+                    .put("descript", "Load test"));
+            case "check" -> get("/api/appointments/check?doctorId=" + doctorId + "&date=" + day + "&time=" + time, token);
+            case "free-slots" -> get("/api/appointments/free-slots?doctorId=" + doctorId
+                    + "&from=" + day + "&to=" + day.plusDays(6), token);
+            case "doctor-today" -> get("/api/appointments/doctor/" + doctorId + "/today", token);
+            case "dashboard" -> get("/api/analytics/dashboard", token);
+            case "prescriptions" -> get("/api/prescriptions/patient/" + patientId, token);
+            case "patient-appointments" -> get("/api/appointments/patient/" + patientId, token);
+            case "doctors" -> get("/api/doctors", token);
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        };
+    }
+
+    // Popular doctors get most of the traffic, like the generated bookings
+    private static int skewed(SplittableRandom random, int size) {
+        double u = random.nextDouble();
+        return Math.min(size - 1, (int) (size * u * u * u));
+    }
+
+    private void logIn() throws Exception {
+        SplittableRandom random = new SplittableRandom(options.seed);
+        boolean warned = false;
+        for (int i = 0; i < options.sessions; i++) {
+            String email = options.patientEmail(random);
+            HttpResponse<String> response = http.send(post("/api/auth/patient/login", null, login(email)),
+                    HttpResponse.BodyHandlers.ofString());
+            while (response.statusCode() == 429) {
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                if (!warned) {
+                    System.out.println("Login throttled; waiting out Retry-After. Raise hospital.auth.throttle.ip.* "
+                            + "on the server (see LoadDriver) to skip this.");
+                    warned = true;
+                }
+                Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfter));
+                response = http.send(post("/api/auth/patient/login", null, login(email)),
+                        HttpResponse.BodyHandlers.ofString());
+            }
+            if (response.statusCode() != 200) continue;
+            JsonNode body = JSON.readTree(response.body());
+            tokens.add(body.path("token").asText());
+            patientIds.add(body.path("userId").asInt());
+        }
+        if (tokens.isEmpty()) {
+            throw new IllegalStateException("No patient could log in; start the app with the datagen profile first");
+        }
+        HttpResponse<String> doctors = http.send(get("/api/doctors", tokens.get(0)), HttpResponse.BodyHandlers.ofString());
+        for (JsonNode doctor : JSON.readTree(doctors.body())) {
+            doctorIds.add(doctor.path("drId").asInt());
+        }
+        if (doctorIds.isEmpty()) {
+            throw new IllegalStateException("No doctors found");
+        }
+    }
+
+    private ObjectNode login(String email) {
+        return JSON.createObjectNode().put("email", email).put("password", options.password).put("userType", "PATIENT");
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+                .timeout(options.timeout).GET();
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return builder.build();
+    }
+
+    private HttpRequest post(String path, String token, JsonNode body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+                .timeout(options.timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        return builder.build();
+    }
+
+    private void report() throws IOException {
+        double seconds = options.duration.toNanos() / 1e9;
+        ObjectNode json = JSON.createObjectNode();
+        json.put("mode", options.rate > 0 ? "open(" + options.rate + "/s)" : "closed(" + options.users + " users)");
+        json.put("durationSeconds", seconds);
+        ObjectNode byOperation = json.putObject("operations");
+
+        System.out.printf("%n%-22s %9s %9s %9s %9s %9s %9s %8s %8s%n",
+                "operation", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "rejected");
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        long totalRejected = 0;
+        for (Operation operation : operations.values()) {
+            Histogram h = operation.latency;
+            total.add(h);
+            totalErrors += operation.errors.get();
+            totalRejected += operation.rejected.get();
+            print(operation.name, h, operation.errors.get(), operation.rejected.get(), seconds);
+            ObjectNode node = byOperation.putObject(operation.name);
+            node.put("requests", h.getTotalCount());
+            node.put("throughput", h.getTotalCount() / seconds);
+            node.put("p50Ms", millis(h.getValueAtPercentile(50)));
+            node.put("p99Ms", millis(h.getValueAtPercentile(99)));
+            node.put("p999Ms", millis(h.getValueAtPercentile(99.9)));
+            node.put("maxMs", millis(h.getMaxValue()));
+            node.put("errors", operation.errors.get());
+            node.put("rejected", operation.rejected.get());
+            node.set("status", JSON.valueToTree(operation.statuses));
+        }
+        print("TOTAL", total, totalErrors, totalRejected, seconds);
+
+        File out = new File(options.out);
+        if (out.getParentFile() != null) out.getParentFile().mkdirs();
+        JSON.writerWithDefaultPrettyPrinter().writeValue(out, json);
+        System.out.println("\nReport written to " + out.getAbsolutePath());
+    }
+
+    private static void print(String name, Histogram h, long errors, long rejected, double seconds) {
+        System.out.printf("%-22s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %8d %8d%n", name, h.getTotalCount(),
+                h.getTotalCount() / seconds, millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()), errors, rejected);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // Latency in microseconds plus a count per HTTP status. 4xx answers that are part of normal
+    // traffic (a slot already taken, a failed login) are not errors; 5xx and I/O failures are.
+    // 429s are shed load: they are counted as rejected and kept out of the latency histogram,
+    // so fast refusals do not flatter the percentiles of the requests that were served.
+    static final class Operation {
+
+        final String name;
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, int status) {
+            statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+            if (status == 429) {
+                rejected.incrementAndGet();
+                return;
+            }
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), latency.getHighestTrackableValue()));
+            if (status < 0 || status >= 500) errors.incrementAndGet();
+        }
+    }
+
+    static final class Options {
+
+        String baseUrl = "http://localhost:8080";
+        int users = 32;
+        int rate = 0;
+        int sessions = 200;
+        long seed = 1;
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+        Duration timeout = Duration.ofSeconds(30);
+        int patients = 200_000;
+        String password = "password";
+        LocalTime open = LocalTime.of(9, 0);
+        LocalTime close = LocalTime.of(17, 0);
+        String out = "target/load-report.json";
+        // Relative weights; the default approximates a weekday: mostly reads, some booking
+        Map<String, Integer> mix = parseMix(
+                "login:4,book:8,check:20,free-slots:14,doctor-today:14,dashboard:6,prescriptions:14,"
+                        + "patient-appointments:12,doctors:8");
+
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (String arg : args) {
+                if (arg.isBlank()) continue;
+                String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+                String value = kv.length > 1 ? kv[1] : "";
+                switch (kv[0]) {
+                    case "base-url" -> o.baseUrl = value;
+                    case "users" -> o.users = Integer.parseInt(value);
+                    case "rate" -> o.rate = Integer.parseInt(value);
+                    case "sessions" -> o.sessions = Integer.parseInt(value);
+                    case "seed" -> o.seed = Long.parseLong(value);
+                    case "duration" -> o.duration = duration(value);
+                    case "warmup" -> o.warmup = duration(value);
+                    case "timeout" -> o.timeout = duration(value);
+                    case "patients" -> o.patients = Integer.parseInt(value);
+                    case "password" -> o.password = value;
+                    case "open" -> o.open = LocalTime.parse(value);
+                    case "close" -> o.close = LocalTime.parse(value);
+                    case "out" -> o.out = value;
+                    case "mix" -> o.mix = parseMix(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+            return o;
+        }
+
+        // Matches the accounts DatasetGenerator creates
+        String patientEmail(SplittableRandom random) {
+            return "patient" + random.nextInt(patients) + "@gen.hospital";
+        }
+
+        int slotsPerDay() {
+            return (close.toSecondOfDay() - open.toSecondOfDay()) / (15 * 60);
+        }
+
+        private static Duration duration(String value) {
+            if (value.endsWith("ms")) return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            if (value.endsWith("s")) return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+            if (value.endsWith("m")) return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+            return Duration.parse(value);
+        }
+
+        private static Map<String, Integer> parseMix(String value) {
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            for (String part : value.split(",")) {
+                String[] kv = part.split(":");
+                mix.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+            }
+            return mix;
+        }
+    }
+}
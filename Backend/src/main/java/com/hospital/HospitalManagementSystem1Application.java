@@ -2,6 +2,8 @@ package com.hospital;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 import javax.sql.DataSource;
@@ -13,6 +15,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableCaching
 @RestController
 public class HospitalManagementSystem1Application {
 
@@ -0,0 +1,85 @@
+package com.hospital.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Names of the read-through caches behind the public doctor/specialization directory,
+// plus the ETags of directory responses. An ETag is a digest of the response body, so every
+// instance and every restart agrees on it; it is remembered until the next write so
+// If-None-Match is answered without touching the caches or the database.
+@Component
+public class DirectoryCache {
+
+    public static final String SPECIALIZATIONS = "specializations";
+    public static final String DOCTORS = "doctors";
+    public static final String DOCTORS_BY_SPECIALIZATION = "doctorsBySpecialization";
+    public static final String DOCTOR = "doctor";
+
+    private static final List<String> ALL = List.of(SPECIALIZATIONS, DOCTORS, DOCTORS_BY_SPECIALIZATION, DOCTOR);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // An ETag only counts while the version it was computed under is still current, so one
+    // computed from a body read before a concurrent write is never served after it
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, Tag> etags = new ConcurrentHashMap<>();
+
+    // The response body for a directory read under the given key, or null when the request's
+    // If-None-Match still matches it (the caller returns null and the client gets a 304)
+    public <T> T conditional(WebRequest request, String key, Supplier<T> body) {
+        long current = version.get();
+        Tag known = etags.get(key);
+        if (known != null && known.version() == current) {
+            return request.checkNotModified(known.etag()) ? null : body.get();
+        }
+        T value = body.get();
+        String etag = etagOf(value);
+        etags.put(key, new Tag(current, etag));
+        return request.checkNotModified(etag) ? null : value;
+    }
+
+    // Called after every doctor or specialization write. Doctor responses embed their
+    // specialization, so both sides are cleared together.
+    public void invalidate() {
+        for (String name : ALL) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        version.incrementAndGet();
+        etags.clear();
+    }
+
+    private String etagOf(Object body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+            return "\"dir-" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Directory response is not serializable", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Tag(long version, String etag) {
+    }
+}
@@ -1,9 +1,15 @@
 package com.hospital.controller;
 
+import com.hospital.dto.DoctorStats;
+import com.hospital.dto.PatientStats;
+import com.hospital.dto.TrendSeries;
 import com.hospital.service.AnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -20,12 +26,12 @@ public class AnalyticsController {
     }
 
     @GetMapping("/patient/{patientId}/stats")
-    public Map<String, Object> getPatientStats(@PathVariable Integer patientId) {
+    public PatientStats getPatientStats(@PathVariable Integer patientId) {
         return analyticsService.getPatientStats(patientId);
     }
 
     @GetMapping("/doctor/{doctorId}/stats")
-    public Map<String, Object> getDoctorStats(@PathVariable Integer doctorId) {
+    public DoctorStats getDoctorStats(@PathVariable Integer doctorId) {
         return analyticsService.getDoctorStats(doctorId);
     }
 
@@ -33,4 +39,29 @@ public class AnalyticsController {
     public Map<String, Object> getAdminStats() {
         return analyticsService.getAdminStats();
     }
+
+    // Daily trends from the rollup tables, e.g.
+    // /api/analytics/trends/appointments?from=2025-01-01&to=2025-12-31&specializationId=3&status=COMPLETED
+    @GetMapping("/trends/appointments")
+    public TrendSeries getAppointmentTrend(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer doctorId,
+            @RequestParam(required = false) Integer specializationId,
+            @RequestParam(required = false) String status) {
+        return analyticsService.getAppointmentTrend(from, to, doctorId, specializationId, status);
+    }
+
+    @GetMapping("/trends/prescriptions")
+    public TrendSeries getPrescriptionTrend(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer doctorId) {
+        return analyticsService.getPrescriptionTrend(from, to, doctorId);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
 }
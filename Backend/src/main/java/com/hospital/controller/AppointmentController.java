@@ -1,17 +1,31 @@
 package com.hospital.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.dto.AppointmentRow;
+import com.hospital.dto.AppointmentView;
+import com.hospital.dto.BatchResult;
+import com.hospital.dto.ChangeSet;
+import com.hospital.dto.CursorPage;
+import com.hospital.dto.FreeSlot;
+import com.hospital.dto.PatientView;
 import com.hospital.entity.Appointment;
+import com.hospital.push.AppointmentBroadcaster;
 import com.hospital.service.AppointmentService;
+import com.hospital.service.ChangeFeedService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.hospital.entity.Patient;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -21,6 +35,15 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private AppointmentBroadcaster appointmentBroadcaster;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // DTO for updating status
     public static class UpdateStatusRequest {
         private String status;
@@ -28,27 +51,61 @@ public class AppointmentController {
         public void setStatus(String status) { this.status = status; }
     }
 
+    // DTO for atomic slot booking
+    public static class BookSlotRequest {
+        private Integer doctorId;
+        private Integer patientId;
+        private LocalDate date;
+        private LocalTime time;
+        private String descript;
+        public Integer getDoctorId() { return doctorId; }
+        public void setDoctorId(Integer doctorId) { this.doctorId = doctorId; }
+        public Integer getPatientId() { return patientId; }
+        public void setPatientId(Integer patientId) { this.patientId = patientId; }
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+        public LocalTime getTime() { return time; }
+        public void setTime(LocalTime time) { this.time = time; }
+        public String getDescript() { return descript; }
+        public void setDescript(String descript) { this.descript = descript; }
+    }
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Appointment createAppointment(@RequestBody Appointment appointment) {
-        return appointmentService.createAppointment(appointment);
+    public AppointmentView createAppointment(@RequestBody Appointment appointment) {
+        return AppointmentView.of(appointmentService.createAppointment(appointment));
+    }
+
+    // Check-and-book in one step; 409 if the doctor is already booked at that time
+    @PostMapping("/book")
+    @ResponseStatus(HttpStatus.CREATED)
+    public AppointmentView bookSlot(@RequestBody BookSlotRequest request) {
+        return AppointmentView.of(appointmentService.bookSlot(request.getDoctorId(), request.getDate(),
+                request.getTime(), request.getPatientId(), request.getDescript()));
     }
 
     @GetMapping
-    public List<Appointment> getAllAppointments() {
-        return appointmentService.getAllAppointments();
+    public List<AppointmentView> getAllAppointments() {
+        return views(appointmentService.getAllAppointments());
     }
 
     @GetMapping("/{id}")
-    public Appointment getAppointmentById(@PathVariable Integer id) {
+    public AppointmentView getAppointmentById(@PathVariable Integer id) {
         return appointmentService.getAppointmentById(id)
+                .map(AppointmentView::of)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + id));
     }
 
     @PutMapping("/{id}")
-    public Appointment updateAppointment(@PathVariable Integer id, @RequestBody Appointment appointment) {
+    public AppointmentView updateAppointment(@PathVariable Integer id, @RequestBody Appointment appointment) {
         appointment.setApId(id);
-        return appointmentService.updateAppointment(appointment);
+        return AppointmentView.of(appointmentService.updateAppointment(appointment));
+    }
+
+    // Bulk reschedule: each item carries its apId and only the fields to change
+    @PutMapping("/batch")
+    public BatchResult updateAppointments(@RequestBody List<Appointment> appointments) {
+        return appointmentService.updateAppointments(appointments);
     }
 
     @DeleteMapping("/{id}")
@@ -58,45 +115,45 @@ public class AppointmentController {
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public List<Appointment> getAppointmentsByDoctor(@PathVariable Integer doctorId) {
-        return appointmentService.getAppointmentsByDoctor(doctorId);
+    public List<AppointmentView> getAppointmentsByDoctor(@PathVariable Integer doctorId) {
+        return views(appointmentService.getAppointmentsByDoctor(doctorId));
     }
 
     @GetMapping("/patient/{patientId}")
-    public List<Appointment> getAppointmentsByPatient(@PathVariable Integer patientId) {
-        return appointmentService.getAppointmentsByPatient(patientId);
+    public List<AppointmentView> getAppointmentsByPatient(@PathVariable Integer patientId) {
+        return views(appointmentService.getAppointmentsByPatient(patientId));
     }
 
     @GetMapping("/status/{status}")
-    public List<Appointment> getAppointmentsByStatus(@PathVariable String status) {
-        return appointmentService.getAppointmentsByStatus(status);
+    public List<AppointmentView> getAppointmentsByStatus(@PathVariable String status) {
+        return views(appointmentService.getAppointmentsByStatus(status));
     }
 
     @GetMapping("/date/{date}")
-    public List<Appointment> getAppointmentsByDate(
+    public List<AppointmentView> getAppointmentsByDate(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return appointmentService.getAppointmentsByDate(date.toString());
+        return views(appointmentService.getAppointmentsByDate(date.toString()));
     }
 
     @PutMapping("/{id}/status")
-    public Appointment updateAppointmentStatus(@PathVariable Integer id,
-                                               @RequestBody UpdateStatusRequest request) {
-        return appointmentService.updateStatus(id, request.getStatus());
+    public AppointmentView updateAppointmentStatus(@PathVariable Integer id,
+                                                   @RequestBody UpdateStatusRequest request) {
+        return AppointmentView.of(appointmentService.updateStatus(id, request.getStatus()));
     }
 
     @GetMapping("/doctor/{doctorId}/upcoming")
-    public List<Appointment> getUpcomingAppointments(@PathVariable Integer doctorId) {
-        return appointmentService.getUpcomingAppointments(doctorId);
+    public List<AppointmentView> getUpcomingAppointments(@PathVariable Integer doctorId) {
+        return views(appointmentService.getUpcomingAppointments(doctorId));
     }
 
     @GetMapping("/doctor/{doctorId}/past")
-    public List<Appointment> getPastAppointments(@PathVariable Integer doctorId) {
-        return appointmentService.getPastAppointments(doctorId);
+    public List<AppointmentView> getPastAppointments(@PathVariable Integer doctorId) {
+        return views(appointmentService.getPastAppointments(doctorId));
     }
 
     @GetMapping("/doctor/{doctorId}/today")
-    public List<Appointment> getTodayAppointments(@PathVariable Integer doctorId) {
-        return appointmentService.getTodayAppointments(doctorId);
+    public List<AppointmentView> getTodayAppointments(@PathVariable Integer doctorId) {
+        return views(appointmentService.getTodayAppointments(doctorId));
     }
 
     @GetMapping("/check")
@@ -112,16 +169,143 @@ public class AppointmentController {
         }
     }
 
+    // All free 15-minute slots of one doctor over a date range (served from memory)
+    @GetMapping("/free-slots")
+    public List<FreeSlot> getFreeSlots(
+            @RequestParam Integer doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return appointmentService.getFreeSlots(doctorId, from, to);
+    }
+
+    // The first N free slots across every doctor in a specialization
+    @GetMapping("/free-slots/specialization/{specializationId}")
+    public List<FreeSlot> getFirstFreeSlots(
+            @PathVariable Integer specializationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "10") int limit) {
+        return appointmentService.getFirstFreeSlots(specializationId, from != null ? from : LocalDate.now(), limit);
+    }
+
     @GetMapping("/doctor/{doctorId}/date/{date}")
-    public List<Appointment> getAppointmentsByDoctorAndDate(
+    public List<AppointmentView> getAppointmentsByDoctorAndDate(
             @PathVariable Integer doctorId,
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return appointmentService.getAppointmentsByDoctorAndDate(doctorId, date.toString());
+        return views(appointmentService.getAppointmentsByDoctorAndDate(doctorId, date.toString()));
     }
 
     @GetMapping("/{doctorId}/patients")
-    public List<Patient> getDoctorPatients(@PathVariable Integer doctorId) {
-        return appointmentService.getPatientsByDoctorId(doctorId);
+    public List<PatientView> getDoctorPatients(@PathVariable Integer doctorId) {
+        return appointmentService.getPatientsByDoctorId(doctorId).stream().map(PatientView::of).toList();
+    }
+
+    // ----------------- Keyset-paginated listings -----------------
+    @GetMapping("/page")
+    public CursorPage<AppointmentView> getAppointmentsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return appointmentService.getAppointmentsPage(cursor, limit).map(AppointmentView::of);
+    }
+
+    @GetMapping("/status/{status}/page")
+    public CursorPage<AppointmentView> getAppointmentsByStatusPage(
+            @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return appointmentService.getAppointmentsByStatusPage(status, cursor, limit).map(AppointmentView::of);
+    }
+
+    @GetMapping("/doctor/{doctorId}/page")
+    public CursorPage<AppointmentView> getAppointmentsByDoctorPage(
+            @PathVariable Integer doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return appointmentService.getAppointmentsByDoctorPage(doctorId, cursor, limit).map(AppointmentView::of);
+    }
+
+    @GetMapping("/doctor/{doctorId}/past/page")
+    public CursorPage<AppointmentView> getPastAppointmentsPage(
+            @PathVariable Integer doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return appointmentService.getPastAppointmentsPage(doctorId, cursor, limit).map(AppointmentView::of);
+    }
+
+    // ----------------- Change feed -----------------
+    // Without ?since: an empty set and the token to start from (take it before a full load).
+    // With it: rows written and ids deleted since, or 204 when nothing changed, in which case
+    // the client keeps its token. 410 when the token is past tombstone retention.
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeSet<AppointmentView>> getAppointmentChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer patientId,
+            @RequestParam(defaultValue = "200") int limit) {
+        ChangeSet<Appointment> changes = changeFeedService.getAppointmentChanges(since, patientId, limit);
+        if (since != null && !since.isBlank() && changes.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(changes.map(AppointmentView::of));
+    }
+
+    // ----------------- Live updates -----------------
+    // Server-Sent Events for one doctor, one patient, or (neither given) every appointment:
+    // "appointment" events per committed write, "resync" when the client fell behind or rows
+    // went in bulk, in which case it catches up through /changes
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAppointments(
+            @RequestParam(required = false) Integer doctorId,
+            @RequestParam(required = false) Integer patientId) {
+        return appointmentBroadcaster.subscribe(doctorId, patientId);
+    }
+
+    // ----------------- Streaming exports -----------------
+    // NDJSON by default; ?format=csv for CSV, ?gzip=true for a compressed download
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("appointments", format, gzip, sink -> appointmentService.exportAppointments(sink));
+    }
+
+    @GetMapping("/status/{status}/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsByStatus(
+            @PathVariable String status,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("appointments-" + status, format, gzip,
+                sink -> appointmentService.exportAppointmentsByStatus(status, sink));
+    }
+
+    @GetMapping("/doctor/{doctorId}/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointmentsByDoctor(
+            @PathVariable Integer doctorId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("appointments-doctor-" + doctorId, format, gzip,
+                sink -> appointmentService.exportAppointmentsByDoctor(doctorId, sink));
+    }
+
+    @GetMapping("/doctor/{doctorId}/past/export")
+    public ResponseEntity<StreamingResponseBody> exportPastAppointments(
+            @PathVariable Integer doctorId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return export("appointments-doctor-" + doctorId + "-past", format, gzip,
+                sink -> appointmentService.exportPastAppointments(doctorId, sink));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, String format, boolean gzip,
+                                                         Consumer<Consumer<AppointmentRow>> export) {
+        return ExportResponses.stream(name, format, gzip, AppointmentRow.class, objectMapper, export);
+    }
+
+    private static List<AppointmentView> views(List<Appointment> appointments) {
+        return appointments.stream().map(AppointmentView::of).toList();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
 
     // Custom Exception for 404
@@ -5,8 +5,13 @@ import com.hospital.dto.LoginResponse;
 import com.hospital.entity.Admin;
 import com.hospital.repository.AdminRepository;
 import com.hospital.security.JwtUtil;
+import com.hospital.security.LoginThrottle;
+import com.hospital.security.TooManyRequestsException;
 import com.hospital.service.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -25,10 +30,16 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         try {
+            loginThrottle.acquire(request.getRemoteAddr(), loginRequest.getEmail());
             return ResponseEntity.ok(authenticationService.authenticate(loginRequest));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e, loginRequest);
         } catch (RuntimeException e) {
             return ResponseEntity.status(401).body(
                 new LoginResponse(
@@ -61,9 +72,12 @@ public class AuthController {
     }
 
     @PostMapping("/patient/login")
-    public ResponseEntity<LoginResponse> patientLogin(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<LoginResponse> patientLogin(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         try {
+            loginThrottle.acquire(request.getRemoteAddr(), loginRequest.getEmail());
             return ResponseEntity.ok(authenticationService.authenticatePatient(loginRequest));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e, loginRequest);
         } catch (RuntimeException e) {
             return ResponseEntity.status(401).body(
                 new LoginResponse(
@@ -80,10 +94,13 @@ public class AuthController {
     }
 
     @PostMapping("/admin/login")
-    public ResponseEntity<LoginResponse> adminLogin(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<LoginResponse> adminLogin(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         try {
+            loginThrottle.acquire(request.getRemoteAddr(), loginRequest.getEmail());
             // Assuming the generic authenticate method can handle admins based on userType
             return ResponseEntity.ok(authenticationService.authenticate(loginRequest));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e, loginRequest);
         } catch (RuntimeException e) {
             return ResponseEntity.status(401).body(
                 new LoginResponse(
@@ -100,9 +117,12 @@ public class AuthController {
     }
 
     @PostMapping("/doctor/login")
-    public ResponseEntity<LoginResponse> doctorLogin(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<LoginResponse> doctorLogin(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         try {
+            loginThrottle.acquire(request.getRemoteAddr(), loginRequest.getEmail());
             return ResponseEntity.ok(authenticationService.authenticateDoctor(loginRequest));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e, loginRequest);
         } catch (RuntimeException e) {
             return ResponseEntity.status(401).body(
                 new LoginResponse(
@@ -119,9 +139,12 @@ public class AuthController {
     }
 
     @PostMapping("/patient/register")
-    public ResponseEntity<LoginResponse> registerPatient(@RequestBody LoginRequest registerRequest) {
+    public ResponseEntity<LoginResponse> registerPatient(@RequestBody LoginRequest registerRequest, HttpServletRequest request) {
         try {
+            loginThrottle.acquire(request.getRemoteAddr(), registerRequest.getEmail());
             return ResponseEntity.ok(authenticationService.registerPatient(registerRequest));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e, registerRequest);
         } catch (RuntimeException e) {
             return ResponseEntity.status(400).body(
                 new LoginResponse(
@@ -138,9 +161,12 @@ public class AuthController {
     }
 
     @PostMapping("/doctor/register")
-    public ResponseEntity<LoginResponse> registerDoctor(@RequestBody LoginRequest registerRequest) {
+    public ResponseEntity<LoginResponse> registerDoctor(@RequestBody LoginRequest registerRequest, HttpServletRequest request) {
         try {
+            loginThrottle.acquire(request.getRemoteAddr(), registerRequest.getEmail());
             return ResponseEntity.ok(authenticationService.registerDoctor(registerRequest));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e, registerRequest);
         } catch (RuntimeException e) {
             return ResponseEntity.status(400).body(
                 new LoginResponse(
@@ -156,6 +182,13 @@ public class AuthController {
         }
     }
 
+    // Throttled or the hashing pool is full: the client should back off, not re-prompt for the password
+    private ResponseEntity<LoginResponse> tooManyRequests(TooManyRequestsException e, LoginRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new LoginResponse(null, request.getUserType(), 0, null, request.getEmail(), e.getMessage(), false));
+    }
+
     @GetMapping("/validate")
     public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String authHeader) {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -1,11 +1,15 @@
 package com.hospital.controller;
 
+import com.hospital.cache.DirectoryCache;
+import com.hospital.dto.DoctorView;
+import com.hospital.dto.DoctorStats;
 import com.hospital.entity.Doctor;
 import com.hospital.service.DoctorService;
 import com.hospital.service.AnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -21,30 +25,36 @@ public class DoctorController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private DirectoryCache directoryCache;
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Doctor createDoctor(@RequestBody Doctor doctor) {
-        return doctorService.saveDoctor(doctor);
+    public DoctorView createDoctor(@RequestBody Doctor doctor) {
+        return DoctorView.of(doctorService.saveDoctor(doctor));
     }
 
+    // Directory reads answer If-None-Match with 304 from the remembered ETag, before looking anything up
     @GetMapping
-    public List<Doctor> getAllDoctors() {
-        return doctorService.getAllDoctors();
+    public List<DoctorView> getAllDoctors(WebRequest request) {
+        return directoryCache.conditional(request, "doctors",
+                () -> doctorService.getAllDoctors().stream().map(DoctorView::of).toList());
     }
 
     @GetMapping("/{id}")
-    public Doctor getDoctorById(@PathVariable Integer id) {
-        return doctorService.getDoctorById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id));
+    public DoctorView getDoctorById(@PathVariable Integer id, WebRequest request) {
+        return directoryCache.conditional(request, "doctor:" + id, () -> doctorService.getDoctorById(id)
+                .map(DoctorView::of)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + id)));
     }
 
     @PutMapping("/{id}")
-    public Doctor updateDoctor(@PathVariable Integer id, @RequestBody Doctor doctor) {
+    public DoctorView updateDoctor(@PathVariable Integer id, @RequestBody Doctor doctor) {
         if (!doctorService.existsById(id)) {
             throw new ResourceNotFoundException("Doctor not found with id: " + id);
         }
         doctor.setDrId(id);
-        return doctorService.updateDoctor(doctor);
+        return DoctorView.of(doctorService.updateDoctor(doctor));
     }
 
     @DeleteMapping("/{id}")
@@ -57,23 +67,26 @@ public class DoctorController {
     }
 
     @GetMapping("/specialization/{specializationId}")
-    public List<Doctor> getDoctorsBySpecialization(@PathVariable Integer specializationId) {
-        return doctorService.getDoctorsBySpecializationId(specializationId);
+    public List<DoctorView> getDoctorsBySpecialization(@PathVariable Integer specializationId, WebRequest request) {
+        return directoryCache.conditional(request, "doctorsBySpecialization:" + specializationId,
+                () -> doctorService.getDoctorsBySpecializationId(specializationId).stream().map(DoctorView::of).toList());
     }
 
     @GetMapping("/search")
-    public List<Doctor> searchDoctorsByName(@RequestParam String name) {
-        return doctorService.searchDoctorsByName(name);
+    public List<DoctorView> searchDoctorsByName(@RequestParam String name,
+                                            @RequestParam(defaultValue = "50") int limit) {
+        return doctorService.searchDoctorsByName(name, limit).stream().map(DoctorView::of).toList();
     }
 
     @GetMapping("/email/{email}")
-    public Doctor findByEmail(@PathVariable String email) {
+    public DoctorView findByEmail(@PathVariable String email) {
         return doctorService.findByEmail(email)
+                .map(DoctorView::of)
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with email: " + email));
     }
 
     @GetMapping("/{id}/stats")
-    public Map<String, Object> getDoctorStats(@PathVariable Integer id) {
+    public DoctorStats getDoctorStats(@PathVariable Integer id) {
         return analyticsService.getDoctorStats(id);
     }
 
@@ -0,0 +1,59 @@
+package com.hospital.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.util.ExportFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+// Streaming export responses shared by the controllers: rows are written to the response as
+// they come off the cursor, through a fixed 16 KB buffer and, when asked for, a gzip stream.
+// Gzipped exports are sent as a .gz attachment rather than with Content-Encoding, so the
+// downloaded file stays compressed.
+final class ExportResponses {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private ExportResponses() {}
+
+    static <T extends Record> ResponseEntity<StreamingResponseBody> stream(
+            String name, String format, boolean gzip, Class<T> rowType, ObjectMapper objectMapper,
+            Consumer<Consumer<T>> export) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        ExportFormat.RowWriter<T> writer = exportFormat.writer(rowType, objectMapper);
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            OutputStream buffered = new BufferedOutputStream(gzip ? compressed : out, BUFFER_SIZE);
+            writer.start(buffered);
+            try {
+                export.accept(row -> {
+                    try {
+                        writer.write(row, buffered);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            buffered.flush();
+            if (compressed != null) compressed.finish();
+        };
+
+        String filename = name + "." + exportFormat.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -5,8 +5,10 @@ import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -17,7 +19,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.hospital.dto.PatientView;
+import com.hospital.dto.PatientStats;
 import com.hospital.entity.Patient;
+import com.hospital.security.TooManyRequestsException;
 import com.hospital.service.PatientService;
 import com.hospital.service.AnalyticsService;
 
@@ -33,25 +38,26 @@ public class PatientController {
     private AnalyticsService analyticsService;
 
     @GetMapping
-    public List<Patient> getAllPatients() {
-        return patientService.getAllPatients();
+    public List<PatientView> getAllPatients() {
+        return patientService.getAllPatients().stream().map(PatientView::of).toList();
     }
 
     @GetMapping("/{id}")
-    public Patient getPatientById(@PathVariable int id) {
+    public PatientView getPatientById(@PathVariable int id) {
         return patientService.getPatientById(id)
+                .map(PatientView::of)
                 .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Patient createPatient(@RequestBody Patient patient) {
-        return patientService.save(patient);
+    public PatientView createPatient(@RequestBody Patient patient) {
+        return PatientView.of(patientService.save(patient));
     }
 
     @PutMapping("/{id}")
-    public Patient updatePatient(@PathVariable int id, @RequestBody Patient patient) {
-        return patientService.updatePatient(patient);
+    public PatientView updatePatient(@PathVariable int id, @RequestBody Patient patient) {
+        return PatientView.of(patientService.updatePatient(patient));
     }
 
     @DeleteMapping("/{id}")
@@ -61,40 +67,53 @@ public class PatientController {
     }
 
     @GetMapping("/bloodgroup/{bloodGroup}")
-    public List<Patient> getPatientsByBloodGroup(@PathVariable String bloodGroup) {
-        return patientService.getPatientsByBloodGroup(bloodGroup);
+    public List<PatientView> getPatientsByBloodGroup(@PathVariable String bloodGroup) {
+        return patientService.getPatientsByBloodGroup(bloodGroup).stream().map(PatientView::of).toList();
     }
 
     @GetMapping("/search")
-    public List<Patient> searchPatientsByName(@RequestParam String name) {
-        return patientService.searchPatientsByName(name);
+    public List<PatientView> searchPatientsByName(@RequestParam String name,
+                                              @RequestParam(defaultValue = "50") int limit) {
+        return patientService.searchPatientsByName(name, limit).stream().map(PatientView::of).toList();
     }
 
     @GetMapping("/email")
-    public Patient findPatientByEmail(@RequestParam String email) {
+    public PatientView findPatientByEmail(@RequestParam String email) {
         return patientService.findByEmail(email)
+                .map(PatientView::of)
                 .orElseThrow(() -> new RuntimeException("Patient not found with email: " + email));
     }
 
     @GetMapping("/search-contact")
-    public List<Patient> searchPatientsByContact(@RequestParam String contact) {
-        return patientService.findByContactContaining(contact);
+    public List<PatientView> searchPatientsByContact(@RequestParam String contact,
+                                                 @RequestParam(defaultValue = "50") int limit) {
+        return patientService.findByContactContaining(contact, limit).stream().map(PatientView::of).toList();
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public List<Patient> getPatientsByDoctor(@PathVariable int doctorId) {
-        return patientService.findByDoctorId(doctorId);
+    public List<PatientView> getPatientsByDoctor(@PathVariable int doctorId) {
+        return patientService.findByDoctorId(doctorId).stream().map(PatientView::of).toList();
     }
 
     @GetMapping("/{id}/stats")
-    public Map<String, Object> getPatientStats(@PathVariable Integer id) {
+    public PatientStats getPatientStats(@PathVariable Integer id) {
         return analyticsService.getPatientStats(id);
     }
 
     @PutMapping("/{id}/change-password")
-    public Patient changePassword(@PathVariable int id, @RequestBody Map<String, String> passwordData) {
+    public PatientView changePassword(@PathVariable int id, @RequestBody Map<String, String> passwordData) {
         String currentPassword = passwordData.get("currentPassword");
         String newPassword = passwordData.get("newPassword");
-        return patientService.changePassword(id, currentPassword, newPassword);
+        return PatientView.of(patientService.changePassword(id, currentPassword, newPassword));
+    }
+
+    // Creating a patient hashes the password on the shared bounded pool. When that pool is full
+    // the server is overloaded, not the caller: answer 503 like RequestAdmissionFilter does,
+    // not the 429 the login endpoints use.
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, String>> handleHashingSaturated(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
     }
 }
\ No newline at end of file
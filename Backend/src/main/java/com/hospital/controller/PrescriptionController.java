@@ -1,14 +1,22 @@
 package com.hospital.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hospital.entity.Prescription;
+import com.hospital.dto.BatchResult;
+import com.hospital.dto.CursorPage;
+import com.hospital.dto.PrescriptionRow;
+import com.hospital.dto.PrescriptionView;
 import com.hospital.service.PrescriptionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/prescriptions")
@@ -18,30 +26,40 @@ public class PrescriptionController {
     @Autowired
     private PrescriptionService prescriptionService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public List<Prescription> getAllPrescriptions() {
-        return prescriptionService.getAllPrescriptions();
+    public List<PrescriptionView> getAllPrescriptions() {
+        return prescriptionService.getAllPrescriptions().stream().map(PrescriptionView::of).toList();
     }
 
     @GetMapping("/{id}")
-    public Prescription getPrescriptionById(@PathVariable Integer id) {
+    public PrescriptionView getPrescriptionById(@PathVariable Integer id) {
         return prescriptionService.getPrescriptionById(id)
+                .map(PrescriptionView::of)
                 .orElseThrow(() -> new ResourceNotFoundException("Prescription not found with id: " + id));
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Prescription createPrescription(@RequestBody Prescription prescription) {
-        return prescriptionService.createPrescription(prescription);
+    public PrescriptionView createPrescription(@RequestBody Prescription prescription) {
+        return PrescriptionView.of(prescriptionService.createPrescription(prescription));
+    }
+
+    // End-of-day upload: same item shape as POST /api/prescriptions, results in request order
+    @PostMapping("/batch")
+    public BatchResult createPrescriptions(@RequestBody List<Prescription> prescriptions) {
+        return prescriptionService.createPrescriptions(prescriptions);
     }
 
     @PutMapping("/{id}")
-    public Prescription updatePrescription(@PathVariable Integer id, @RequestBody Prescription prescription) {
+    public PrescriptionView updatePrescription(@PathVariable Integer id, @RequestBody Prescription prescription) {
         if (!prescriptionService.existsById(id)) {
             throw new ResourceNotFoundException("Prescription not found with id: " + id);
         }
         prescription.setId(id); // ensure ID is set
-        return prescriptionService.updatePrescription(prescription);
+        return PrescriptionView.of(prescriptionService.updatePrescription(prescription));
     }
 
     @DeleteMapping("/{id}")
@@ -54,24 +72,55 @@ public class PrescriptionController {
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public List<Prescription> getPrescriptionsByDoctor(@PathVariable Integer doctorId) {
-        return prescriptionService.getPrescriptionsByDoctor(doctorId);
+    public List<PrescriptionView> getPrescriptionsByDoctor(@PathVariable Integer doctorId) {
+        return prescriptionService.getPrescriptionsByDoctor(doctorId).stream().map(PrescriptionView::of).toList();
     }
 
     @GetMapping("/patient/{patientId}")
-    public List<Prescription> getPrescriptionsByPatient(@PathVariable Integer patientId) {
-        return prescriptionService.getPrescriptionsByPatient(patientId);
+    public List<PrescriptionView> getPrescriptionsByPatient(@PathVariable Integer patientId) {
+        return prescriptionService.getPrescriptionsByPatient(patientId).stream().map(PrescriptionView::of).toList();
+    }
+
+    // Keyset pages, newest first: pass back nextCursor until it is null
+    @GetMapping("/patient/{patientId}/page")
+    public CursorPage<PrescriptionView> getPrescriptionsByPatientPage(
+            @PathVariable Integer patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return prescriptionService.getPrescriptionsByPatientPage(patientId, cursor, limit).map(PrescriptionView::of);
     }
 
     @GetMapping("/appointment/{appointmentId}")
-    public List<Prescription> getPrescriptionsByAppointment(@PathVariable Integer appointmentId) {
-        return prescriptionService.getPrescriptionsByAppointment(appointmentId);
+    public List<PrescriptionView> getPrescriptionsByAppointment(@PathVariable Integer appointmentId) {
+        return prescriptionService.getPrescriptionsByAppointment(appointmentId).stream().map(PrescriptionView::of).toList();
     }
 
     @GetMapping("/date/{date}")
-    public List<Prescription> getPrescriptionsByDate(
+    public List<PrescriptionView> getPrescriptionsByDate(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        return prescriptionService.getPrescriptionsByDate(date);
+        return prescriptionService.getPrescriptionsByDate(date).stream().map(PrescriptionView::of).toList();
+    }
+
+    // Audit export, streamed from a database cursor: ?format=csv|ndjson, optional date range
+    // (inclusive) and doctor, ?gzip=true for a compressed download
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPrescriptions(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer doctorId,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        // Checked here as well, before the response is committed, so a bad range is still a 400
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        return ExportResponses.stream("prescriptions", format, gzip, PrescriptionRow.class, objectMapper,
+                sink -> prescriptionService.exportPrescriptions(from, to, doctorId, sink));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
     }
 
     // Custom Exception for 404
@@ -1,10 +1,13 @@
 package com.hospital.controller;
 
+import com.hospital.cache.DirectoryCache;
 import com.hospital.entity.Specialization;
+import com.hospital.dto.SpecializationView;
 import com.hospital.service.SpecializationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,29 +19,35 @@ public class SpecializationController {
     @Autowired
     private SpecializationService specializationService;
 
+    @Autowired
+    private DirectoryCache directoryCache;
+
+    // Answers If-None-Match with 304 from the remembered ETag, before looking anything up
     @GetMapping
-    public List<Specialization> getAllSpecializations() {
-        return specializationService.getAllSpecializations();
+    public List<SpecializationView> getAllSpecializations(WebRequest request) {
+        return directoryCache.conditional(request, "specializations",
+                () -> specializationService.getAllSpecializations().stream().map(SpecializationView::of).toList());
     }
 
     @GetMapping("/{id}")
-    public Specialization getSpecializationById(@PathVariable Integer id) {
+    public SpecializationView getSpecializationById(@PathVariable Integer id) {
         return specializationService.getSpecializationById(id)
+                .map(SpecializationView::of)
                 .orElseThrow(() -> new ResourceNotFoundException("Specialization not found with id: " + id));
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Specialization createSpecialization(@RequestBody Specialization specialization) {
-        return specializationService.createSpecialization(specialization);
+    public SpecializationView createSpecialization(@RequestBody Specialization specialization) {
+        return SpecializationView.of(specializationService.createSpecialization(specialization));
     }
 
     @PutMapping("/{id}")
-    public Specialization updateSpecialization(@PathVariable Integer id, @RequestBody Specialization specialization) {
+    public SpecializationView updateSpecialization(@PathVariable Integer id, @RequestBody Specialization specialization) {
         if (!specializationService.existsById(id)) {
             throw new ResourceNotFoundException("Specialization not found with id: " + id);
         }
-        return specializationService.updateSpecialization(specialization);
+        return SpecializationView.of(specializationService.updateSpecialization(specialization));
     }
 
     @DeleteMapping("/{id}")
@@ -51,8 +60,9 @@ public class SpecializationController {
     }
 
     @GetMapping("/name/{name}")
-    public Specialization getSpecializationByName(@PathVariable String name) {
+    public SpecializationView getSpecializationByName(@PathVariable String name) {
         return specializationService.getSpecializationByName(name)
+                .map(SpecializationView::of)
                 .orElseThrow(() -> new ResourceNotFoundException("Specialization not found with name: " + name));
     }
 
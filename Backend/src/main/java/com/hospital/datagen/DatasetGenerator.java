@@ -0,0 +1,339 @@
+package com.hospital.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Bulk-loads a synthetic hospital when the app starts with --spring.profiles.active=datagen.
+// The same seed and sizes always produce the same rows. Load is skewed the way a real hospital
+// is: a few specializations hold most doctors, a few doctors take most appointments, and
+// a minority of patients account for most visits.
+// Rows go in with JDBC batches (add rewriteBatchedStatements=true to the MySQL URL); the
+// in-memory indexes pick them up on ApplicationReadyEvent, which fires after this runner.
+@Component
+@Profile("datagen")
+public class DatasetGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] SPECIALIZATIONS = {
+            "General Medicine", "Cardiology", "Orthopedics", "Pediatrics", "Dermatology", "Gynecology",
+            "Neurology", "ENT", "Ophthalmology", "Psychiatry", "Oncology", "Nephrology", "Urology",
+            "Gastroenterology", "Pulmonology", "Endocrinology", "Rheumatology", "Radiology",
+            "Anesthesiology", "Dentistry"};
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Priya", "Rahul", "Sneha", "Vikram", "Ananya", "Arjun", "Kavya", "Rohan", "Meera",
+            "Sanjay", "Divya", "Karan", "Pooja", "Nikhil", "Isha", "Amit", "Neha", "Suresh", "Lakshmi"};
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Patel", "Iyer", "Reddy", "Nair", "Gupta", "Singh", "Kumar", "Das", "Joshi",
+            "Mehta", "Rao", "Pillai", "Bose", "Kulkarni", "Menon", "Shah", "Verma", "Chopra", "Desai"};
+    private static final String[] BLOOD_GROUPS = {"O+", "A+", "B+", "AB+", "O-", "A-", "B-", "AB-"};
+    private static final double[] BLOOD_GROUP_WEIGHTS = {37, 28, 22, 6, 3, 2, 1.5, 0.5};
+    private static final String[] MEDICINES = {
+            "Paracetamol 500mg", "Amoxicillin 250mg", "Atorvastatin 10mg", "Metformin 500mg",
+            "Amlodipine 5mg", "Omeprazole 20mg", "Cetirizine 10mg", "Ibuprofen 400mg",
+            "Azithromycin 500mg", "Pantoprazole 40mg", "Losartan 50mg", "Vitamin D3 60000IU"};
+    private static final String[] ADVICE = {
+            "Twice daily after meals", "Once daily at bedtime", "Three times a day for 5 days",
+            "As needed for pain", "Once weekly for 8 weeks", "Before breakfast"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${hospital.datagen.seed:42}")
+    private long seed;
+
+    @Value("${hospital.datagen.specializations:20}")
+    private int specializationCount;
+
+    @Value("${hospital.datagen.doctors:500}")
+    private int doctorCount;
+
+    @Value("${hospital.datagen.patients:200000}")
+    private int patientCount;
+
+    @Value("${hospital.datagen.appointments:2000000}")
+    private int appointmentCount;
+
+    // Share of completed appointments that get a prescription
+    @Value("${hospital.datagen.prescription-ratio:0.7}")
+    private double prescriptionRatio;
+
+    @Value("${hospital.datagen.days-back:365}")
+    private int daysBack;
+
+    @Value("${hospital.datagen.days-ahead:60}")
+    private int daysAhead;
+
+    @Value("${hospital.datagen.batch-size:5000}")
+    private int batchSize;
+
+    // Every generated doctor and patient logs in with this password
+    @Value("${hospital.datagen.password:password}")
+    private String password;
+
+    @Value("${hospital.availability.open:09:00}")
+    private LocalTime open;
+
+    @Value("${hospital.availability.close:17:00}")
+    private LocalTime close;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM doctor WHERE email LIKE 'dr%@gen.hospital'", Integer.class);
+        if (existing != null && existing > 0) {
+            log.info("Generated data already present, nothing to do");
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        String passwordHash = passwordEncoder.encode(password);
+        long started = System.currentTimeMillis();
+
+        int[] specializationIds = insertSpecializations();
+        int[] doctorIds = insertDoctors(random, specializationIds, passwordHash);
+        int[] patientIds = insertPatients(random, passwordHash);
+        long firstAppointmentId = maxId("appointment", "ap_id");
+        insertAppointments(random, doctorIds, patientIds);
+        int prescriptions = insertPrescriptions(random, firstAppointmentId);
+
+        log.info("Generated {} specializations, {} doctors, {} patients, {} appointments, {} prescriptions in {}s",
+                specializationIds.length, doctorIds.length, patientIds.length, appointmentCount, prescriptions,
+                (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private int[] insertSpecializations() {
+        long before = maxId("specialization", "id");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < specializationCount; i++) {
+            String name = i < SPECIALIZATIONS.length ? SPECIALIZATIONS[i] : "Specialty " + (i + 1);
+            rows.add(new Object[]{name});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO specialization (name) VALUES (?)", rows);
+        return ids("SELECT id FROM specialization WHERE id > ? ORDER BY id", before);
+    }
+
+    private int[] insertDoctors(SplittableRandom random, int[] specializationIds, String passwordHash) {
+        long before = maxId("doctor", "dr_id");
+        Zipf bySpecialization = new Zipf(specializationIds.length, 0.8);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < doctorCount; i++) {
+            rows.add(new Object[]{
+                    "Dr " + name(random),
+                    "dr" + i + "@gen.hospital",
+                    passwordHash,
+                    specializationIds[bySpecialization.sample(random)]});
+        }
+        batch("INSERT INTO doctor (name, email, password, specialization_id) VALUES (?, ?, ?, ?)", rows);
+        return ids("SELECT dr_id FROM doctor WHERE dr_id > ? ORDER BY dr_id", before);
+    }
+
+    private int[] insertPatients(SplittableRandom random, String passwordHash) {
+        long before = maxId("patient", "p_id");
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < patientCount; i++) {
+            int age = 1 + random.nextInt(90);
+            rows.add(new Object[]{
+                    name(random),
+                    "patient" + i + "@gen.hospital",
+                    String.format("9%09d", i),
+                    random.nextInt(4) == 0 ? String.format("8%09d", i) : null,
+                    BLOOD_GROUPS[weighted(random, BLOOD_GROUP_WEIGHTS)],
+                    passwordHash,
+                    Date.valueOf(today.minusYears(age).minusDays(random.nextInt(365))),
+                    age,
+                    random.nextBoolean() ? "Male" : "Female",
+                    (1 + random.nextInt(300)) + " MG Road"});
+            if (rows.size() == batchSize) {
+                batch(PATIENT_INSERT, rows);
+                rows.clear();
+            }
+        }
+        batch(PATIENT_INSERT, rows);
+        return ids("SELECT p_id FROM patient WHERE p_id > ? ORDER BY p_id", before);
+    }
+
+    private static final String PATIENT_INSERT = "INSERT INTO patient "
+            + "(name, email, contact, mobile_no, blood_group, password, dob, age, gender, address) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String APPOINTMENT_INSERT = "INSERT INTO appointment "
+            + "(doctor_id, patient_id, appointment_date, appointment_time, descript, status, cancel_confirm, slot_hold, "
+            + "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private void insertAppointments(SplittableRandom random, int[] doctorIds, int[] patientIds) {
+        int slotsPerDay = (int) ((close.toSecondOfDay() - open.toSecondOfDay()) / (15 * 60));
+        int days = daysBack + daysAhead + 1;
+        int slotsPerDoctor = days * slotsPerDay;
+        if ((long) slotsPerDoctor * doctorIds.length < appointmentCount) {
+            throw new IllegalStateException("Not enough doctor slots for " + appointmentCount + " appointments; "
+                    + "add doctors or widen days-back/days-ahead");
+        }
+        LocalDate firstDay = LocalDate.now().minusDays(daysBack);
+        Zipf byDoctor = new Zipf(doctorIds.length, 1.0);
+        Zipf byPatient = new Zipf(patientIds.length, 0.6);
+        BitSet[] taken = new BitSet[doctorIds.length];
+        int[] booked = new int[doctorIds.length];
+
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < appointmentCount; i++) {
+            int doctor = byDoctor.sample(random);
+            while (booked[doctor] >= slotsPerDoctor) {
+                doctor = random.nextInt(doctorIds.length);
+            }
+            if (taken[doctor] == null) taken[doctor] = new BitSet(slotsPerDoctor);
+            // Random slot, or the next free one after it when taken, so busy doctors fill up
+            int slot = taken[doctor].nextClearBit(random.nextInt(slotsPerDoctor));
+            if (slot >= slotsPerDoctor) slot = taken[doctor].nextClearBit(0);
+            taken[doctor].set(slot);
+            booked[doctor]++;
+
+            LocalDate date = firstDay.plusDays(slot / slotsPerDay);
+            LocalTime time = open.plusMinutes(15L * (slot % slotsPerDay));
+            String status = status(random, date.isBefore(LocalDate.now()));
+            boolean cancelled = "CANCELLED".equals(status);
+            rows.add(new Object[]{
+                    doctorIds[doctor],
+                    patientIds[byPatient.sample(random)],
+                    Date.valueOf(date),
+                    Time.valueOf(time),
+                    random.nextInt(3) == 0 ? "Follow-up" : "Consultation",
+                    status,
+                    cancelled ? 1 : 0,
+                    cancelled ? null : Boolean.TRUE,
+                    Timestamp.valueOf(LocalDateTime.now())});
+            if (rows.size() == batchSize) {
+                batch(APPOINTMENT_INSERT, rows);
+                rows.clear();
+            }
+        }
+        batch(APPOINTMENT_INSERT, rows);
+    }
+
+    private static final String PRESCRIPTION_INSERT = "INSERT INTO prescription "
+            + "(medicine, advice, remark, status, created_at, p_id, ap_id, doctor_id, patient_id, appointment_id, "
+            + "updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Reads back the completed appointments just written, a page at a time in id order, so the
+    // choices stay deterministic whatever ids the database handed out
+    private int insertPrescriptions(SplittableRandom random, long afterAppointmentId) {
+        int count = 0;
+        long after = afterAppointmentId;
+        while (true) {
+            List<Object[]> page = jdbcTemplate.query("SELECT ap_id, doctor_id, patient_id, appointment_date, status "
+                            + "FROM appointment WHERE ap_id > ? ORDER BY ap_id LIMIT " + batchSize,
+                    (rs, rowNum) -> new Object[]{rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getDate(4), rs.getString(5)},
+                    after);
+            if (page.isEmpty()) return count;
+
+            List<Object[]> rows = new ArrayList<>();
+            for (Object[] appointment : page) {
+                if (!"COMPLETED".equals(appointment[4]) || random.nextDouble() >= prescriptionRatio) continue;
+                rows.add(new Object[]{
+                        MEDICINES[random.nextInt(MEDICINES.length)],
+                        ADVICE[random.nextInt(ADVICE.length)],
+                        random.nextInt(5) == 0 ? "Review after two weeks" : null,
+                        "Active",
+                        appointment[3],
+                        appointment[2],
+                        appointment[0],
+                        appointment[1],
+                        appointment[2],
+                        appointment[0],
+                        Timestamp.valueOf(LocalDateTime.now())});
+            }
+            batch(PRESCRIPTION_INSERT, rows);
+            count += rows.size();
+            after = (Integer) page.get(page.size() - 1)[0];
+        }
+    }
+
+    private static String status(SplittableRandom random, boolean past) {
+        int roll = random.nextInt(100);
+        if (past) {
+            return roll < 82 ? "COMPLETED" : roll < 94 ? "CANCELLED" : "CONFIRMED";
+        }
+        return roll < 55 ? "PENDING" : roll < 92 ? "CONFIRMED" : "CANCELLED";
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private long maxId(String table, String column) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(" + column + ") FROM " + table, Long.class);
+        return max != null ? max : 0;
+    }
+
+    private int[] ids(String sql, long after) {
+        return jdbcTemplate.queryForList(sql, Integer.class, after).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String name(SplittableRandom random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static int weighted(SplittableRandom random, double[] weights) {
+        double total = 0;
+        for (double weight : weights) total += weight;
+        double roll = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) return i;
+        }
+        return weights.length - 1;
+    }
+
+    // Zipf-distributed index in [0, n): rank 0 is the most popular
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double roll = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < roll) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+}
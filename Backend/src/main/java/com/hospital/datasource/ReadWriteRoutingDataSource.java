@@ -0,0 +1,58 @@
+package com.hospital.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Hands out replica connections to @ReplicaRead transactions while the replica is within
+// max-lag and has the current user's own writes, and primary connections to everything else.
+// The key is decided when a connection is taken, so this sits behind a
+// LazyConnectionDataSourceProxy: the transaction manager opens the connection when the
+// transaction begins, before its read-only flag is visible, but the proxy only fetches the
+// real one at the first statement.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWrites readYourWrites;
+    private final Counter laggingFallbacks;
+    private final Counter ownWriteFallbacks;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.laggingFallbacks = fallbacks(meterRegistry, "lag");
+        this.ownWriteFallbacks = fallbacks(meterRegistry, "read-your-writes");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!ReplicaAwareTransactionManager.isReplicaRead()) {
+            readYourWrites.onPrimaryConnection();
+            return Route.PRIMARY;
+        }
+        if (!lagMonitor.isHealthy()) {
+            laggingFallbacks.increment();
+            return Route.PRIMARY;
+        }
+        if (!readYourWrites.caughtUp(lagMonitor.replicatedUpTo())) {
+            ownWriteFallbacks.increment();
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    private static Counter fallbacks(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("hospital.datasource.replica.fallback")
+                .description("Replica-eligible reads served by the primary")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,71 @@
+package com.hospital.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+// Keeps a user's reads on the primary after they have written something (booked an
+// appointment, say) until the replica has caught up with that write, so the booking shows up
+// in their own list straight away. Writes are keyed by the authenticated user and stamped when
+// they commit; the replica has them once ReplicaLagMonitor has seen a heartbeat written at or
+// after that time. Anonymous requests cannot be told apart and are not tracked.
+public class ReadYourWrites {
+
+    private static final Object REGISTERED = ReadYourWrites.class.getName() + ".registered";
+
+    // Beyond this the lag check alone decides; a replica that far behind is already bypassed
+    private final Cache<String, Long> lastWrite;
+
+    public ReadYourWrites(Duration maxPin, long maxUsers) {
+        this.lastWrite = Caffeine.newBuilder()
+                .expireAfterWrite(maxPin)
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    // Called whenever a primary connection is taken; only read-write transactions count as writes
+    void onPrimaryConnection() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || TransactionSynchronizationManager.hasResource(REGISTERED)) {
+            return;
+        }
+        String user = currentUser();
+        if (user == null) return;
+        TransactionSynchronizationManager.bindResource(REGISTERED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrite.put(user, System.currentTimeMillis());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REGISTERED);
+            }
+        });
+    }
+
+    // Whether the current user's last write (if any) is on a replica replicated up to the given time
+    boolean caughtUp(long replicatedUpTo) {
+        String user = currentUser();
+        if (user == null) return true;
+        Long written = lastWrite.getIfPresent(user);
+        return written == null || replicatedUpTo >= written;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
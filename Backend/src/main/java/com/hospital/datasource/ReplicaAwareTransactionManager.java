@@ -0,0 +1,38 @@
+package com.hospital.datasource;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JpaTransactionManager that remembers whether the outermost transaction is a @ReplicaRead,
+// which ReadWriteRoutingDataSource checks when the transaction's first statement asks for a
+// connection. Transactions joined inside it inherit the choice.
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+    private static final Object REPLICA_READ = ReplicaAwareTransactionManager.class.getName() + ".replicaRead";
+
+    static boolean isReplicaRead() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (definition.isReadOnly()
+                && definition instanceof TransactionAttribute attribute
+                && attribute.getLabels().contains(ReplicaRead.LABEL)
+                && !TransactionSynchronizationManager.hasResource(REPLICA_READ)) {
+            TransactionSynchronizationManager.bindResource(REPLICA_READ, transaction);
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        if (TransactionSynchronizationManager.getResource(REPLICA_READ) == transaction) {
+            TransactionSynchronizationManager.unbindResource(REPLICA_READ);
+        }
+        super.doCleanupAfterCompletion(transaction);
+    }
+}
@@ -0,0 +1,90 @@
+package com.hospital.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Measures replication lag with a heartbeat row instead of asking the database for its replica
+// status, so it works the same against MySQL replicas, managed read endpoints and the embedded
+// databases in tests. Each check first reads the replica's copy of the heartbeat, then stamps
+// the primary's: lag is the age of the newest beat that has made it across, so it reads up to
+// one heartbeat interval high and max-lag should be a few intervals. An unreachable replica
+// counts as too far behind.
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    // Epoch millis of the newest beat seen on the replica; every commit before it has replicated
+    private volatile long replicatedUpTo = Long.MIN_VALUE;
+    private volatile long lagMillis = Long.MAX_VALUE;
+    private volatile boolean healthy;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+        Gauge.builder("hospital.datasource.replica.lag", this,
+                        monitor -> monitor.lagMillis == Long.MAX_VALUE ? Double.NaN : monitor.lagMillis / 1000.0)
+                .description("Age of the newest heartbeat visible on the read replica")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${hospital.datasource.replica.heartbeat-interval:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        Long seen = null;
+        try {
+            seen = replica.query("SELECT beat_at FROM replication_heartbeat WHERE id = 1",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+        } catch (DataAccessException e) {
+            log.debug("Could not read the replica heartbeat", e);
+        }
+        update(seen, now);
+
+        try {
+            if (primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replication heartbeat", e);
+        }
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public long replicatedUpTo() {
+        return replicatedUpTo;
+    }
+
+    private void update(Long seen, long now) {
+        boolean wasHealthy = healthy;
+        if (seen == null) {
+            lagMillis = Long.MAX_VALUE;
+            healthy = false;
+        } else {
+            replicatedUpTo = seen;
+            lagMillis = Math.max(0, now - seen);
+            healthy = lagMillis <= maxLagMillis;
+        }
+        if (wasHealthy && !healthy) {
+            log.warn("Read replica is {} behind, serving reads from the primary",
+                    lagMillis == Long.MAX_VALUE ? "unreachable or" : Duration.ofMillis(lagMillis));
+        } else if (!wasHealthy && healthy) {
+            log.info("Read replica caught up ({} ms behind), serving reads from it again", lagMillis);
+        }
+    }
+}
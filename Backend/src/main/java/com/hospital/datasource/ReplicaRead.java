@@ -0,0 +1,23 @@
+package com.hospital.datasource;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// A read-only transaction that may be served by the read replica when one is configured
+// (hospital.datasource.replica.url), and a plain read-only transaction otherwise. Only reads
+// that can tolerate a little replication lag belong here: plain @Transactional(readOnly = true),
+// including Spring Data's default on repository reads, stays on the primary, because write
+// paths read through those and have to see the current state.
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true, label = ReplicaRead.LABEL)
+public @interface ReplicaRead {
+
+    String LABEL = "replica";
+}
@@ -0,0 +1,17 @@
+package com.hospital.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Flat appointment row used by the NDJSON exports (no entity graph, no lazy loading)
+public record AppointmentRow(Integer apId,
+                             LocalDate appointmentDate,
+                             LocalTime appointmentTime,
+                             String descript,
+                             String status,
+                             Integer cancelConfirm,
+                             Integer doctorId,
+                             String doctorName,
+                             Integer patientId,
+                             String patientName) {
+}
@@ -0,0 +1,22 @@
+package com.hospital.dto;
+
+import com.hospital.entity.Appointment;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Appointment embedded in prescription responses
+public record AppointmentSummary(Integer apId,
+                                 LocalDate appointmentDate,
+                                 LocalTime appointmentTime,
+                                 String descript,
+                                 String status,
+                                 Integer cancelConfirm) {
+
+    public static AppointmentSummary of(Appointment appointment) {
+        if (appointment == null) return null;
+        return new AppointmentSummary(appointment.getApId(), appointment.getAppointmentDate(),
+                appointment.getAppointmentTime(), appointment.getDescript(), appointment.getStatus(),
+                appointment.getCancelConfirm());
+    }
+}
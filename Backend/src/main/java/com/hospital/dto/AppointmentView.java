@@ -0,0 +1,26 @@
+package com.hospital.dto;
+
+import com.hospital.entity.Appointment;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Appointment as returned by /api/appointments. Built from an appointment whose doctor and
+// patient were fetched with it, so serializing a list never lazy-loads per row.
+public record AppointmentView(Integer apId,
+                              LocalDate appointmentDate,
+                              LocalTime appointmentTime,
+                              String descript,
+                              String status,
+                              Integer cancelConfirm,
+                              DoctorSummary doctor,
+                              PatientSummary patient) {
+
+    public static AppointmentView of(Appointment appointment) {
+        if (appointment == null) return null;
+        return new AppointmentView(appointment.getApId(), appointment.getAppointmentDate(),
+                appointment.getAppointmentTime(), appointment.getDescript(), appointment.getStatus(),
+                appointment.getCancelConfirm(), DoctorSummary.of(appointment.getDoctor()),
+                PatientSummary.of(appointment.getPatient()));
+    }
+}
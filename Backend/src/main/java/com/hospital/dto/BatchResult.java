@@ -0,0 +1,28 @@
+package com.hospital.dto;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Outcome of a bulk write: one entry per submitted item, in request order
+public record BatchResult(int total, int succeeded, int failed, List<Item> items) {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String FAILED = "FAILED";
+
+    public record Item(int index, Integer id, String status, String error) {
+
+        public static Item ok(int index, Integer id, String status) {
+            return new Item(index, id, status, null);
+        }
+
+        public static Item failed(int index, Integer id, String error) {
+            return new Item(index, id, FAILED, error);
+        }
+    }
+
+    public static BatchResult of(Item[] items) {
+        int failed = (int) Arrays.stream(items).filter(item -> FAILED.equals(item.status())).count();
+        return new BatchResult(items.length, items.length - failed, failed, List.of(items));
+    }
+}
@@ -0,0 +1,18 @@
+package com.hospital.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One response of a delta-sync feed: rows inserted or updated since the caller's token, ids
+// deleted since then, and the token to send next time. hasMore means more changes are
+// waiting and the caller should ask again right away.
+public record ChangeSet<T>(List<T> changed, List<Integer> deleted, String next, boolean hasMore) {
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && deleted.isEmpty();
+    }
+
+    public <R> ChangeSet<R> map(Function<? super T, ? extends R> mapper) {
+        return new ChangeSet<>(changed.stream().<R>map(mapper).toList(), deleted, next, hasMore);
+    }
+}
@@ -0,0 +1,8 @@
+package com.hospital.dto;
+
+public record DoctorStats(long totalAppointments,
+                          long todayAppointments,
+                          long upcomingAppointments,
+                          long pendingAppointments,
+                          long totalPrescriptions) {
+}
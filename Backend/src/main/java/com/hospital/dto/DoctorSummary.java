@@ -0,0 +1,12 @@
+package com.hospital.dto;
+
+import com.hospital.entity.Doctor;
+
+// Doctor embedded in appointment and prescription responses
+public record DoctorSummary(Integer drId, String name, String email) {
+
+    public static DoctorSummary of(Doctor doctor) {
+        if (doctor == null) return null;
+        return new DoctorSummary(doctor.getDrId(), doctor.getName(), doctor.getEmail());
+    }
+}
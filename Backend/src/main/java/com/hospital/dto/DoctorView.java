@@ -0,0 +1,18 @@
+package com.hospital.dto;
+
+import com.hospital.entity.Doctor;
+
+// Doctor as returned by /api/doctors. The password hash is still included because the doctor
+// profile page sends it back unchanged on update.
+public record DoctorView(Integer drId,
+                         String name,
+                         String email,
+                         String password,
+                         SpecializationView specialization) {
+
+    public static DoctorView of(Doctor doctor) {
+        if (doctor == null) return null;
+        return new DoctorView(doctor.getDrId(), doctor.getName(), doctor.getEmail(), doctor.getPassword(),
+                SpecializationView.of(doctor.getSpecialization()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.hospital.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record FreeSlot(Integer doctorId, LocalDate date, LocalTime time) {
+}
@@ -0,0 +1,6 @@
+package com.hospital.dto;
+
+public record PatientStats(long totalAppointments,
+                           long pendingAppointments,
+                           long totalPrescriptions) {
+}
@@ -0,0 +1,25 @@
+package com.hospital.dto;
+
+import com.hospital.entity.Patient;
+
+import java.time.LocalDate;
+
+// Patient embedded in appointment and prescription responses
+public record PatientSummary(Integer pId,
+                             String name,
+                             String email,
+                             String contact,
+                             String mobileNo,
+                             String bloodGroup,
+                             LocalDate dob,
+                             Integer age,
+                             String gender,
+                             String address) {
+
+    public static PatientSummary of(Patient patient) {
+        if (patient == null) return null;
+        return new PatientSummary(patient.getpId(), patient.getName(), patient.getEmail(), patient.getContact(),
+                patient.getMobileNo(), patient.getBloodGroup(), patient.getDob(), patient.getAge(),
+                patient.getGender(), patient.getAddress());
+    }
+}
@@ -0,0 +1,27 @@
+package com.hospital.dto;
+
+import com.hospital.entity.Patient;
+
+import java.time.LocalDate;
+
+// Patient as returned by /api/patients, without the appointments/prescriptions collections
+// (those have their own endpoints). The password hash stays for the profile update round trip.
+public record PatientView(Integer pId,
+                          String name,
+                          String email,
+                          String contact,
+                          String mobileNo,
+                          String bloodGroup,
+                          String password,
+                          LocalDate dob,
+                          Integer age,
+                          String gender,
+                          String address) {
+
+    public static PatientView of(Patient patient) {
+        if (patient == null) return null;
+        return new PatientView(patient.getpId(), patient.getName(), patient.getEmail(), patient.getContact(),
+                patient.getMobileNo(), patient.getBloodGroup(), patient.getPassword(), patient.getDob(),
+                patient.getAge(), patient.getGender(), patient.getAddress());
+    }
+}
@@ -0,0 +1,17 @@
+package com.hospital.dto;
+
+import java.time.LocalDate;
+
+// Flat prescription row used by the streaming exports, read straight off a JDBC cursor
+public record PrescriptionRow(Integer id,
+                              LocalDate date,
+                              String status,
+                              String medicine,
+                              String advice,
+                              String remark,
+                              Integer doctorId,
+                              String doctorName,
+                              Integer patientId,
+                              String patientName,
+                              Integer appointmentId) {
+}
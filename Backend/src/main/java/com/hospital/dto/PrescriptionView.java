@@ -0,0 +1,28 @@
+package com.hospital.dto;
+
+import com.hospital.entity.Prescription;
+
+import java.time.LocalDate;
+
+// Prescription as returned by /api/prescriptions, with its doctor, patient and appointment
+// fetched in the same query
+public record PrescriptionView(Integer id,
+                               String medicine,
+                               String advice,
+                               String remark,
+                               String status,
+                               LocalDate date,
+                               Integer pId,
+                               Integer apId,
+                               DoctorSummary doctor,
+                               PatientSummary patient,
+                               AppointmentSummary appointment) {
+
+    public static PrescriptionView of(Prescription prescription) {
+        if (prescription == null) return null;
+        return new PrescriptionView(prescription.getId(), prescription.getMedicine(), prescription.getAdvice(),
+                prescription.getRemark(), prescription.getStatus(), prescription.getDate(), prescription.getPId(),
+                prescription.getApId(), DoctorSummary.of(prescription.getDoctor()),
+                PatientSummary.of(prescription.getPatient()), AppointmentSummary.of(prescription.getAppointment()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.hospital.dto;
+
+import com.hospital.entity.Specialization;
+
+public record SpecializationView(Integer id, String name) {
+
+    public static SpecializationView of(Specialization specialization) {
+        if (specialization == null) return null;
+        return new SpecializationView(specialization.getId(), specialization.getName());
+    }
+}
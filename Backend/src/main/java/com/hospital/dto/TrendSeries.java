@@ -0,0 +1,13 @@
+package com.hospital.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Daily counts over [from, to], one point per day (zero-filled). refreshedAt is the watermark
+// of the rollup the series was read from: changes after it are not counted yet.
+public record TrendSeries(LocalDate from, LocalDate to, LocalDateTime refreshedAt, long total, List<Point> points) {
+
+    public record Point(LocalDate date, long count) {
+    }
+}
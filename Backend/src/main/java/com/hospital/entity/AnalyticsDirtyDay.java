@@ -0,0 +1,42 @@
+package com.hospital.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Days a rollup must rebuild that the updated_at watermark cannot find: the day a row was
+// deleted from or moved away from. Written by the write paths, consumed by AnalyticsRollupJob.
+@Entity
+@Table(name = "analytics_dirty_day")
+@IdClass(AnalyticsDirtyDay.Key.class)
+public class AnalyticsDirtyDay {
+
+    @Id
+    @Column(length = 32)
+    private String fact;
+
+    @Id
+    @Column(name = "rollup_day")
+    private LocalDate day;
+
+    public String getFact() { return fact; }
+    public LocalDate getDay() { return day; }
+
+    public static class Key implements Serializable {
+        private String fact;
+        private LocalDate day;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(fact, key.fact) && Objects.equals(day, key.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fact, day);
+        }
+    }
+}
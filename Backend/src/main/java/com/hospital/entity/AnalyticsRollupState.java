@@ -0,0 +1,21 @@
+package com.hospital.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Watermark per rollup: rows with updated_at after it have not been rolled up yet. No row
+// means the rollup has never run (or was reset) and every day is rebuilt.
+@Entity
+@Table(name = "analytics_rollup_state")
+public class AnalyticsRollupState {
+
+    @Id
+    @Column(length = 32)
+    private String fact;
+
+    @Column(nullable = false)
+    private LocalDateTime watermark;
+
+    public String getFact() { return fact; }
+    public LocalDateTime getWatermark() { return watermark; }
+}
@@ -1,15 +1,36 @@
 package com.hospital.entity;
 
 import com.fasterxml.jackson.annotation.*;
+import com.hospital.repository.AppointmentTombstoneListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Objects;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_appointment_doctor_slot",
+        columnNames = {"doctor_id", "appointment_date", "appointment_time", "slot_hold"}),
+        // Mirrors V7__query_indexes.sql; the unique slot key above doubles as the
+        // (doctor, date, time) lookup index. See QueryPlanTest.
+        indexes = {
+                @Index(name = "idx_appointment_patient_date", columnList = "patient_id, appointment_date, status"),
+                @Index(name = "idx_appointment_doctor", columnList = "doctor_id, ap_id"),
+                @Index(name = "idx_appointment_status", columnList = "status, ap_id"),
+                @Index(name = "idx_appointment_date_slot", columnList = "appointment_date, doctor_id, appointment_time, status"),
+                @Index(name = "idx_appointment_updated", columnList = "updated_at"),
+                @Index(name = "idx_appointment_patient_updated", columnList = "patient_id, updated_at")
+        })
+// Deletes leave a tombstone for the change feed (V9__appointment_change_feed.sql)
+@EntityListeners(AppointmentTombstoneListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Appointment {
 
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer apId;
@@ -20,6 +41,18 @@ public class Appointment {
     private String status = "PENDING";
     private Integer cancelConfirm = 0;
 
+    // TRUE while the appointment occupies its slot, NULL once cancelled. Unique indexes ignore
+    // NULLs, so the constraint above allows one active booking per doctor/date/time.
+    @JsonIgnore
+    @Column(name = "slot_hold")
+    private Boolean slotHold = Boolean.TRUE;
+
+    // Set on every insert and update; AnalyticsRollupJob and the change feed pick up changed rows by it
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
     @JsonIgnoreProperties({"appointments", "prescriptions", "specialization"}) // 🟢 Prevent recursion
@@ -49,12 +82,21 @@ public class Appointment {
     public Integer getCancelConfirm() { return cancelConfirm; }
     public void setCancelConfirm(Integer cancelConfirm) { this.cancelConfirm = cancelConfirm; }
 
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
     public Doctor getDoctor() { return doctor; }
     public void setDoctor(Doctor doctor) { this.doctor = doctor; }
 
     public Patient getPatient() { return patient; }
     public void setPatient(Patient patient) { this.patient = patient; }
 
+    // Whether this appointment blocks its doctor/date/time slot
+    public boolean holdsSlot() { return !STATUS_CANCELLED.equalsIgnoreCase(status); }
+
+    @PrePersist
+    @PreUpdate
+    void syncSlotHold() { slotHold = holdsSlot() ? Boolean.TRUE : null; }
+
     @Override
     public String toString() {
         return "Appointment{" +
@@ -0,0 +1,60 @@
+package com.hospital.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Appointments per day, doctor and status, maintained by AnalyticsRollupJob. Rows are written
+// and read with set-based SQL in AnalyticsRollupRepository; the entity defines the table.
+// doctor_id is 0 for appointments without a doctor, status is upper-cased ('NONE' when null).
+// specialization_id is the doctor's specialization when the day was last rebuilt.
+@Entity
+@Table(name = "appointment_daily_rollup", indexes = {
+        @Index(name = "idx_appointment_rollup_doctor", columnList = "doctor_id, rollup_day"),
+        @Index(name = "idx_appointment_rollup_specialization", columnList = "specialization_id, rollup_day")})
+@IdClass(AppointmentDailyRollup.Key.class)
+public class AppointmentDailyRollup {
+
+    @Id
+    @Column(name = "rollup_day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "doctor_id")
+    private Integer doctorId;
+
+    @Id
+    @Column(length = 32)
+    private String status;
+
+    @Column(name = "specialization_id")
+    private Integer specializationId;
+
+    private long total;
+
+    public LocalDate getDay() { return day; }
+    public Integer getDoctorId() { return doctorId; }
+    public String getStatus() { return status; }
+    public Integer getSpecializationId() { return specializationId; }
+    public long getTotal() { return total; }
+
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Integer doctorId;
+        private String status;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(day, key.day) && Objects.equals(doctorId, key.doctorId)
+                    && Objects.equals(status, key.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, doctorId, status);
+        }
+    }
+}
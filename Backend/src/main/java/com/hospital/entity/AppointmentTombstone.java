@@ -0,0 +1,34 @@
+package com.hospital.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// A deleted appointment, kept so GET /api/appointments/changes can tell pollers to drop it.
+// Written by AppointmentTombstoneListener in the deleting transaction (cascades included) and
+// purged after hospital.changes.tombstone-retention.
+@Entity
+@Table(name = "appointment_tombstone", indexes = {
+        @Index(name = "idx_tombstone_deleted", columnList = "deleted_at"),
+        @Index(name = "idx_tombstone_patient_deleted", columnList = "patient_id, deleted_at")
+})
+public class AppointmentTombstone {
+
+    @Id
+    @Column(name = "ap_id")
+    private Integer apId;
+
+    @Column(name = "patient_id")
+    private Integer patientId;
+
+    @Column(name = "doctor_id")
+    private Integer doctorId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public Integer getApId() { return apId; }
+    public Integer getPatientId() { return patientId; }
+    public Integer getDoctorId() { return doctorId; }
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+}
@@ -1,5 +1,6 @@
 package com.hospital.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.util.List;
@@ -21,12 +22,14 @@ public class Doctor {
     @JsonIgnoreProperties("doctors") // 🟢 Prevent recursion: Specialization → Doctor → Specialization
     private Specialization specialization;
 
+    // Not serialized: doctors are cached and sent to the public directory, and loading
+    // these lazily would fail once the entity is detached
     @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL)
-    @JsonIgnoreProperties("doctor") // 🟢 Prevent recursion: Appointment → Doctor → Appointment
+    @JsonIgnore
     private List<Appointment> appointments;
 
     @OneToMany(mappedBy = "doctor", cascade = CascadeType.ALL)
-    @JsonIgnoreProperties("doctor") // 🟢 Prevent recursion: Prescription → Doctor → Prescription
+    @JsonIgnore
     private List<Prescription> prescriptions;
 
     // Getters & Setters
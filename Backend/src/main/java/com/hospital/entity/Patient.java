@@ -6,6 +6,10 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_patient_email", columnList = "email"),
+        @Index(name = "idx_patient_blood_group", columnList = "blood_group")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Patient {
 
@@ -1,10 +1,21 @@
 package com.hospital.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_prescription_patient_date", columnList = "p_id, created_at"),
+        @Index(name = "idx_prescription_doctor_date", columnList = "doctor_id, created_at"),
+        @Index(name = "idx_prescription_appointment", columnList = "ap_id"),
+        @Index(name = "idx_prescription_date", columnList = "created_at, doctor_id"),
+        @Index(name = "idx_prescription_updated", columnList = "updated_at")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Prescription {
 
@@ -33,6 +44,12 @@ public class Prescription {
     @Column(name = "ap_id")
     private Integer apId;
 
+    // Set on every insert and update; AnalyticsRollupJob picks up changed rows by it
+    @JsonIgnore
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
     @JsonIgnoreProperties({"appointments", "prescriptions", "specialization"})
@@ -58,6 +75,8 @@ public class Prescription {
     public LocalDate getDate() { return date; }
     public void setDate(LocalDate date) { this.date = date; }
 
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
     public Doctor getDoctor() { return doctor; }
     public void setDoctor(Doctor doctor) { this.doctor = doctor; }
 
@@ -0,0 +1,47 @@
+package com.hospital.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Prescriptions per day (created_at) and doctor, maintained by AnalyticsRollupJob. Rows are
+// written and read with set-based SQL in AnalyticsRollupRepository; the entity defines the
+// table. doctor_id is 0 for prescriptions without a doctor.
+@Entity
+@Table(name = "prescription_daily_rollup", indexes = {
+        @Index(name = "idx_prescription_rollup_doctor", columnList = "doctor_id, rollup_day")})
+@IdClass(PrescriptionDailyRollup.Key.class)
+public class PrescriptionDailyRollup {
+
+    @Id
+    @Column(name = "rollup_day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "doctor_id")
+    private Integer doctorId;
+
+    private long total;
+
+    public LocalDate getDay() { return day; }
+    public Integer getDoctorId() { return doctorId; }
+    public long getTotal() { return total; }
+
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Integer doctorId;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(day, key.day) && Objects.equals(doctorId, key.doctorId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, doctorId);
+        }
+    }
+}
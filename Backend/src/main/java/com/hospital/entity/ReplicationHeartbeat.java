@@ -0,0 +1,20 @@
+package com.hospital.entity;
+
+import jakarta.persistence.*;
+
+// Single row the primary stamps with the current time every heartbeat interval. Reading it
+// back from the read replica tells how far replication has got (ReplicaLagMonitor).
+@Entity
+@Table(name = "replication_heartbeat")
+public class ReplicationHeartbeat {
+
+    @Id
+    private Integer id;
+
+    // Epoch millis of the last beat
+    @Column(name = "beat_at", nullable = false)
+    private Long beatAt;
+
+    public Integer getId() { return id; }
+    public Long getBeatAt() { return beatAt; }
+}
@@ -1,5 +1,6 @@
 package com.hospital.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.util.List;
@@ -14,8 +15,9 @@ public class Specialization {
 
     private String name;
 
+    // Not serialized: specializations are cached, and the doctor list is served by /api/doctors
     @OneToMany(mappedBy = "specialization", cascade = CascadeType.ALL)
-    @JsonIgnoreProperties("specialization") // 🟢 Prevent recursion: Doctor → Specialization → Doctor
+    @JsonIgnore
     private List<Doctor> doctors;
 
     // Getters & Setters
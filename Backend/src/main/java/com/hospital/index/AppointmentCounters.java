@@ -0,0 +1,161 @@
+package com.hospital.index;
+
+import com.hospital.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Materialized appointment counters (per status, per day, per doctor).
+// Rebuilt from grouped COUNT queries on startup and kept current by AppointmentServiceImpl,
+// so dashboard stats never have to load Appointment rows just to count them.
+@Component
+public class AppointmentCounters {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final LongAdder total = new LongAdder();
+    private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> byDate = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> byDoctor = new ConcurrentHashMap<>();
+
+    // Writers share the read lock so increments stay concurrent; a rebuild takes the write lock.
+    // Writers hold it from before the database write until their delta is applied (duringWrite):
+    // a rebuild in between would count the new row and then have its delta added on top.
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            total.reset();
+            byStatus.clear();
+            byDate.clear();
+            byDoctor.clear();
+
+            total.add(appointmentRepository.count());
+            load(appointmentRepository.countGroupedByStatus(), byStatus);
+            load(appointmentRepository.countGroupedByDate(), byDate);
+            load(appointmentRepository.countGroupedByDoctor(), byDoctor);
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    // Runs a database write together with the record* call for it, with no rebuild in between.
+    // Inside a transaction the record* calls wait for the commit, so the lock is held until the
+    // transaction completes (on this thread, after every afterCommit hook).
+    public <T> T duringWrite(Supplier<T> write) {
+        rebuildLock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                return write.get();
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        }
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    rebuildLock.readLock().unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            rebuildLock.readLock().unlock();
+            throw e;
+        }
+        return write.get();
+    }
+
+    // Runs rebuilds of this and the other appointment indexes with no write between its database
+    // write and its deltas, so a rebuild never counts a row whose delta is still to come
+    public void exclusively(Runnable rebuild) {
+        rebuildLock.writeLock().lock();
+        try {
+            rebuild.run();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public void recordCreated(AppointmentSnapshot appointment) {
+        apply(appointment, 1);
+    }
+
+    public void recordUpdated(AppointmentSnapshot before, AppointmentSnapshot after) {
+        rebuildLock.readLock().lock();
+        try {
+            adjust(before, -1);
+            adjust(after, 1);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void recordDeleted(AppointmentSnapshot before) {
+        apply(before, -1);
+    }
+
+    public long total() {
+        return total.sum();
+    }
+
+    public long countByStatus(String status) {
+        return sum(byStatus, status);
+    }
+
+    public long countByDate(LocalDate date) {
+        return sum(byDate, date);
+    }
+
+    public long countByDoctor(Integer doctorId) {
+        return sum(byDoctor, doctorId);
+    }
+
+    private void apply(AppointmentSnapshot snapshot, int delta) {
+        rebuildLock.readLock().lock();
+        try {
+            total.add(delta);
+            adjust(snapshot, delta);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void adjust(AppointmentSnapshot snapshot, int delta) {
+        increment(byStatus, snapshot.status(), delta);
+        increment(byDate, snapshot.appointmentDate(), delta);
+        increment(byDoctor, snapshot.doctorId(), delta);
+    }
+
+    private static <K> void increment(Map<K, LongAdder> counters, K key, long delta) {
+        if (key != null) {
+            counters.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static <K> long sum(Map<K, LongAdder> counters, K key) {
+        if (key == null) return 0;
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> void load(List<Object[]> rows, Map<K, LongAdder> counters) {
+        for (Object[] row : rows) {
+            increment(counters, (K) row[0], ((Number) row[1]).longValue());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.hospital.index;
+
+import com.hospital.entity.Appointment;
+import com.hospital.push.AppointmentBroadcaster;
+import com.hospital.repository.AnalyticsRollupRepository;
+import com.hospital.repository.AnalyticsRollupRepository.Fact;
+import com.hospital.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// Single entry point for keeping the in-memory appointment indexes in step with writes. Also
+// tells the analytics rollups about days that lost rows, which their updated_at watermark
+// cannot see, and pushes each committed write to the SSE subscribers.
+@Component
+public class AppointmentIndexes {
+
+    @Autowired
+    private AppointmentCounters appointmentCounters;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private DoctorPatientIndex doctorPatientIndex;
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private AppointmentBroadcaster broadcaster;
+
+    // Wraps an appointment write and the created/updated/deleted call that follows it
+    public <T> T duringWrite(Supplier<T> write) {
+        return appointmentCounters.duringWrite(write);
+    }
+
+    // The hooks below snapshot the row straight away but only touch the indexes and subscribers
+    // once the write commits, first reading the doctor-patient epoch so a rebuild that started
+    // after the commit is not applied to twice. Dirty rollup days are marked in the write's own
+    // transaction.
+
+    public void created(Appointment saved) {
+        AppointmentSnapshot after = AppointmentSnapshot.of(saved);
+        AfterCommit.run(() -> {
+            long epoch = doctorPatientIndex.epoch();
+            appointmentCounters.recordCreated(after);
+            availabilityIndex.apply(null, after);
+            doctorPatientIndex.apply(null, after, epoch);
+            broadcaster.created(after);
+        });
+    }
+
+    public void updated(AppointmentSnapshot before, Appointment saved) {
+        updated(before, AppointmentSnapshot.of(saved));
+    }
+
+    public void updated(AppointmentSnapshot before, AppointmentSnapshot after) {
+        if (before != null && before.appointmentDate() != null
+                && !Objects.equals(before.appointmentDate(), after.appointmentDate())) {
+            rollupRepository.markDirty(Fact.APPOINTMENT, before.appointmentDate());
+        }
+        AfterCommit.run(() -> {
+            long epoch = doctorPatientIndex.epoch();
+            appointmentCounters.recordUpdated(before, after);
+            availabilityIndex.apply(before, after);
+            doctorPatientIndex.apply(before, after, epoch);
+            broadcaster.updated(before, after);
+        });
+    }
+
+    public void deleted(AppointmentSnapshot before) {
+        if (before.appointmentDate() != null) {
+            rollupRepository.markDirty(Fact.APPOINTMENT, before.appointmentDate());
+        }
+        AfterCommit.run(() -> {
+            long epoch = doctorPatientIndex.epoch();
+            appointmentCounters.recordDeleted(before);
+            availabilityIndex.apply(before, null);
+            doctorPatientIndex.apply(before, null, epoch);
+            broadcaster.deleted(before);
+        });
+    }
+
+    // For writes that bypass AppointmentServiceImpl, e.g. cascading doctor/patient deletes
+    public void rebuild() {
+        // Cascades may also have removed prescriptions
+        rollupRepository.resetWatermark(Fact.APPOINTMENT);
+        rollupRepository.resetWatermark(Fact.PRESCRIPTION);
+        AfterCommit.run(() -> {
+            appointmentCounters.exclusively(() -> {
+                appointmentCounters.rebuild();
+                availabilityIndex.rebuild();
+                doctorPatientIndex.rebuild();
+            });
+            broadcaster.resyncAll();
+        });
+    }
+}
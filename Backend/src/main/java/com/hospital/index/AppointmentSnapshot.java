@@ -0,0 +1,27 @@
+package com.hospital.index;
+
+import com.hospital.entity.Appointment;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Immutable copy of the indexed fields of an appointment, taken before a write
+// so the in-memory indexes can undo the old state after the entity is mutated
+public record AppointmentSnapshot(Integer apId,
+                                  Integer doctorId,
+                                  Integer patientId,
+                                  LocalDate appointmentDate,
+                                  LocalTime appointmentTime,
+                                  String status) {
+
+    public static AppointmentSnapshot of(Appointment appointment) {
+        return new AppointmentSnapshot(
+                appointment.getApId(),
+                appointment.getDoctor() != null ? appointment.getDoctor().getDrId() : null,
+                appointment.getPatient() != null ? appointment.getPatient().getpId() : null,
+                appointment.getAppointmentDate(),
+                appointment.getAppointmentTime(),
+                appointment.getStatus()
+        );
+    }
+}
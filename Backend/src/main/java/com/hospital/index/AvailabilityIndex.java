@@ -0,0 +1,278 @@
+package com.hospital.index;
+
+import com.hospital.dto.FreeSlot;
+import com.hospital.entity.Appointment;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Per-doctor, per-day bitmap of booked 15-minute slots (96 bits = two longs per day).
+// Loaded from AppointmentRepository on startup and updated on every booking, reschedule,
+// status change and delete, so free-slot searches never touch the database.
+// isFree answers for the exact time, as the booking path does; free-slot listings skip any
+// slot an off-grid booking starts in, so they never offer an overlapping time.
+@Component
+public class AvailabilityIndex {
+
+    public static final int SLOT_MINUTES = 15;
+    private static final int SLOT_SECONDS = SLOT_MINUTES * 60;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    private final int firstSlot;
+    private final int endSlot;
+    private final int horizonDays;
+
+    // Key: doctorId in the high 32 bits, epoch day in the low 32 bits. Values are immutable.
+    // A rebuild loads replacement maps off to the side and swaps the references.
+    private volatile Map<Long, DaySlots> booked = new ConcurrentHashMap<>();
+    private volatile Map<Integer, Integer> doctorSpecialization = new ConcurrentHashMap<>();
+
+    // Writers share the read lock so they stay concurrent; a rebuild takes the write lock so no
+    // delta lands in the map it is about to replace
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public AvailabilityIndex(@Value("${hospital.availability.open:09:00}") LocalTime open,
+                             @Value("${hospital.availability.close:17:00}") LocalTime close,
+                             @Value("${hospital.availability.horizon-days:90}") int horizonDays) {
+        this.firstSlot = slotOf(open);
+        this.endSlot = slotOf(close);
+        this.horizonDays = horizonDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            Map<Long, DaySlots> loaded = new ConcurrentHashMap<>();
+            for (Object[] row : appointmentRepository.findActiveSlotsFrom(LocalDate.now())) {
+                Integer doctorId = (Integer) row[0];
+                LocalDate date = (LocalDate) row[1];
+                LocalTime time = (LocalTime) row[2];
+                if (doctorId != null && date != null && time != null) {
+                    loaded.merge(key(doctorId, date), DaySlots.EMPTY.add(time.toSecondOfDay()),
+                            (a, b) -> a.add(time.toSecondOfDay()));
+                }
+            }
+            Map<Integer, Integer> specializations = new ConcurrentHashMap<>();
+            for (Object[] row : doctorRepository.findDoctorSpecializationIds()) {
+                putSpecialization(specializations, (Integer) row[0], (Integer) row[1]);
+            }
+            booked = loaded;
+            doctorSpecialization = specializations;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    // Move an appointment's slot from its previous state to its new one (either may be null)
+    public void apply(AppointmentSnapshot before, AppointmentSnapshot after) {
+        rebuildLock.readLock().lock();
+        try {
+            if (holds(before)) {
+                booked.computeIfPresent(key(before.doctorId(), before.appointmentDate()),
+                        (k, day) -> day.remove(before.appointmentTime().toSecondOfDay()));
+            }
+            if (holds(after)) {
+                booked.compute(key(after.doctorId(), after.appointmentDate()),
+                        (k, day) -> (day == null ? DaySlots.EMPTY : day).add(after.appointmentTime().toSecondOfDay()));
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void registerDoctor(Integer doctorId, Integer specializationId) {
+        if (doctorId == null) return;
+        rebuildLock.readLock().lock();
+        try {
+            putSpecialization(doctorSpecialization, doctorId, specializationId);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void removeDoctor(Integer doctorId) {
+        if (doctorId == null) return;
+        rebuildLock.readLock().lock();
+        try {
+            doctorSpecialization.remove(doctorId);
+            booked.keySet().removeIf(k -> (int) (k >>> 32) == doctorId);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public boolean isFree(Integer doctorId, LocalDate date, LocalTime time) {
+        DaySlots day = booked.get(key(doctorId, date));
+        return day == null || !day.isBooked(time.toSecondOfDay());
+    }
+
+    // Whether the index can answer for this date (it only tracks today onwards)
+    public boolean covers(LocalDate date) {
+        return !date.isBefore(LocalDate.now());
+    }
+
+    public List<FreeSlot> freeSlots(Integer doctorId, LocalDate from, LocalDate to) {
+        Map<Long, DaySlots> booked = this.booked;
+        List<FreeSlot> result = new ArrayList<>();
+        LocalDate start = from.isBefore(LocalDate.now()) ? LocalDate.now() : from;
+        LocalDate end = to.isAfter(start.plusDays(horizonDays)) ? start.plusDays(horizonDays) : to;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            DaySlots day = booked.getOrDefault(key(doctorId, date), DaySlots.EMPTY);
+            for (int slot = firstOpenSlot(date); slot < endSlot; slot++) {
+                if (!day.isBusy(slot)) {
+                    result.add(new FreeSlot(doctorId, date, timeOf(slot)));
+                }
+            }
+        }
+        return result;
+    }
+
+    // Earliest free slots across every doctor of a specialization, in time order
+    public List<FreeSlot> firstFreeSlots(Integer specializationId, LocalDate from, int limit) {
+        List<Integer> doctors = new ArrayList<>();
+        doctorSpecialization.forEach((doctorId, spId) -> {
+            if (spId.equals(specializationId)) doctors.add(doctorId);
+        });
+        doctors.sort(null);
+
+        List<FreeSlot> result = new ArrayList<>();
+        if (doctors.isEmpty() || limit <= 0) return result;
+
+        Map<Long, DaySlots> booked = this.booked;
+        LocalDate start = from.isBefore(LocalDate.now()) ? LocalDate.now() : from;
+        DaySlots[] days = new DaySlots[doctors.size()];
+        for (LocalDate date = start; !date.isAfter(start.plusDays(horizonDays)); date = date.plusDays(1)) {
+            for (int i = 0; i < days.length; i++) {
+                days[i] = booked.getOrDefault(key(doctors.get(i), date), DaySlots.EMPTY);
+            }
+            for (int slot = firstOpenSlot(date); slot < endSlot; slot++) {
+                for (int i = 0; i < days.length; i++) {
+                    if (!days[i].isBusy(slot)) {
+                        result.add(new FreeSlot(doctors.get(i), date, timeOf(slot)));
+                        if (result.size() >= limit) return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // Drop days that have passed
+    @Scheduled(cron = "0 5 0 * * *")
+    public void evictPastDays() {
+        long today = LocalDate.now().toEpochDay();
+        rebuildLock.readLock().lock();
+        try {
+            booked.keySet().removeIf(k -> (int) (k & 0xffffffffL) < today);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private int firstOpenSlot(LocalDate date) {
+        if (!date.equals(LocalDate.now())) return firstSlot;
+        // Today: only slots that have not started yet
+        LocalDateTime now = LocalDateTime.now();
+        return Math.max(firstSlot, (now.getHour() * 60 + now.getMinute()) / SLOT_MINUTES + 1);
+    }
+
+    // ConcurrentHashMap rejects null values; -1 marks "no specialization"
+    private static void putSpecialization(Map<Integer, Integer> map, Integer doctorId, Integer specializationId) {
+        map.put(doctorId, specializationId != null ? specializationId : -1);
+    }
+
+    private static boolean holds(AppointmentSnapshot snapshot) {
+        return snapshot != null && snapshot.doctorId() != null && snapshot.appointmentDate() != null
+                && snapshot.appointmentTime() != null
+                && !Appointment.STATUS_CANCELLED.equalsIgnoreCase(snapshot.status());
+    }
+
+    private static long key(Integer doctorId, LocalDate date) {
+        return ((long) doctorId << 32) | (date.toEpochDay() & 0xffffffffL);
+    }
+
+    private static int slotOf(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    private static LocalTime timeOf(int slot) {
+        return LocalTime.of(0, 0).plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    // One day's bookings. A bit marks a booking at exactly its slot's start; off-grid times and
+    // further occupants of an already booked time are counted on the side, keyed by second of day,
+    // so cancelling one of them keeps the others in place.
+    private record DaySlots(long low, long high, Map<Integer, Integer> extra) {
+
+        static final DaySlots EMPTY = new DaySlots(0L, 0L, Map.of());
+
+        // Whether a booking holds exactly this time
+        boolean isBooked(int second) {
+            return second % SLOT_SECONDS == 0 ? isSet(second / SLOT_SECONDS) : extra.containsKey(second);
+        }
+
+        // Whether any booking starts within this slot
+        boolean isBusy(int slot) {
+            if (isSet(slot)) return true;
+            for (int second : extra.keySet()) {
+                if (second / SLOT_SECONDS == slot) return true;
+            }
+            return false;
+        }
+
+        DaySlots add(int second) {
+            int slot = second / SLOT_SECONDS;
+            if (second % SLOT_SECONDS != 0 || isSet(slot)) {
+                Map<Integer, Integer> copy = new HashMap<>(extra);
+                copy.merge(second, 1, Integer::sum);
+                return new DaySlots(low, high, Map.copyOf(copy));
+            }
+            return slot < 64
+                    ? new DaySlots(low | (1L << slot), high, extra)
+                    : new DaySlots(low, high | (1L << (slot - 64)), extra);
+        }
+
+        DaySlots remove(int second) {
+            DaySlots cleared;
+            if (extra.containsKey(second)) {
+                Map<Integer, Integer> copy = new HashMap<>(extra);
+                copy.computeIfPresent(second, (s, n) -> n > 1 ? n - 1 : null);
+                cleared = new DaySlots(low, high, Map.copyOf(copy));
+            } else if (second % SLOT_SECONDS == 0) {
+                int slot = second / SLOT_SECONDS;
+                cleared = slot < 64
+                        ? new DaySlots(low & ~(1L << slot), high, extra)
+                        : new DaySlots(low, high & ~(1L << (slot - 64)), extra);
+            } else {
+                return this;
+            }
+            // Returning null from computeIfPresent removes the empty day
+            return cleared.low == 0 && cleared.high == 0 && cleared.extra.isEmpty() ? null : cleared;
+        }
+
+        private boolean isSet(int slot) {
+            return slot < 64 ? (low & (1L << slot)) != 0 : (high & (1L << (slot - 64))) != 0;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.hospital.index;
+
+import com.hospital.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Doctor -> patient adjacency behind the "patients of a doctor" lists and counts. Each doctor
+// holds a sorted int[] of patient ids plus, per patient, how many of their appointments are
+// with the doctor, so a patient only leaves the set with their last one. Readers follow a
+// volatile reference to the immutable id array and never lock. A delta that only moves a count
+// is a single atomic add; the id array is copied only when a patient joins or leaves. Rebuilt
+// from one grouped query on startup and kept current through AppointmentIndexes.
+@Component
+public class DoctorPatientIndex {
+
+    private static final int[] NO_PATIENTS = new int[0];
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private volatile ConcurrentHashMap<Integer, Patients> byDoctor = new ConcurrentHashMap<>();
+
+    // Writers share the read lock so they stay concurrent; a rebuild takes the write lock so no
+    // delta lands in the map it is about to replace
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    // Bumped by each rebuild before it reads. A delta carries the epoch read just after its write
+    // committed; if a rebuild has started since, that rebuild's query already saw the write.
+    private volatile long epoch;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            epoch++;
+            byDoctor = load(appointmentRepository.countGroupedByDoctorAndPatient());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public void apply(AppointmentSnapshot before, AppointmentSnapshot after) {
+        apply(before, after, epoch);
+    }
+
+    // Skipped when a rebuild has started since the epoch was read: its snapshot includes the write
+    public void apply(AppointmentSnapshot before, AppointmentSnapshot after, long writeEpoch) {
+        if (before != null && after != null && Objects.equals(before.doctorId(), after.doctorId())
+                && Objects.equals(before.patientId(), after.patientId())) {
+            return;
+        }
+        rebuildLock.readLock().lock();
+        try {
+            if (writeEpoch != epoch) return;
+            if (before != null) adjust(before.doctorId(), before.patientId(), -1);
+            if (after != null) adjust(after.doctorId(), after.patientId(), 1);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Ascending patient ids
+    public List<Integer> patientIds(Integer doctorId) {
+        int[] ids = ids(doctorId);
+        List<Integer> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    public int patientCount(Integer doctorId) {
+        return ids(doctorId).length;
+    }
+
+    private int[] ids(Integer doctorId) {
+        if (doctorId == null) return NO_PATIENTS;
+        Patients patients = byDoctor.get(doctorId);
+        return patients != null ? patients.ids : NO_PATIENTS;
+    }
+
+    private void adjust(Integer doctorId, Integer patientId, int delta) {
+        if (doctorId == null || patientId == null) return;
+        Patients patients = byDoctor.computeIfAbsent(doctorId, k -> new Patients(NO_PATIENTS));
+        AtomicInteger appointments = delta > 0
+                ? patients.appointments.computeIfAbsent(patientId, k -> new AtomicInteger())
+                : patients.appointments.get(patientId);
+        if (appointments == null) return;
+        int now = appointments.addAndGet(delta);
+        if ((now > 0) != (now - delta > 0)) {
+            patients.reconcile(patientId);
+        }
+    }
+
+    // Rows are (doctorId, patientId, appointments) ordered by doctor, then patient
+    private static ConcurrentHashMap<Integer, Patients> load(List<Object[]> rows) {
+        ConcurrentHashMap<Integer, Patients> map = new ConcurrentHashMap<>();
+        int start = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i < rows.size() && rows.get(i)[0].equals(rows.get(start)[0])) continue;
+            int[] ids = new int[i - start];
+            for (int j = start; j < i; j++) {
+                ids[j - start] = ((Number) rows.get(j)[1]).intValue();
+            }
+            Patients patients = new Patients(ids);
+            for (int j = start; j < i; j++) {
+                patients.appointments.put(ids[j - start], new AtomicInteger(((Number) rows.get(j)[2]).intValue()));
+            }
+            map.put((Integer) rows.get(start)[0], patients);
+            start = i;
+        }
+        return map;
+    }
+
+    private static final class Patients {
+
+        // Never mutated once published: a join or leave publishes a new array
+        volatile int[] ids;
+        // Counts stay at zero rather than being removed, which could race an increment
+        final ConcurrentHashMap<Integer, AtomicInteger> appointments = new ConcurrentHashMap<>();
+        private final ReentrantLock membership = new ReentrantLock();
+
+        Patients(int[] ids) {
+            this.ids = ids;
+        }
+
+        // Brings the patient's place in ids in line with their current count. Every count that
+        // crosses zero is followed by a reconcile, so the last one always sees the final count.
+        void reconcile(int patientId) {
+            membership.lock();
+            try {
+                AtomicInteger count = appointments.get(patientId);
+                boolean wanted = count != null && count.get() > 0;
+                int at = Arrays.binarySearch(ids, patientId);
+                if (wanted && at < 0) {
+                    ids = insert(ids, -at - 1, patientId);
+                } else if (!wanted && at >= 0) {
+                    ids = remove(ids, at);
+                }
+            } finally {
+                membership.unlock();
+            }
+        }
+
+        private static int[] insert(int[] values, int at, int value) {
+            int[] copy = new int[values.length + 1];
+            System.arraycopy(values, 0, copy, 0, at);
+            copy[at] = value;
+            System.arraycopy(values, at, copy, at + 1, values.length - at);
+            return copy;
+        }
+
+        private static int[] remove(int[] values, int at) {
+            int[] copy = new int[values.length - 1];
+            System.arraycopy(values, 0, copy, 0, at);
+            System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.hospital.index;
+
+import com.hospital.entity.Doctor;
+import com.hospital.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// N-gram index over doctor names. Loaded on startup and kept current by DoctorServiceImpl
+// and doctor self-registration.
+@Component
+public class DoctorSearchIndex {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    private final NGramIndex index = new NGramIndex(1);
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            index.clear();
+            for (Object[] row : doctorRepository.findSearchFields()) {
+                index.put((Integer) row[0], (String) row[1]);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public void put(Doctor doctor) {
+        index.put(doctor.getDrId(), doctor.getName());
+    }
+
+    public void remove(Integer id) {
+        index.remove(id);
+    }
+
+    public List<Integer> searchByName(String query, int limit) {
+        return index.search(query, limit, 0);
+    }
+}
@@ -0,0 +1,163 @@
+package com.hospital.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Inverted index from every 1-, 2- and 3-character gram of a document's fields to the
+// documents containing it. A query of up to three characters is a single posting lookup;
+// longer queries intersect their trigram postings and confirm each candidate with a
+// substring check, so results match what LIKE '%query%' returned.
+// Readers are lock-free; writers are serialized. Not a Spring bean: PatientSearchIndex
+// and DoctorSearchIndex each own one.
+public class NGramIndex {
+
+    private static final int MAX_GRAM = 3;
+    // Upper bound on limit; results are loaded by id, so keep the IN list reasonable
+    private static final int MAX_RESULTS = 500;
+
+    private final int fieldCount;
+    // postings.get(field): gram -> ids of documents whose field contains it
+    private final List<Map<String, Set<Integer>>> postings = new ArrayList<>();
+    // Normalized field values per document, for verification, ranking and removal
+    private final Map<Integer, String[]> documents = new ConcurrentHashMap<>();
+
+    public NGramIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+        for (int i = 0; i < fieldCount; i++) {
+            postings.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    // Add or replace a document; null field values are simply not indexed
+    public synchronized void put(Integer id, String... fields) {
+        if (id == null) return;
+        remove(id);
+        String[] normalized = new String[fieldCount];
+        for (int f = 0; f < fieldCount; f++) {
+            normalized[f] = f < fields.length ? normalize(fields[f]) : null;
+            if (normalized[f] != null) {
+                for (String gram : grams(normalized[f])) {
+                    postings.get(f).computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+                }
+            }
+        }
+        documents.put(id, normalized);
+    }
+
+    public synchronized void remove(Integer id) {
+        if (id == null) return;
+        String[] old = documents.remove(id);
+        if (old == null) return;
+        for (int f = 0; f < fieldCount; f++) {
+            if (old[f] == null) continue;
+            for (String gram : grams(old[f])) {
+                postings.get(f).computeIfPresent(gram, (g, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        documents.clear();
+        postings.forEach(Map::clear);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    // Ids of documents where any of the given fields contains the query, best matches first:
+    // whole-field match, then field prefix, then word prefix, then anywhere; shorter values
+    // before longer ones; lower ids first.
+    public List<Integer> search(String query, int limit, int... fields) {
+        String q = normalize(query);
+        if (q == null || limit <= 0) return List.of();
+
+        // Same document through several fields keeps its best match
+        Map<Integer, Match> best = new HashMap<>();
+        for (int f : fields) {
+            for (Integer id : candidates(postings.get(f), q)) {
+                String[] doc = documents.get(id);
+                // A document replaced mid-search may not match any more; skip it
+                if (doc == null || doc[f] == null || !doc[f].contains(q)) continue;
+                best.merge(id, new Match(id, rank(doc[f], q), doc[f].length()),
+                        (a, b) -> MATCH_ORDER.compare(a, b) <= 0 ? a : b);
+            }
+        }
+        List<Match> matches = new ArrayList<>(best.values());
+        matches.sort(MATCH_ORDER);
+        int count = Math.min(Math.min(limit, MAX_RESULTS), matches.size());
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(matches.get(i).id());
+        }
+        return ids;
+    }
+
+    private static Set<Integer> candidates(Map<String, Set<Integer>> field, String q) {
+        if (q.length() <= MAX_GRAM) {
+            return field.getOrDefault(q, Set.of());
+        }
+        // Start from the rarest trigram so the intersection stays small
+        Set<Integer> smallest = null;
+        List<Set<Integer>> others = new ArrayList<>();
+        for (int i = 0; i + MAX_GRAM <= q.length(); i++) {
+            Set<Integer> ids = field.get(q.substring(i, i + MAX_GRAM));
+            if (ids == null) return Set.of();
+            if (smallest == null || ids.size() < smallest.size()) {
+                if (smallest != null) others.add(smallest);
+                smallest = ids;
+            } else {
+                others.add(ids);
+            }
+        }
+        Set<Integer> result = new HashSet<>(smallest);
+        for (Set<Integer> ids : others) {
+            result.retainAll(ids);
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= value.length(); i++) {
+                grams.add(value.substring(i, i + n));
+            }
+        }
+        return grams;
+    }
+
+    private static int rank(String value, String q) {
+        if (value.equals(q)) return 0;
+        if (value.startsWith(q)) return 1;
+        int at = value.indexOf(q);
+        while (at > 0) {
+            if (!Character.isLetterOrDigit(value.charAt(at - 1))) return 2;
+            at = value.indexOf(q, at + 1);
+        }
+        return 3;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private record Match(Integer id, int rank, int length) {}
+
+    private static final Comparator<Match> MATCH_ORDER = Comparator.comparingInt(Match::rank)
+            .thenComparingInt(Match::length)
+            .thenComparing(Match::id);
+}
@@ -0,0 +1,60 @@
+package com.hospital.index;
+
+import com.hospital.entity.Patient;
+import com.hospital.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// N-gram index over patient name, email, contact and mobile number for the front-desk
+// search box. Loaded on startup and kept current by PatientServiceImpl and patient
+// self-registration.
+@Component
+public class PatientSearchIndex {
+
+    private static final int NAME = 0;
+    private static final int EMAIL = 1;
+    private static final int CONTACT = 2;
+    private static final int MOBILE_NO = 3;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private final NGramIndex index = new NGramIndex(4);
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            index.clear();
+            for (Object[] row : patientRepository.findSearchFields()) {
+                index.put((Integer) row[0], (String) row[1], (String) row[2], (String) row[3], (String) row[4]);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public void put(Patient patient) {
+        index.put(patient.getpId(), patient.getName(), patient.getEmail(), patient.getContact(), patient.getMobileNo());
+    }
+
+    public void remove(Integer id) {
+        index.remove(id);
+    }
+
+    // Matches on name or email
+    public List<Integer> searchByName(String query, int limit) {
+        return index.search(query, limit, NAME, EMAIL);
+    }
+
+    // Matches on contact or mobile number
+    public List<Integer> searchByContact(String query, int limit) {
+        return index.search(query, limit, CONTACT, MOBILE_NO);
+    }
+}
@@ -0,0 +1,19 @@
+package com.hospital.observability;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Metric sources beyond what Boot binds on its own (http.server.requests per endpoint,
+// spring.data.repository.invocations per Spring Data method, hikaricp.* for the pool).
+// Histogram buckets and the scrape endpoint are set up in application.properties.
+@Configuration
+public class MetricsConfig {
+
+    // Backs @Timed on the JdbcTemplate repositories, which Spring Data's listener cannot see
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.hospital.observability;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// One structured log line per sampled request (method, path, status, duration), instead of
+// printing every request to stdout. Server errors and slow requests are always logged; the
+// rest at hospital.logging.request.sample-rate. The request id (X-Request-Id, generated when
+// absent) is put in the MDC for every log line of the request and echoed in the response.
+// Lines go through the async appender in logback-spring.xml, so logging never blocks a request.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SampledRequestLogFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID = "requestId";
+    private static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final Logger log = LoggerFactory.getLogger(SampledRequestLogFilter.class);
+
+    private final double sampleRate;
+    private final long slowNanos;
+
+    public SampledRequestLogFilter(@Value("${hospital.logging.request.sample-rate:0.01}") double sampleRate,
+                                   @Value("${hospital.logging.request.slow-threshold:PT1S}") Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isBlank() || requestId.length() > 64) {
+            requestId = UUID.randomUUID().toString();
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        MDC.put(REQUEST_ID, requestId);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            int status = response.getStatus();
+            // 503s come from admission control under overload: sampled, or they would add to it
+            boolean always = (status >= 500 && status != 503) || elapsed >= slowNanos;
+            if (always || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                log.atInfo()
+                        .addKeyValue("method", request.getMethod())
+                        .addKeyValue("path", request.getRequestURI())
+                        .addKeyValue("status", status)
+                        .addKeyValue("durationMs", elapsed / 1_000_000)
+                        .addKeyValue("sampled", !always)
+                        .log("request");
+            }
+            MDC.remove(REQUEST_ID);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+}
@@ -0,0 +1,254 @@
+package com.hospital.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.index.AppointmentSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Pushes committed appointment writes to SSE subscribers of a doctor, of a patient, or of
+// everything (admin dashboards). An open stream is an async servlet request and holds no thread
+// while idle. Publishing never blocks the writer: each subscriber has a small bounded queue and
+// at most one drain task in flight, so a slow client only ever holds up its own virtual thread.
+// When a queue overflows its backlog is dropped and replaced by a single "resync" event, after
+// which the client re-reads through the change feed.
+@Component
+public class AppointmentBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentBroadcaster.class);
+
+    static final String APPOINTMENT = "appointment";
+    static final String RESYNC = "resync";
+    // A comment line: keeps proxies and load balancers from closing an idle stream
+    private static final Frame HEARTBEAT = new Frame(null, "heartbeat");
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    private final Map<Integer, Set<Subscriber>> byDoctor = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Subscriber>> byPatient = new ConcurrentHashMap<>();
+    private final Set<Subscriber> everything = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter coalesced;
+
+    public AppointmentBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                  @Value("${hospital.push.buffer-size:32}") int bufferSize,
+                                  @Value("${hospital.push.timeout:PT30M}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("hospital.push.subscribers", subscribers, AtomicInteger::get)
+                .description("Open appointment event streams")
+                .register(meterRegistry);
+        coalesced = Counter.builder("hospital.push.coalesced")
+                .description("Slow subscribers whose backlog was replaced by a resync event")
+                .register(meterRegistry);
+    }
+
+    // doctorId or patientId narrows the stream to that doctor's or patient's appointments;
+    // neither streams every appointment
+    public SseEmitter subscribe(Integer doctorId, Integer patientId) {
+        return subscribe(doctorId, patientId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Integer doctorId, Integer patientId, SseEmitter emitter) {
+        if (doctorId != null && patientId != null) {
+            throw new IllegalArgumentException("Stream a doctor or a patient, not both");
+        }
+        Subscriber subscriber = new Subscriber(emitter);
+        Runnable remove;
+        if (doctorId != null) {
+            add(byDoctor, doctorId, subscriber);
+            remove = () -> remove(byDoctor, doctorId, subscriber);
+        } else if (patientId != null) {
+            add(byPatient, patientId, subscriber);
+            remove = () -> remove(byPatient, patientId, subscriber);
+        } else {
+            everything.add(subscriber);
+            remove = () -> everything.remove(subscriber);
+        }
+        subscribers.incrementAndGet();
+        AtomicBoolean removed = new AtomicBoolean();
+        subscriber.onClose = () -> {
+            subscriber.closed = true;
+            if (removed.compareAndSet(false, true)) {
+                remove.run();
+                subscribers.decrementAndGet();
+            }
+        };
+        emitter.onCompletion(subscriber.onClose);
+        emitter.onTimeout(subscriber.onClose);
+        emitter.onError(e -> subscriber.onClose.run());
+        // Commits the response headers so the client sees the stream open straight away
+        subscriber.enqueue(HEARTBEAT);
+        return emitter;
+    }
+
+    public void created(AppointmentSnapshot after) {
+        publish(AppointmentEvent.of(AppointmentEvent.CREATED, after), null, after);
+    }
+
+    // A moved appointment is announced to the old and the new doctor and patient
+    public void updated(AppointmentSnapshot before, AppointmentSnapshot after) {
+        publish(AppointmentEvent.of(AppointmentEvent.UPDATED, after), before, after);
+    }
+
+    public void deleted(AppointmentSnapshot before) {
+        publish(AppointmentEvent.of(AppointmentEvent.DELETED, before), before, null);
+    }
+
+    // For writes that are not seen one by one, e.g. cascading doctor/patient deletes
+    public void resyncAll() {
+        Frame resync = new Frame(RESYNC, "{}");
+        forEachSubscriber(subscriber -> subscriber.enqueue(resync));
+    }
+
+    @Scheduled(fixedDelayString = "${hospital.push.heartbeat-interval:15000}")
+    public void heartbeat() {
+        forEachSubscriber(Subscriber::heartbeat);
+    }
+
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    @PreDestroy
+    void stop() {
+        forEachSubscriber(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        everything.forEach(action);
+        byDoctor.values().forEach(set -> set.forEach(action));
+        byPatient.values().forEach(set -> set.forEach(action));
+    }
+
+    private void publish(AppointmentEvent event, AppointmentSnapshot before, AppointmentSnapshot after) {
+        if (subscribers.get() == 0) return;
+        Frame frame;
+        try {
+            // Serialized once, whatever the number of subscribers
+            frame = new Frame(APPOINTMENT, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize appointment event {}", event.apId(), e);
+            return;
+        }
+        Set<Subscriber> targets = new LinkedHashSet<>(everything);
+        for (AppointmentSnapshot snapshot : new AppointmentSnapshot[] {before, after}) {
+            if (snapshot == null) continue;
+            if (snapshot.doctorId() != null) targets.addAll(byDoctor.getOrDefault(snapshot.doctorId(), Set.of()));
+            if (snapshot.patientId() != null) targets.addAll(byPatient.getOrDefault(snapshot.patientId(), Set.of()));
+        }
+        targets.forEach(subscriber -> subscriber.enqueue(frame));
+    }
+
+    private static void add(Map<Integer, Set<Subscriber>> topics, Integer key, Subscriber subscriber) {
+        topics.compute(key, (k, set) -> {
+            Set<Subscriber> members = set != null ? set : ConcurrentHashMap.newKeySet();
+            members.add(subscriber);
+            return members;
+        });
+    }
+
+    private static void remove(Map<Integer, Set<Subscriber>> topics, Integer key, Subscriber subscriber) {
+        topics.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    // name == null sends data as an SSE comment
+    private record Frame(String name, String data) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Frame> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private Runnable onClose = () -> {};
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Frame frame) {
+            if (closed) return;
+            // While a resync is pending it already covers anything that happens before it is sent
+            if (!overflowed.get() && !queue.offer(frame)) {
+                queue.clear();
+                if (overflowed.compareAndSet(false, true)) coalesced.increment();
+            }
+            scheduleDrain();
+        }
+
+        // Only when nothing else is on its way
+        void heartbeat() {
+            if (queue.isEmpty() && !draining.get()) enqueue(HEARTBEAT);
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    Frame frame = overflowed.getAndSet(false) ? new Frame(RESYNC, "{}") : queue.poll();
+                    if (frame == null) break;
+                    send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                queue.clear();
+                onClose.run();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // A frame may have arrived between the last poll and clearing the flag
+            if (!closed && (!queue.isEmpty() || overflowed.get())) scheduleDrain();
+        }
+
+        private void send(Frame frame) throws IOException {
+            if (frame.name() == null) {
+                emitter.send(SseEmitter.event().comment(frame.data()));
+            } else {
+                emitter.send(SseEmitter.event().name(frame.name()).data(frame.data()));
+            }
+        }
+    }
+}
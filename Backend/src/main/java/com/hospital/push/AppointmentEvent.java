@@ -0,0 +1,26 @@
+package com.hospital.push;
+
+import com.hospital.index.AppointmentSnapshot;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Payload of an "appointment" event on /api/appointments/stream: what happened and the state
+// after it (the state before it for DELETED)
+public record AppointmentEvent(String type,
+                               Integer apId,
+                               Integer doctorId,
+                               Integer patientId,
+                               LocalDate appointmentDate,
+                               LocalTime appointmentTime,
+                               String status) {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+
+    public static AppointmentEvent of(String type, AppointmentSnapshot snapshot) {
+        return new AppointmentEvent(type, snapshot.apId(), snapshot.doctorId(), snapshot.patientId(),
+                snapshot.appointmentDate(), snapshot.appointmentTime(), snapshot.status());
+    }
+}
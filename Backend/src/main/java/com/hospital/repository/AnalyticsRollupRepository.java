@@ -0,0 +1,167 @@
+package com.hospital.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Set-based SQL behind the daily analytics rollups (appointment_daily_rollup,
+// prescription_daily_rollup). A day is always rebuilt whole from the raw rows, so rebuilding
+// a day twice is harmless; AnalyticsRollupJob owns the transactions.
+@Repository
+@Timed(value = "hospital.repository.jdbc", histogram = true)
+public class AnalyticsRollupRepository {
+
+    public enum Fact {
+        APPOINTMENT("appointment", "appointment_date", "appointment_daily_rollup",
+                "INSERT INTO appointment_daily_rollup (rollup_day, doctor_id, status, specialization_id, total) "
+                        + "SELECT a.appointment_date, COALESCE(a.doctor_id, 0), COALESCE(UPPER(a.status), 'NONE'), "
+                        + "MAX(d.specialization_id), COUNT(*) "
+                        + "FROM appointment a LEFT JOIN doctor d ON d.dr_id = a.doctor_id "
+                        + "WHERE a.appointment_date IN (%s) "
+                        + "GROUP BY a.appointment_date, COALESCE(a.doctor_id, 0), COALESCE(UPPER(a.status), 'NONE')"),
+        PRESCRIPTION("prescription", "created_at", "prescription_daily_rollup",
+                "INSERT INTO prescription_daily_rollup (rollup_day, doctor_id, total) "
+                        + "SELECT created_at, COALESCE(doctor_id, 0), COUNT(*) FROM prescription "
+                        + "WHERE created_at IN (%s) "
+                        + "GROUP BY created_at, COALESCE(doctor_id, 0)");
+
+        private final String table;
+        private final String dayColumn;
+        private final String rollupTable;
+        private final String rebuildSql;
+
+        Fact(String table, String dayColumn, String rollupTable, String rebuildSql) {
+            this.table = table;
+            this.dayColumn = dayColumn;
+            this.rollupTable = rollupTable;
+            this.rebuildSql = rebuildSql;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public LocalDateTime watermark(Fact fact) {
+        List<Timestamp> rows = jdbcTemplate.queryForList(
+                "SELECT watermark FROM analytics_rollup_state WHERE fact = ?", Timestamp.class, fact.name());
+        return rows.isEmpty() ? null : rows.get(0).toLocalDateTime();
+    }
+
+    public void saveWatermark(Fact fact, LocalDateTime watermark) {
+        Timestamp value = Timestamp.valueOf(watermark);
+        if (jdbcTemplate.update("UPDATE analytics_rollup_state SET watermark = ? WHERE fact = ?", value, fact.name()) == 0) {
+            jdbcTemplate.update("INSERT INTO analytics_rollup_state (fact, watermark) VALUES (?, ?)", fact.name(), value);
+        }
+    }
+
+    // Next run rebuilds every day, e.g. after cascading deletes that bypass the write paths
+    public void resetWatermark(Fact fact) {
+        jdbcTemplate.update("DELETE FROM analytics_rollup_state WHERE fact = ?", fact.name());
+    }
+
+    // Days of rows inserted or updated after the given time
+    public List<LocalDate> daysChangedSince(Fact fact, LocalDateTime since) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT " + fact.dayColumn + " FROM " + fact.table
+                + " WHERE updated_at > ? AND " + fact.dayColumn + " IS NOT NULL", Date.class, Timestamp.valueOf(since))
+                .stream().map(Date::toLocalDate).toList();
+    }
+
+    // Every day with raw rows or rollup rows, for a full rebuild
+    public List<LocalDate> allDays(Fact fact) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT " + fact.dayColumn + " FROM " + fact.table
+                + " WHERE " + fact.dayColumn + " IS NOT NULL UNION SELECT DISTINCT rollup_day FROM " + fact.rollupTable,
+                Date.class).stream().map(Date::toLocalDate).toList();
+    }
+
+    public void markDirty(Fact fact, LocalDate day) {
+        jdbcTemplate.update("INSERT IGNORE INTO analytics_dirty_day (fact, rollup_day) VALUES (?, ?)",
+                fact.name(), Date.valueOf(day));
+    }
+
+    // Marks the stored day of a prescription before it is deleted, or before an update moves it
+    // to newDay (null for a delete); nothing is written when the day stays the same
+    public void markPrescriptionDayDirty(Integer prescriptionId, LocalDate newDay) {
+        String sql = "INSERT IGNORE INTO analytics_dirty_day (fact, rollup_day) SELECT ?, created_at FROM prescription "
+                + "WHERE id = ? AND created_at IS NOT NULL";
+        if (newDay == null) {
+            jdbcTemplate.update(sql, Fact.PRESCRIPTION.name(), prescriptionId);
+        } else {
+            jdbcTemplate.update(sql + " AND created_at <> ?", Fact.PRESCRIPTION.name(), prescriptionId, Date.valueOf(newDay));
+        }
+    }
+
+    public List<LocalDate> dirtyDays(Fact fact) {
+        return jdbcTemplate.queryForList("SELECT rollup_day FROM analytics_dirty_day WHERE fact = ?", Date.class, fact.name())
+                .stream().map(Date::toLocalDate).toList();
+    }
+
+    // Replaces the rollup rows of the given days and clears their dirty marks
+    public void rebuildDays(Fact fact, Collection<LocalDate> days) {
+        if (days.isEmpty()) return;
+        Object[] dayArgs = days.stream().map(Date::valueOf).toArray();
+        String in = placeholders(days.size());
+        List<Object> dirtyArgs = new ArrayList<>();
+        dirtyArgs.add(fact.name());
+        Collections.addAll(dirtyArgs, dayArgs);
+        jdbcTemplate.update("DELETE FROM analytics_dirty_day WHERE fact = ? AND rollup_day IN (" + in + ")", dirtyArgs.toArray());
+        jdbcTemplate.update("DELETE FROM " + fact.rollupTable + " WHERE rollup_day IN (" + in + ")", dayArgs);
+        jdbcTemplate.update(String.format(fact.rebuildSql, in), dayArgs);
+    }
+
+    // Daily totals in [from, to] in date order; days without rows are absent. Null filters are ignored.
+    public Map<LocalDate, Long> appointmentTotals(LocalDate from, LocalDate to, Integer doctorId,
+                                                  Integer specializationId, String status) {
+        StringBuilder sql = new StringBuilder("SELECT rollup_day, SUM(total) FROM appointment_daily_rollup "
+                + "WHERE rollup_day BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        if (doctorId != null) {
+            sql.append(" AND doctor_id = ?");
+            args.add(doctorId);
+        }
+        if (specializationId != null) {
+            sql.append(" AND specialization_id = ?");
+            args.add(specializationId);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.toUpperCase());
+        }
+        return totals(sql, args);
+    }
+
+    public Map<LocalDate, Long> prescriptionTotals(LocalDate from, LocalDate to, Integer doctorId) {
+        StringBuilder sql = new StringBuilder("SELECT rollup_day, SUM(total) FROM prescription_daily_rollup "
+                + "WHERE rollup_day BETWEEN ? AND ?");
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        if (doctorId != null) {
+            sql.append(" AND doctor_id = ?");
+            args.add(doctorId);
+        }
+        return totals(sql, args);
+    }
+
+    private Map<LocalDate, Long> totals(StringBuilder sql, List<Object> args) {
+        sql.append(" GROUP BY rollup_day ORDER BY rollup_day");
+        Map<LocalDate, Long> totals = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            totals.put(rs.getDate(1).toLocalDate(), rs.getLong(2));
+        }, args.toArray());
+        return totals;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
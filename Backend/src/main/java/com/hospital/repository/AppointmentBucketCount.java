@@ -0,0 +1,12 @@
+package com.hospital.repository;
+
+// Projection for grouped appointment counts: one row per (status, day bucket)
+public interface AppointmentBucketCount {
+
+    String getStatus();
+
+    // PAST, TODAY or UPCOMING relative to CURRENT_DATE
+    String getBucket();
+
+    long getTotal();
+}
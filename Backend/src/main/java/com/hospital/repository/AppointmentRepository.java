@@ -1,45 +1,166 @@
 package com.hospital.repository;
 
+import com.hospital.dto.AppointmentRow;
 import com.hospital.entity.Appointment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Integer> {
 
-    // Doctor-based queries (Doctor.drId)
-    List<Appointment> findByDoctorDrId(Integer doctorId);
+    // Listings fetch doctor and patient in the same query, so building AppointmentViews
+    // never lazy-loads per row
+    @Override
+    @EntityGraph(attributePaths = {"doctor", "patient"})
+    List<Appointment> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"doctor", "patient"})
+    Optional<Appointment> findById(Integer id);
+
+    // Doctor-based queries (Doctor.drId). Filters go on a.doctor.drId, i.e. the doctor_id
+    // column itself, so the appointment indexes apply; the derived query filtered on a second
+    // join to doctor instead and scanned appointment.
+    @EntityGraph(attributePaths = {"doctor", "patient"})
+    @Query("SELECT a FROM Appointment a WHERE a.doctor.drId = :doctorId")
+    List<Appointment> findByDoctorDrId(@Param("doctorId") Integer doctorId);
 
     // Patient-based queries (Patient.pId)
-    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p WHERE p.pId = :patientId")
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.patient p LEFT JOIN FETCH a.doctor WHERE p.pId = :patientId")
     List<Appointment> findByPatientPId(@Param("patientId") Integer patientId);
 
     // Common filters
+    @EntityGraph(attributePaths = {"doctor", "patient"})
     List<Appointment> findByStatus(String status);
+    @EntityGraph(attributePaths = {"doctor", "patient"})
     List<Appointment> findByAppointmentDate(LocalDate date);
 
     // Custom queries
+    @EntityGraph(attributePaths = {"doctor", "patient"})
     @Query("SELECT a FROM Appointment a WHERE a.doctor.drId = :doctorId AND a.appointmentDate = CURRENT_DATE")
     List<Appointment> findTodayAppointments(@Param("doctorId") Integer doctorId);
 
+    @EntityGraph(attributePaths = {"doctor", "patient"})
     @Query("SELECT a FROM Appointment a WHERE a.doctor.drId = :doctorId AND a.appointmentDate > CURRENT_DATE")
     List<Appointment> findUpcomingAppointments(@Param("doctorId") Integer doctorId);
 
+    @EntityGraph(attributePaths = {"doctor", "patient"})
     @Query("SELECT a FROM Appointment a WHERE a.doctor.drId = :doctorId AND a.appointmentDate < CURRENT_DATE")
     List<Appointment> findPastAppointments(@Param("doctorId") Integer doctorId);
 
     // Additional queries for availability checking
+    @EntityGraph(attributePaths = {"doctor", "patient"})
     List<Appointment> findByDoctorDrIdAndAppointmentDate(Integer doctorId, LocalDate date);
     
     List<Appointment> findByDoctorDrIdAndAppointmentDateAndAppointmentTime(
         Integer doctorId, LocalDate date, LocalTime time);
 
-    @Query("SELECT COUNT(DISTINCT a.patient.pId) FROM Appointment a WHERE a.doctor.drId = :doctorId")
-    long countDistinctPatientsByDoctorId(@Param("doctorId") Integer doctorId);
+    // Grouped counts used to rebuild the in-memory appointment counters
+    @Query("SELECT a.status, COUNT(a) FROM Appointment a GROUP BY a.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Query("SELECT a.appointmentDate, COUNT(a) FROM Appointment a GROUP BY a.appointmentDate")
+    List<Object[]> countGroupedByDate();
+
+    @Query("SELECT a.doctor.drId, COUNT(a) FROM Appointment a GROUP BY a.doctor.drId")
+    List<Object[]> countGroupedByDoctor();
+
+    // Loads DoctorPatientIndex: (doctorId, patientId, appointments), ordered by doctor then patient
+    @Query("SELECT a.doctor.drId, a.patient.pId, COUNT(a) FROM Appointment a " +
+           "WHERE a.doctor IS NOT NULL AND a.patient IS NOT NULL " +
+           "GROUP BY a.doctor.drId, a.patient.pId ORDER BY a.doctor.drId, a.patient.pId")
+    List<Object[]> countGroupedByDoctorAndPatient();
+
+    // Stats cards: one grouped COUNT per doctor/patient instead of loading their appointments
+    String DAY_BUCKET = "CASE WHEN a.appointmentDate = CURRENT_DATE THEN 'TODAY' " +
+                        "WHEN a.appointmentDate > CURRENT_DATE THEN 'UPCOMING' ELSE 'PAST' END";
+
+    @Query("SELECT a.status AS status, " + DAY_BUCKET + " AS bucket, COUNT(a) AS total " +
+           "FROM Appointment a WHERE a.doctor.drId = :doctorId GROUP BY a.status, " + DAY_BUCKET)
+    List<AppointmentBucketCount> countByDoctorGroupedByStatusAndBucket(@Param("doctorId") Integer doctorId);
+
+    @Query("SELECT a.status AS status, " + DAY_BUCKET + " AS bucket, COUNT(a) AS total " +
+           "FROM Appointment a WHERE a.patient.pId = :patientId GROUP BY a.status, " + DAY_BUCKET)
+    List<AppointmentBucketCount> countByPatientGroupedByStatusAndBucket(@Param("patientId") Integer patientId);
+
+    // Active (non-cancelled) bookings from a date onwards, for the availability index
+    @Query("SELECT a.doctor.drId, a.appointmentDate, a.appointmentTime FROM Appointment a " +
+           "WHERE a.appointmentDate >= :from AND (a.status IS NULL OR UPPER(a.status) <> 'CANCELLED')")
+    List<Object[]> findActiveSlotsFrom(@Param("from") LocalDate from);
+
+    // Keyset pages ordered by apId; doctor and patient are fetched in the same query
+    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor LEFT JOIN FETCH a.patient " +
+           "WHERE a.apId > :afterId ORDER BY a.apId")
+    List<Appointment> findPageAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor LEFT JOIN FETCH a.patient " +
+           "WHERE a.status = :status AND a.apId > :afterId ORDER BY a.apId")
+    List<Appointment> findPageByStatusAfter(@Param("status") String status, @Param("afterId") Integer afterId,
+                                            Pageable pageable);
+
+    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor d LEFT JOIN FETCH a.patient " +
+           "WHERE d.drId = :doctorId AND a.apId > :afterId ORDER BY a.apId")
+    List<Appointment> findPageByDoctorAfter(@Param("doctorId") Integer doctorId, @Param("afterId") Integer afterId,
+                                            Pageable pageable);
+
+    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor d LEFT JOIN FETCH a.patient " +
+           "WHERE d.drId = :doctorId AND a.appointmentDate < CURRENT_DATE AND a.apId > :afterId ORDER BY a.apId")
+    List<Appointment> findPastPageByDoctorAfter(@Param("doctorId") Integer doctorId, @Param("afterId") Integer afterId,
+                                                Pageable pageable);
+
+    // Change feed: rows written after the (updatedAt, apId) position and no later than upTo,
+    // in write order. One range scan on idx_appointment_updated, or idx_appointment_patient_updated
+    // for a patient's feed.
+    String CHANGED_AFTER = "a.updatedAt >= :since AND a.updatedAt <= :upTo " +
+                           "AND (a.updatedAt > :since OR a.apId > :afterId) ORDER BY a.updatedAt, a.apId";
+
+    @EntityGraph(attributePaths = {"doctor", "patient"})
+    @Query("SELECT a FROM Appointment a WHERE " + CHANGED_AFTER)
+    List<Appointment> findChangedAfter(@Param("since") LocalDateTime since, @Param("afterId") Integer afterId,
+                                       @Param("upTo") LocalDateTime upTo, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"doctor", "patient"})
+    @Query("SELECT a FROM Appointment a WHERE a.patient.pId = :patientId AND " + CHANGED_AFTER)
+    List<Appointment> findChangedByPatientAfter(@Param("patientId") Integer patientId,
+                                                @Param("since") LocalDateTime since, @Param("afterId") Integer afterId,
+                                                @Param("upTo") LocalDateTime upTo, Pageable pageable);
+
+    // Forward-only exports: flat rows, read through a cursor with a fetch-size hint. Doctor
+    // exports join the doctor as an inner join (the filter rules out a missing doctor anyway)
+    // so the planner can go through idx_appointment_doctor instead of filtering a scan.
+    String EXPORT_COLUMNS = "SELECT new com.hospital.dto.AppointmentRow(a.apId, a.appointmentDate, a.appointmentTime, " +
+                            "a.descript, a.status, a.cancelConfirm, d.drId, d.name, p.pId, p.name) ";
+    String EXPORT_ROW = EXPORT_COLUMNS + "FROM Appointment a LEFT JOIN a.doctor d LEFT JOIN a.patient p ";
+    String EXPORT_ROW_BY_DOCTOR = EXPORT_COLUMNS + "FROM Appointment a JOIN a.doctor d LEFT JOIN a.patient p ";
+    String EXPORT_FETCH_SIZE = "500";
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(EXPORT_ROW + "ORDER BY a.apId")
+    Stream<AppointmentRow> streamAll();
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(EXPORT_ROW + "WHERE a.status = :status ORDER BY a.apId")
+    Stream<AppointmentRow> streamByStatus(@Param("status") String status);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(EXPORT_ROW_BY_DOCTOR + "WHERE d.drId = :doctorId ORDER BY a.apId")
+    Stream<AppointmentRow> streamByDoctor(@Param("doctorId") Integer doctorId);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(EXPORT_ROW_BY_DOCTOR + "WHERE d.drId = :doctorId AND a.appointmentDate < CURRENT_DATE ORDER BY a.apId")
+    Stream<AppointmentRow> streamPastByDoctor(@Param("doctorId") Integer doctorId);
 }
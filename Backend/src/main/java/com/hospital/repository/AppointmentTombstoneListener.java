@@ -0,0 +1,25 @@
+package com.hospital.repository;
+
+import com.hospital.entity.Appointment;
+import jakarta.persistence.PreRemove;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+// JPA entity listener on Appointment: every removal, including the ones cascaded from a doctor,
+// patient or specialization delete, leaves a tombstone in the same transaction. Hibernate gets
+// the instance from Spring, so the repository is injected.
+public class AppointmentTombstoneListener {
+
+    @Autowired
+    private AppointmentTombstoneRepository tombstoneRepository;
+
+    @PreRemove
+    public void removed(Appointment appointment) {
+        if (appointment.getApId() == null) return;
+        tombstoneRepository.recordDeleted(appointment.getApId(),
+                appointment.getPatient() != null ? appointment.getPatient().getpId() : null,
+                appointment.getDoctor() != null ? appointment.getDoctor().getDrId() : null,
+                LocalDateTime.now());
+    }
+}
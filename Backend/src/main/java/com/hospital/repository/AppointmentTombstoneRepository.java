@@ -0,0 +1,44 @@
+package com.hospital.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// appointment_tombstone: ids of deleted appointments for the delta-sync feed. Range reads go
+// through idx_tombstone_deleted, or idx_tombstone_patient_deleted for one patient.
+@Repository
+@Timed(value = "hospital.repository.jdbc", histogram = true)
+public class AppointmentTombstoneRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void recordDeleted(Integer apId, Integer patientId, Integer doctorId, LocalDateTime deletedAt) {
+        jdbcTemplate.update("INSERT IGNORE INTO appointment_tombstone (ap_id, patient_id, doctor_id, deleted_at) "
+                + "VALUES (?, ?, ?, ?)", apId, patientId, doctorId, Timestamp.valueOf(deletedAt));
+    }
+
+    // Ids deleted in (after, upTo], optionally only one patient's
+    public List<Integer> deletedBetween(LocalDateTime after, LocalDateTime upTo, Integer patientId) {
+        StringBuilder sql = new StringBuilder("SELECT ap_id FROM appointment_tombstone WHERE ");
+        List<Object> args = new ArrayList<>();
+        if (patientId != null) {
+            sql.append("patient_id = ? AND ");
+            args.add(patientId);
+        }
+        sql.append("deleted_at > ? AND deleted_at <= ? ORDER BY deleted_at, ap_id");
+        args.add(Timestamp.valueOf(after));
+        args.add(Timestamp.valueOf(upTo));
+        return jdbcTemplate.queryForList(sql.toString(), Integer.class, args.toArray());
+    }
+
+    public int purgeBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM appointment_tombstone WHERE deleted_at < ?", Timestamp.valueOf(cutoff));
+    }
+}
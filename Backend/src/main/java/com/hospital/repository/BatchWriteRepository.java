@@ -0,0 +1,195 @@
+package com.hospital.repository;
+
+import com.hospital.entity.Appointment;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Plain JDBC for the bulk endpoints. Entities with IDENTITY ids cannot be insert-batched by
+// Hibernate, so these statements go to the driver as real JDBC batches (on MySQL that needs
+// rewriteBatchedStatements=true). Callers own the transaction and the in-memory indexes.
+// Rows written here set updated_at themselves, as @UpdateTimestamp only covers Hibernate writes.
+@Repository
+@Timed(value = "hospital.repository.jdbc", histogram = true)
+public class BatchWriteRepository {
+
+    // Keeps IN lists well under driver and planner limits
+    private static final int MAX_IN_LIST = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Current state of an appointment as stored, for merging partial updates
+    public record StoredAppointment(Integer apId, Integer doctorId, Integer patientId, LocalDate appointmentDate,
+                                 LocalTime appointmentTime, String descript, String status, Integer cancelConfirm) {
+    }
+
+    public record NewPrescription(String medicine, String advice, String remark, String status, LocalDate date,
+                                  Integer doctorId, Integer patientId, Integer appointmentId) {
+    }
+
+    // Which of the given ids exist in table.column
+    public Set<Integer> existingIds(String table, String column, Collection<Integer> ids) {
+        Set<Integer> found = new HashSet<>();
+        for (List<Integer> chunk : chunks(ids)) {
+            found.addAll(jdbcTemplate.queryForList("SELECT " + column + " FROM " + table + " WHERE " + column
+                    + " IN (" + placeholders(chunk.size()) + ")", Integer.class, chunk.toArray()));
+        }
+        return found;
+    }
+
+    public Map<Integer, StoredAppointment> findAppointments(Collection<Integer> ids) {
+        Map<Integer, StoredAppointment> rows = new HashMap<>();
+        for (List<Integer> chunk : chunks(ids)) {
+            jdbcTemplate.query("SELECT ap_id, doctor_id, patient_id, appointment_date, appointment_time, descript, "
+                            + "status, cancel_confirm FROM appointment WHERE ap_id IN (" + placeholders(chunk.size()) + ")",
+                    rs -> {
+                        Date date = rs.getDate(4);
+                        Time time = rs.getTime(5);
+                        StoredAppointment row = new StoredAppointment(rs.getInt(1), rs.getObject(2, Integer.class),
+                                rs.getObject(3, Integer.class), date != null ? date.toLocalDate() : null,
+                                time != null ? time.toLocalTime() : null, rs.getString(6), rs.getString(7),
+                                rs.getObject(8, Integer.class));
+                        rows.put(row.apId(), row);
+                    },
+                    chunk.toArray());
+        }
+        return rows;
+    }
+
+    // (doctor, date, time) -> id of the appointment holding that slot, for the given doctors and dates
+    public Map<List<Object>, Integer> findSlotHolders(Collection<Integer> doctorIds, Collection<LocalDate> dates) {
+        Map<List<Object>, Integer> holders = new HashMap<>();
+        if (doctorIds.isEmpty() || dates.isEmpty()) return holders;
+        List<Object> dateArgs = new ArrayList<>();
+        dates.forEach(date -> dateArgs.add(Date.valueOf(date)));
+        for (List<Integer> chunk : chunks(doctorIds)) {
+            List<Object> args = new ArrayList<>(chunk);
+            args.addAll(dateArgs);
+            jdbcTemplate.query("SELECT ap_id, doctor_id, appointment_date, appointment_time FROM appointment "
+                            + "WHERE slot_hold = TRUE AND doctor_id IN (" + placeholders(chunk.size()) + ") "
+                            + "AND appointment_date IN (" + placeholders(dateArgs.size()) + ")",
+                    rs -> {
+                        holders.put(slotKey(rs.getInt(2), rs.getDate(3).toLocalDate(), rs.getTime(4).toLocalTime()),
+                                rs.getInt(1));
+                    },
+                    args.toArray());
+        }
+        return holders;
+    }
+
+    // Two passes so that appointments can trade slots within one batch: every row first lets go
+    // of its slot, then takes its new one; the unique index is checked per statement
+    public void updateAppointments(List<StoredAppointment> rows) {
+        if (rows.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("UPDATE appointment SET slot_hold = NULL WHERE ap_id = ?", rows, rows.size(),
+                (ps, row) -> ps.setInt(1, row.apId()));
+        jdbcTemplate.batchUpdate("UPDATE appointment SET doctor_id = ?, patient_id = ?, appointment_date = ?, "
+                        + "appointment_time = ?, descript = ?, status = ?, cancel_confirm = ?, slot_hold = ?, updated_at = ? WHERE ap_id = ?",
+                rows, rows.size(),
+                (ps, row) -> {
+                    setInt(ps, 1, row.doctorId());
+                    setInt(ps, 2, row.patientId());
+                    ps.setObject(3, row.appointmentDate() != null ? Date.valueOf(row.appointmentDate()) : null, Types.DATE);
+                    ps.setObject(4, row.appointmentTime() != null ? Time.valueOf(row.appointmentTime()) : null, Types.TIME);
+                    ps.setString(5, row.descript());
+                    ps.setString(6, row.status());
+                    setInt(ps, 7, row.cancelConfirm());
+                    if (holdsSlot(row.status())) ps.setBoolean(8, true);
+                    else ps.setNull(8, Types.BOOLEAN);
+                    ps.setTimestamp(9, now);
+                    ps.setInt(10, row.apId());
+                });
+    }
+
+    // Inserts in one JDBC batch and returns the generated ids in row order
+    public List<Integer> insertPrescriptions(List<NewPrescription> rows) {
+        if (rows.isEmpty()) return List.of();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        PreparedStatementCreator insert = connection -> connection.prepareStatement(
+                "INSERT INTO prescription (medicine, advice, remark, status, created_at, doctor_id, patient_id, p_id, "
+                        + "appointment_id, ap_id, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(insert, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                NewPrescription row = rows.get(i);
+                ps.setString(1, row.medicine());
+                ps.setString(2, row.advice());
+                ps.setString(3, row.remark());
+                ps.setString(4, row.status());
+                ps.setObject(5, row.date() != null ? Date.valueOf(row.date()) : null, Types.DATE);
+                setInt(ps, 6, row.doctorId());
+                setInt(ps, 7, row.patientId());
+                setInt(ps, 8, row.patientId());
+                setInt(ps, 9, row.appointmentId());
+                setInt(ps, 10, row.appointmentId());
+                ps.setTimestamp(11, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        }, keys);
+
+        List<Integer> ids = new ArrayList<>(rows.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            ids.add(((Number) key.values().iterator().next()).intValue());
+        }
+        return ids;
+    }
+
+    public static List<Object> slotKey(Integer doctorId, LocalDate date, LocalTime time) {
+        return List.of(doctorId, date, time);
+    }
+
+    // Same rule as Appointment.holdsSlot()
+    private static boolean holdsSlot(String status) {
+        return !Appointment.STATUS_CANCELLED.equalsIgnoreCase(status);
+    }
+
+    private static void setInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) ps.setInt(index, value);
+        else ps.setNull(index, Types.INTEGER);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> list = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += MAX_IN_LIST) {
+            chunks.add(list.subList(from, Math.min(from + MAX_IN_LIST, list.size())));
+        }
+        return chunks;
+    }
+}
@@ -1,7 +1,10 @@
 package com.hospital.repository;
 
 import com.hospital.entity.Doctor;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,7 +13,21 @@ import java.util.Optional;
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Integer> {
 
+    // Directory reads load the specialization up front so cached (detached) doctors still serialize it
+    @Override
+    @EntityGraph(attributePaths = "specialization")
+    List<Doctor> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "specialization")
+    Optional<Doctor> findById(Integer id);
+
+    @Override
+    @EntityGraph(attributePaths = "specialization")
+    List<Doctor> findAllById(Iterable<Integer> ids);
+
     // Find doctors by specialization ID (Specialization.id)
+    @EntityGraph(attributePaths = "specialization")
     List<Doctor> findBySpecializationId(Integer specializationId);
 
     // Search doctors by name (partial match, ignoring case)
@@ -18,4 +35,15 @@ public interface DoctorRepository extends JpaRepository<Doctor, Integer> {
 
     // Find doctor by email
     Optional<Doctor> findByEmail(String email);
+
+    // (drId, specialization id) pairs without loading Doctor entities
+    @Query("SELECT d.drId, s.id FROM Doctor d LEFT JOIN d.specialization s")
+    List<Object[]> findDoctorSpecializationIds();
+
+    // (drId, name) rows for DoctorSearchIndex
+    @Query("SELECT d.drId, d.name FROM Doctor d")
+    List<Object[]> findSearchFields();
+
+    @Query("SELECT d.name FROM Doctor d WHERE d.drId = :id")
+    Optional<String> findNameById(@Param("id") Integer id);
 }
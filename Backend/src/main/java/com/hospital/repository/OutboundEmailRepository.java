@@ -0,0 +1,39 @@
+package com.hospital.repository;
+
+import com.hospital.entity.OutboundEmail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    // Ids of pending messages whose next attempt is due, oldest first
+    @Query("SELECT e.id FROM OutboundEmail e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Claim a batch; rows another dispatcher claimed first are skipped by the status check
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = 'SENDING', e.claimToken = :token, e.claimedAt = :now " +
+           "WHERE e.id IN :ids AND e.status = 'PENDING'")
+    int claim(@Param("ids") List<Long> ids, @Param("token") String token, @Param("now") LocalDateTime now);
+
+    List<OutboundEmail> findByClaimToken(String claimToken);
+
+    // Return rows stuck in SENDING (dispatcher died mid-batch) to the queue
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboundEmail e SET e.status = 'PENDING', e.claimToken = NULL " +
+           "WHERE e.status = 'SENDING' AND e.claimedAt < :before")
+    int releaseStale(@Param("before") LocalDateTime before);
+
+    long countByStatus(String status);
+}
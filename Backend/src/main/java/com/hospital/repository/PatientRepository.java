@@ -2,6 +2,8 @@ package com.hospital.repository;
 
 import com.hospital.entity.Patient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -27,7 +29,11 @@ public interface PatientRepository extends JpaRepository<Patient, Integer> {
 
     // existsById is already provided by JpaRepository
 
-    // Find patients associated with a particular doctor
-    List<Patient> findDistinctByAppointmentsDoctorDrId(Integer doctorId);
+    @Query("SELECT p.email FROM Patient p WHERE p.pId = :id")
+    Optional<String> findEmailById(@Param("id") Integer id);
+
+    // (pId, name, email, contact, mobileNo) rows for PatientSearchIndex
+    @Query("SELECT p.pId, p.name, p.email, p.contact, p.mobileNo FROM Patient p")
+    List<Object[]> findSearchFields();
 
 }
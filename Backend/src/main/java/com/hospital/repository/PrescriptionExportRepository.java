@@ -0,0 +1,77 @@
+package com.hospital.repository;
+
+import com.hospital.dto.PrescriptionRow;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Prescription exports read through a forward-only, read-only JDBC cursor. With a fetch size
+// and useCursorFetch=true MySQL hands the rows over in fetch-size chunks, and each row is passed
+// to the sink as soon as it is read, so nothing is collected however many rows match.
+// Range filters go through idx_prescription_doctor_date or idx_prescription_date.
+@Repository
+@Timed(value = "hospital.repository.jdbc", histogram = true)
+public class PrescriptionExportRepository {
+
+    private static final String SELECT = "SELECT p.id, p.created_at, p.status, p.medicine, p.advice, p.remark, "
+            + "p.doctor_id, d.name, pt.p_id, pt.name, COALESCE(p.appointment_id, p.ap_id) "
+            + "FROM prescription p LEFT JOIN doctor d ON d.dr_id = p.doctor_id "
+            + "LEFT JOIN patient pt ON pt.p_id = COALESCE(p.patient_id, p.p_id) WHERE 1 = 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${hospital.export.fetch-size:500}")
+    private int fetchSize;
+
+    // Rows dated in [from, to] (either bound may be null) of one doctor or all, in date order
+    public void stream(LocalDate from, LocalDate to, Integer doctorId, Consumer<PrescriptionRow> sink) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>();
+        if (doctorId != null) {
+            sql.append(" AND p.doctor_id = ?");
+            args.add(doctorId);
+        }
+        if (from != null) {
+            sql.append(" AND p.created_at >= ?");
+            args.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND p.created_at <= ?");
+            args.add(Date.valueOf(to));
+        }
+        sql.append(" ORDER BY p.created_at, p.id");
+
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        };
+        jdbcTemplate.query(statement, rs -> {
+            sink.accept(row(rs));
+        });
+    }
+
+    private static PrescriptionRow row(ResultSet rs) throws SQLException {
+        Date date = rs.getDate(2);
+        return new PrescriptionRow(rs.getInt(1), date != null ? date.toLocalDate() : null, rs.getString(3),
+                rs.getString(4), rs.getString(5), rs.getString(6), rs.getObject(7, Integer.class),
+                rs.getString(8), rs.getObject(9, Integer.class), rs.getString(10), rs.getObject(11, Integer.class));
+    }
+}
@@ -1,26 +1,53 @@
 package com.hospital.repository;
 
 import com.hospital.entity.Prescription;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Integer> {
 
+    // Listings fetch doctor, patient and appointment in the same query, so building
+    // PrescriptionViews never lazy-loads per row
+    @Override
+    @EntityGraph(attributePaths = {"doctor", "patient", "appointment"})
+    List<Prescription> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"doctor", "patient", "appointment"})
+    Optional<Prescription> findById(Integer id);
+
     // Patient-based queries (Patient.pId)
-    @Query("SELECT p FROM Prescription p LEFT JOIN FETCH p.doctor d LEFT JOIN FETCH p.appointment a WHERE p.pId = :patientId")
+    @Query("SELECT p FROM Prescription p LEFT JOIN FETCH p.doctor d LEFT JOIN FETCH p.appointment a LEFT JOIN FETCH p.patient WHERE p.pId = :patientId")
     List<Prescription> findByPatientPId(@Param("patientId") Integer patientId);
 
-    // Find by patient ID with pagination
-    @Query("SELECT p FROM Prescription p LEFT JOIN FETCH p.doctor d LEFT JOIN FETCH p.appointment a WHERE p.pId = :patientId ORDER BY p.date DESC")
-    Page<Prescription> findByPatientPIdWithPagination(@Param("patientId") Integer patientId, Pageable pageable);
+    // Patient history in keyset pages, newest first by (created_at, id), so a page costs the
+    // same at any depth. Doctor, patient and appointment are many-to-one, so the LIMIT stays in
+    // SQL with them fetched; the offset Page query this replaces read and threw away every
+    // earlier row of the patient and ran a COUNT for each page.
+    // created_at is nullable: dated rows come first, then undated ones newest id first, each
+    // part its own keyset query so neither relies on how the database orders NULLs.
+    String PAGE_FETCH = "SELECT p FROM Prescription p LEFT JOIN FETCH p.doctor LEFT JOIN FETCH p.patient " +
+                        "LEFT JOIN FETCH p.appointment WHERE p.pId = :patientId ";
+
+    @Query(PAGE_FETCH + "AND p.date IS NOT NULL ORDER BY p.date DESC, p.id DESC")
+    List<Prescription> findPageByPatient(@Param("patientId") Integer patientId, Pageable pageable);
+
+    @Query(PAGE_FETCH + "AND (p.date < :date OR (p.date = :date AND p.id < :id)) ORDER BY p.date DESC, p.id DESC")
+    List<Prescription> findPageByPatientBefore(@Param("patientId") Integer patientId, @Param("date") LocalDate date,
+                                               @Param("id") Integer id, Pageable pageable);
+
+    @Query(PAGE_FETCH + "AND p.date IS NULL AND p.id < :id ORDER BY p.id DESC")
+    List<Prescription> findUndatedPageByPatientBefore(@Param("patientId") Integer patientId, @Param("id") Integer id,
+                                                      Pageable pageable);
 
     // Additional queries for availability checking
     @Query("SELECT p FROM Prescription p WHERE p.doctor.drId = :doctorId AND p.date = :date")
@@ -30,16 +57,31 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Inte
     @Query("SELECT p FROM Prescription p LEFT JOIN FETCH p.doctor d WHERE p.apId = :appointmentId")
     List<Prescription> findByAppointmentIdWithDoctor(@Param("appointmentId") Integer appointmentId);
 
-    // Find prescriptions by doctor (via appointment)
-    @Query("SELECT p FROM Prescription p WHERE p.appointment.doctor.drId = :doctorId")
-    List<Prescription> findByDoctorDrId(Integer doctorId);
+    // Find prescriptions by doctor (via appointment). The matching appointments are picked
+    // from the appointment indexes first and prescriptions joined on appointment_id; filtering
+    // through the fetch join would read every prescription.
+    @EntityGraph(attributePaths = {"doctor", "patient", "appointment"})
+    @Query("SELECT p FROM Prescription p WHERE p.appointment.apId IN " +
+           "(SELECT a.apId FROM Appointment a WHERE a.doctor.drId = :doctorId)")
+    List<Prescription> findByDoctorDrId(@Param("doctorId") Integer doctorId);
 
-    // Find prescriptions by appointment
-    List<Prescription> findByAppointmentApId(Integer appointmentId);
+    // Find prescriptions by appointment (appointment_id column, no join needed for the filter)
+    @EntityGraph(attributePaths = {"doctor", "patient", "appointment"})
+    @Query("SELECT p FROM Prescription p WHERE p.appointment.apId = :appointmentId")
+    List<Prescription> findByAppointmentApId(@Param("appointmentId") Integer appointmentId);
 
     // Find prescriptions by appointment date
-    @Query("SELECT p FROM Prescription p WHERE p.appointment.appointmentDate = :date")
-    List<Prescription> findByDate(LocalDate date);  // <-- method name aligned with service
+    @EntityGraph(attributePaths = {"doctor", "patient", "appointment"})
+    @Query("SELECT p FROM Prescription p WHERE p.appointment.apId IN " +
+           "(SELECT a.apId FROM Appointment a WHERE a.appointmentDate = :date)")
+    List<Prescription> findByDate(@Param("date") LocalDate date);  // <-- method name aligned with service
+
+    // Counts for the stats cards
+    @Query("SELECT COUNT(p) FROM Prescription p WHERE p.pId = :patientId")
+    long countByPatientPId(@Param("patientId") Integer patientId);
+
+    @Query("SELECT COUNT(p) FROM Prescription p WHERE p.appointment.doctor.drId = :doctorId")
+    long countByDoctorDrId(@Param("doctorId") Integer doctorId);
 
     // existsById is already provided by JpaRepository
 }
@@ -0,0 +1,30 @@
+package com.hospital.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Local stand-in for a shared revocation store (e.g. Redis). Several TokenRevocationStore
+// instances pointed at the same backend behave like nodes sharing revocations.
+public class InMemoryRevocationBackend implements RevocationBackend {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, Revocation> log = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void publish(String tokenId, long expiresAtMillis) {
+        long seq = sequence.incrementAndGet();
+        log.put(seq, new Revocation(seq, tokenId, expiresAtMillis));
+    }
+
+    @Override
+    public List<Revocation> fetchSince(long sequence) {
+        return new ArrayList<>(log.tailMap(sequence, false).values());
+    }
+
+    @Override
+    public void purgeExpired(long nowMillis) {
+        log.values().removeIf(r -> r.expiresAtMillis() <= nowMillis);
+    }
+}
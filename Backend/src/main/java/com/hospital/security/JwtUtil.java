@@ -1,13 +1,31 @@
 package com.hospital.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -16,9 +34,39 @@ public class JwtUtil {
     private final Key SECRET_KEY = Keys.hmacShaKeyFor("yourStrongSecretKey12345yourStrongSecretKey".getBytes());
     private final long EXPIRATION_MS = 1000 * 60 * 60 * 10; // 10 hours
 
+    // Parsers are immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(SECRET_KEY).build();
+
+    // Verified claims keyed by token digest; an entry never outlives its token's expiry
+    private final Cache<String, Claims> verifiedClaims;
+
+    // Time to get verified claims for a token, split by whether the signature check was cached
+    private final Timer cachedVerify;
+    private final Timer signatureVerify;
+
+    @Autowired
+    public JwtUtil(@Value("${hospital.jwt.cache.max-size:10000}") long cacheMaxSize,
+                   @Value("${hospital.jwt.cache.ttl:PT5M}") Duration cacheTtl,
+                   MeterRegistry meterRegistry) {
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new ClaimsExpiry(cacheTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedClaims, "jwtClaims");
+        this.cachedVerify = verifyTimer(meterRegistry, "hit");
+        this.signatureVerify = verifyTimer(meterRegistry, "miss");
+    }
+
+    // Standalone use (benchmarks): metrics go to a private registry
+    public JwtUtil(long cacheMaxSize, Duration cacheTtl) {
+        this(cacheMaxSize, cacheTtl, new SimpleMeterRegistry());
+    }
+
     // Generate JWT token
     public String generateToken(String email, String role) {
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .claim("role", role)
                 .setIssuedAt(new Date())
@@ -27,13 +75,32 @@ public class JwtUtil {
                 .compact();
     }
 
-    // Extract claims from token
+    // Extract claims from token (signature is verified once per cache window)
     public Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        long start = System.nanoTime();
+        String key = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(key);
+        if (claims != null) {
+            cachedVerify.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        }
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } finally {
+            signatureVerify.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        verifiedClaims.put(key, claims);
+        return claims;
+    }
+
+    // Verified, unexpired claims, or null if the token is malformed, forged or expired
+    public Claims verify(String token) {
+        try {
+            Claims claims = extractClaims(token);
+            return isExpired(claims) ? null : claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
     }
 
     // Extract email from token
@@ -43,12 +110,59 @@ public class JwtUtil {
 
     // Validate token
     public boolean validateToken(String token, String email) {
-        final String extractedEmail = extractEmail(token);
-        return extractedEmail.equals(email) && !isTokenExpired(token);
+        Claims claims = extractClaims(token);
+        return claims.getSubject().equals(email) && !isExpired(claims);
+    }
+
+    // Revocation key: the jti claim, or the token digest for tokens issued without one
+    public String tokenId(String token, Claims claims) {
+        return claims.getId() != null ? claims.getId() : digest(token);
     }
 
     // Check if token expired
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token).getExpiration().before(new Date());
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String cache) {
+        return Timer.builder("hospital.auth.jwt.verify")
+                .description("Time to verify a bearer token")
+                .tag("cache", cache)
+                .register(meterRegistry);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Cache for the configured TTL, but never past the token's own expiration
+    private static final class ClaimsExpiry implements Expiry<String, Claims> {
+
+        private final long ttlNanos;
+
+        ClaimsExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long untilExpiry = Duration.ofMillis(claims.getExpiration().getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0, Math.min(ttlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,83 @@
+package com.hospital.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token buckets per client IP and per account email for the login endpoints, so one client
+// (or a credential-stuffing run against one account) cannot queue up BCrypt work for everyone
+// else. Each bucket is a single long, the time its next token is due (the GCRA form of a token
+// bucket): a request is let through while that time is at most `burst - 1` refill intervals
+// ahead of now, and pushes it one interval further. Idle buckets expire from the cache.
+// The IP is the servlet remote address; behind a proxy it only identifies the caller once
+// forwarded headers are enabled (application.properties).
+@Component
+public class LoginThrottle {
+
+    private final Bucket perIp;
+    private final Bucket perEmail;
+    private final Counter throttled;
+
+    public LoginThrottle(@Value("${hospital.auth.throttle.ip.burst:30}") int ipBurst,
+                         @Value("${hospital.auth.throttle.ip.refill:PT1S}") Duration ipRefill,
+                         @Value("${hospital.auth.throttle.email.burst:10}") int emailBurst,
+                         @Value("${hospital.auth.throttle.email.refill:PT6S}") Duration emailRefill,
+                         @Value("${hospital.auth.throttle.max-keys:100000}") long maxKeys,
+                         MeterRegistry meterRegistry) {
+        this.perIp = new Bucket(ipBurst, ipRefill, maxKeys);
+        this.perEmail = new Bucket(emailBurst, emailRefill, maxKeys);
+        this.throttled = Counter.builder("hospital.auth.throttled")
+                .description("Login attempts refused by the per-IP or per-email rate limit")
+                .register(meterRegistry);
+    }
+
+    // Takes a token from both buckets, or throws TooManyRequestsException if either is empty
+    public void acquire(String clientIp, String email) {
+        long now = System.nanoTime();
+        long waitNanos = perIp.take(clientIp, now);
+        if (waitNanos == 0 && email != null) {
+            waitNanos = perEmail.take(email.trim().toLowerCase(Locale.ROOT), now);
+        }
+        if (waitNanos > 0) {
+            throttled.increment();
+            long retryAfter = Math.max(1, Duration.ofNanos(waitNanos).toSeconds() + 1);
+            throw new TooManyRequestsException("Too many sign-in attempts, please try again later", retryAfter);
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Cache<String, AtomicLong> nextDue;
+
+        Bucket(int burst, Duration refill, long maxKeys) {
+            this.intervalNanos = refill.toNanos();
+            this.toleranceNanos = intervalNanos * (burst - 1);
+            // A bucket left alone this long is full again, so forgetting it changes nothing
+            this.nextDue = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(refill.multipliedBy(burst))
+                    .build();
+        }
+
+        // 0 if a token was taken, otherwise how long until the next one
+        long take(String key, long now) {
+            AtomicLong due = nextDue.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = due.get();
+                long start = Math.max(current, now);
+                long ahead = start - now;
+                if (ahead > toleranceNanos) return ahead - toleranceNanos;
+                if (due.compareAndSet(current, start + intervalNanos)) return 0;
+            }
+        }
+    }
+}
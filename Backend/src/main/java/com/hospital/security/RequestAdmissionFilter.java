@@ -0,0 +1,68 @@
+package com.hospital.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Caps the number of requests being handled at once. With platform threads Tomcat's pool did
+// this implicitly; with virtual threads every accepted connection gets its own thread, and
+// without a cap thousands of them would queue on the Hikari pool until they time out. Requests
+// over the limit wait briefly for a permit and are then refused with 503 + Retry-After.
+@Component
+// Runs just inside SampledRequestLogFilter, so refused requests are still counted and sampled
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestAdmissionFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long queueTimeoutMillis;
+
+    public RequestAdmissionFilter(@Value("${hospital.http.max-in-flight:200}") int maxInFlight,
+                                  @Value("${hospital.http.admission-timeout-ms:500}") long queueTimeoutMillis) {
+        this.permits = new Semaphore(maxInFlight, true);
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Health checks must answer even when the server is saturated
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator/health");
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,17 @@
+package com.hospital.security;
+
+import java.util.List;
+
+// Shared store of revoked token IDs. Every backend node publishes its logouts here and
+// periodically pulls the ones it has not seen yet, ordered by a backend-assigned sequence.
+public interface RevocationBackend {
+
+    void publish(String tokenId, long expiresAtMillis);
+
+    List<Revocation> fetchSince(long sequence);
+
+    void purgeExpired(long nowMillis);
+
+    record Revocation(long sequence, String tokenId, long expiresAtMillis) {
+    }
+}
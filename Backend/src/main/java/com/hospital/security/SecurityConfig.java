@@ -1,23 +1,42 @@
 package com.hospital.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @Configuration
 public class SecurityConfig {
 
+    // Hashes at the configured cost on a bounded pool; stored hashes below that cost are
+    // re-hashed on the next successful login (upgradeEncoding). threads=0 uses half the cores.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${hospital.auth.bcrypt-strength:10}") int strength,
+                                           @Value("${hospital.auth.hashing.threads:0}") int threads,
+                                           @Value("${hospital.auth.hashing.queue-capacity:32}") int queueCapacity,
+                                           @Value("${hospital.auth.hashing.max-wait:PT3S}") Duration maxWait) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        PasswordEncoder timed = new TimedPasswordEncoder(new BCryptPasswordEncoder(strength), meterRegistry);
+        return new BoundedPasswordEncoder(timed, poolSize, queueCapacity, maxWait, meterRegistry);
+    }
+
+    // Local stand-in; define a shared RevocationBackend instead to share logouts across nodes
+    @Bean
+    public RevocationBackend revocationBackend() {
+        return new InMemoryRevocationBackend();
     }
 
     @Bean
@@ -33,8 +52,20 @@ public class SecurityConfig {
         return source;
     }
 
+    // As a @Component it would also be picked up as a plain servlet filter and run a second
+    // time on every request; it belongs only in the security chain below
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(
+            JwtAuthenticationFilter jwtAuthenticationFilter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter,
+                                           @Value("${management.server.port:-1}") int managementPort) throws Exception {
         http.csrf(csrf -> csrf.disable())
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .authorizeHttpRequests(auth -> auth
@@ -48,8 +79,16 @@ public class SecurityConfig {
                 .requestMatchers("/api/prescriptions/**").authenticated()
                 .requestMatchers("/api/analytics/**").authenticated()
                 .requestMatchers("/api/admins/**").authenticated()
+                .requestMatchers("/actuator/health").permitAll()
+                // The scraper reaches the management port, bound to loopback only (application.properties)
+                .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort
+                        && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                .requestMatchers("/actuator/**").authenticated()
                 .anyRequest().permitAll()
-            );
+            )
+            // Registered as a plain servlet filter it would run after the security chain,
+            // so bearer tokens were never seen by the authenticated() rules above
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
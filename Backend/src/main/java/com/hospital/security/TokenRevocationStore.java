@@ -0,0 +1,95 @@
+package com.hospital.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Revoked token IDs (jti) with their expiry. Lookups are lock-free: a Bloom filter answers the
+// common "not revoked" case, and only filter hits consult the exact map. Entries are dropped once
+// the token would have expired anyway, and the filter is rebuilt to match.
+@Component
+public class TokenRevocationStore {
+
+    private final RevocationBackend backend;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    private volatile long syncedSequence;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public TokenRevocationStore(RevocationBackend backend,
+                                @Value("${hospital.jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+                                @Value("${hospital.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.backend = backend;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    // Writers are serialized with rebuilds so an add can never land in a filter being replaced
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) return;
+        lock.lock();
+        try {
+            remember(tokenId, expiresAtMillis);
+            backend.publish(tokenId, expiresAtMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) return false;
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // Pull revocations published by other nodes
+    @Scheduled(fixedDelayString = "${hospital.jwt.revocation.sync-interval:5000}")
+    public void sync() {
+        lock.lock();
+        try {
+            for (RevocationBackend.Revocation revocation : backend.fetchSince(syncedSequence)) {
+                if (revocation.expiresAtMillis() > System.currentTimeMillis()) {
+                    remember(revocation.tokenId(), revocation.expiresAtMillis());
+                }
+                syncedSequence = Math.max(syncedSequence, revocation.sequence());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Evict revocations for tokens that have expired and rebuild the filter without them
+    @Scheduled(fixedDelayString = "${hospital.jwt.revocation.sweep-interval:60000}")
+    public void sweep() {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2L), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::add);
+            filter = rebuilt;
+
+            backend.purgeExpired(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remember(String tokenId, long expiresAtMillis) {
+        revoked.merge(tokenId, expiresAtMillis, Math::max);
+        filter.add(tokenId);
+    }
+}
@@ -0,0 +1,22 @@
+package com.hospital.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Thrown when a login or password hash is refused to protect the server: the caller's
+// login budget is spent (LoginThrottle) or the hashing pool is full (BoundedPasswordEncoder).
+// retryAfterSeconds goes out as the Retry-After header.
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
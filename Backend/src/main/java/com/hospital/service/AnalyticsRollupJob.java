@@ -0,0 +1,102 @@
+package com.hospital.service;
+
+import com.hospital.repository.AnalyticsRollupRepository;
+import com.hospital.repository.AnalyticsRollupRepository.Fact;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Keeps the daily rollup tables behind the analytics trend endpoints up to date. Each run
+// rebuilds only the days touched since the last watermark: days of rows whose updated_at is
+// newer, plus days the write paths marked dirty (deletes, rows moved to another day). A day
+// is rebuilt whole from the raw rows, so the watermark can overlap the previous run to catch
+// transactions that committed late without double counting anything.
+@Component
+public class AnalyticsRollupJob {
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${hospital.analytics.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hospital.analytics.rollup.overlap:PT2M}")
+    private Duration overlap;
+
+    // Days rebuilt per transaction
+    @Value("${hospital.analytics.rollup.days-per-transaction:31}")
+    private int daysPerTransaction;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private Timer runTimer;
+
+    @PostConstruct
+    void registerMeters() {
+        runTimer = Timer.builder("hospital.analytics.rollup")
+                .description("Time per incremental rollup run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${hospital.analytics.rollup.interval:300000}")
+    public void scheduledRefresh() {
+        if (enabled) refresh();
+    }
+
+    // Brings both rollups up to date; returns the number of days rebuilt, or -1 when a run
+    // is already in progress
+    public int refresh() {
+        if (!running.tryLock()) return -1;
+        try {
+            return runTimer.record(() -> refresh(Fact.APPOINTMENT) + refresh(Fact.PRESCRIPTION));
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private int refresh(Fact fact) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime watermark = rollupRepository.watermark(fact);
+
+        TreeSet<LocalDate> days = new TreeSet<>(rollupRepository.dirtyDays(fact));
+        days.addAll(watermark == null
+                ? rollupRepository.allDays(fact)
+                : rollupRepository.daysChangedSince(fact, watermark.minus(overlap)));
+
+        List<LocalDate> chunk = new ArrayList<>(daysPerTransaction);
+        for (LocalDate day : days) {
+            chunk.add(day);
+            if (chunk.size() == daysPerTransaction) {
+                rebuild(fact, chunk);
+                chunk.clear();
+            }
+        }
+        rebuild(fact, chunk);
+
+        rollupRepository.saveWatermark(fact, startedAt);
+        return days.size();
+    }
+
+    private void rebuild(Fact fact, List<LocalDate> days) {
+        if (days.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(status -> rollupRepository.rebuildDays(fact, days));
+    }
+}
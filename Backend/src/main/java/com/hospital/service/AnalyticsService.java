@@ -1,10 +1,19 @@
 package com.hospital.service;
 
+import com.hospital.dto.DoctorStats;
+import com.hospital.dto.PatientStats;
+import com.hospital.dto.TrendSeries;
+
+import java.time.LocalDate;
 import java.util.Map;
 
 public interface AnalyticsService {
     Map<String, Object> getDashboardStats();
-    Map<String, Object> getPatientStats(Integer patientId);
-    Map<String, Object> getDoctorStats(Integer doctorId);
+    PatientStats getPatientStats(Integer patientId);
+    DoctorStats getDoctorStats(Integer doctorId);
     Map<String, Object> getAdminStats();
+
+    // Daily trends read from the rollup tables only; null filters are ignored
+    TrendSeries getAppointmentTrend(LocalDate from, LocalDate to, Integer doctorId, Integer specializationId, String status);
+    TrendSeries getPrescriptionTrend(LocalDate from, LocalDate to, Integer doctorId);
 }
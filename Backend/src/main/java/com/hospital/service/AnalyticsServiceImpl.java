@@ -1,11 +1,21 @@
 package com.hospital.service;
 
+import com.hospital.datasource.ReplicaRead;
+import com.hospital.dto.DoctorStats;
+import com.hospital.dto.PatientStats;
+import com.hospital.dto.TrendSeries;
+import com.hospital.index.AppointmentCounters;
 import com.hospital.repository.*;
+import com.hospital.repository.AnalyticsRollupRepository.Fact;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -26,77 +36,126 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     @Autowired
     private SpecializationRepository specializationRepository;
 
+    @Autowired
+    private AppointmentCounters appointmentCounters;
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Value("${hospital.analytics.trend.max-days:3660}")
+    private int maxTrendDays;
+
     @Override
+    @ReplicaRead
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
         
         // Basic counts
         stats.put("totalPatients", patientRepository.count());
         stats.put("totalDoctors", doctorRepository.count());
-        stats.put("totalAppointments", appointmentRepository.count());
+        stats.put("totalAppointments", appointmentCounters.total());
         stats.put("totalPrescriptions", prescriptionRepository.count());
         stats.put("totalSpecializations", specializationRepository.count());
         
         // Today's appointments
-        stats.put("todayAppointments", appointmentRepository.findByAppointmentDate(LocalDate.now()).size());
+        stats.put("todayAppointments", appointmentCounters.countByDate(LocalDate.now()));
         
         // Pending appointments
-        stats.put("pendingAppointments", appointmentRepository.findByStatus("PENDING").size());
+        stats.put("pendingAppointments", appointmentCounters.countByStatus("PENDING"));
         
         return stats;
     }
 
     @Override
-    public Map<String, Object> getPatientStats(Integer patientId) {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // Patient's appointments
-        stats.put("totalAppointments", appointmentRepository.findByPatientPId(patientId).size());
-        stats.put("pendingAppointments", appointmentRepository.findByPatientPId(patientId)
-            .stream().filter(a -> "PENDING".equals(a.getStatus())).count());
-        
-        // Patient's prescriptions
-        stats.put("totalPrescriptions", prescriptionRepository.findByPatientPId(patientId).size());
-        
-        return stats;
+    @ReplicaRead
+    public PatientStats getPatientStats(Integer patientId) {
+        long total = 0;
+        long pending = 0;
+        for (AppointmentBucketCount row : appointmentRepository.countByPatientGroupedByStatusAndBucket(patientId)) {
+            total += row.getTotal();
+            if ("PENDING".equals(row.getStatus())) pending += row.getTotal();
+        }
+
+        return new PatientStats(total, pending, prescriptionRepository.countByPatientPId(patientId));
     }
 
     @Override
-    public Map<String, Object> getDoctorStats(Integer doctorId) {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // Doctor's appointments
-        stats.put("totalAppointments", appointmentRepository.findByDoctorDrId(doctorId).size());
-        stats.put("todayAppointments", appointmentRepository.findTodayAppointments(doctorId).size());
-        stats.put("upcomingAppointments", appointmentRepository.findUpcomingAppointments(doctorId).size());
-        stats.put("pendingAppointments", appointmentRepository.findByDoctorDrId(doctorId)
-            .stream().filter(a -> "PENDING".equals(a.getStatus())).count());
-        
-        // Doctor's prescriptions
-        stats.put("totalPrescriptions", prescriptionRepository.findByDoctorDrId(doctorId).size());
-        
-        return stats;
+    @ReplicaRead
+    public DoctorStats getDoctorStats(Integer doctorId) {
+        long total = 0;
+        long today = 0;
+        long upcoming = 0;
+        long pending = 0;
+        for (AppointmentBucketCount row : appointmentRepository.countByDoctorGroupedByStatusAndBucket(doctorId)) {
+            total += row.getTotal();
+            if ("TODAY".equals(row.getBucket())) today += row.getTotal();
+            if ("UPCOMING".equals(row.getBucket())) upcoming += row.getTotal();
+            if ("PENDING".equals(row.getStatus())) pending += row.getTotal();
+        }
+
+        return new DoctorStats(total, today, upcoming, pending, prescriptionRepository.countByDoctorDrId(doctorId));
     }
 
     @Override
+    @ReplicaRead
     public Map<String, Object> getAdminStats() {
         Map<String, Object> stats = new HashMap<>();
         
         // System-wide statistics
         stats.put("totalPatients", patientRepository.count());
         stats.put("totalDoctors", doctorRepository.count());
-        stats.put("totalAppointments", appointmentRepository.count());
+        stats.put("totalAppointments", appointmentCounters.total());
         stats.put("totalPrescriptions", prescriptionRepository.count());
         stats.put("totalSpecializations", specializationRepository.count());
         
         // Status breakdowns
-        stats.put("pendingAppointments", appointmentRepository.findByStatus("PENDING").size());
-        stats.put("confirmedAppointments", appointmentRepository.findByStatus("CONFIRMED").size());
-        stats.put("completedAppointments", appointmentRepository.findByStatus("COMPLETED").size());
+        stats.put("pendingAppointments", appointmentCounters.countByStatus("PENDING"));
+        stats.put("confirmedAppointments", appointmentCounters.countByStatus("CONFIRMED"));
+        stats.put("completedAppointments", appointmentCounters.countByStatus("COMPLETED"));
         
         // Today's activity
-        stats.put("todayAppointments", appointmentRepository.findByAppointmentDate(LocalDate.now()).size());
+        stats.put("todayAppointments", appointmentCounters.countByDate(LocalDate.now()));
         
         return stats;
     }
+
+    @Override
+    @ReplicaRead
+    public TrendSeries getAppointmentTrend(LocalDate from, LocalDate to, Integer doctorId,
+                                           Integer specializationId, String status) {
+        checkRange(from, to);
+        return series(from, to, Fact.APPOINTMENT,
+                rollupRepository.appointmentTotals(from, to, doctorId, specializationId, status));
+    }
+
+    @Override
+    @ReplicaRead
+    public TrendSeries getPrescriptionTrend(LocalDate from, LocalDate to, Integer doctorId) {
+        checkRange(from, to);
+        return series(from, to, Fact.PRESCRIPTION, rollupRepository.prescriptionTotals(from, to, doctorId));
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxTrendDays) {
+            throw new IllegalArgumentException("Range is limited to " + maxTrendDays + " days");
+        }
+    }
+
+    // One point per day, zero where the rollup has no rows
+    private TrendSeries series(LocalDate from, LocalDate to, Fact fact, Map<LocalDate, Long> totals) {
+        List<TrendSeries.Point> points = new ArrayList<>();
+        long total = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            long count = totals.getOrDefault(day, 0L);
+            points.add(new TrendSeries.Point(day, count));
+            total += count;
+        }
+        return new TrendSeries(from, to, rollupRepository.watermark(fact), total, points);
+    }
 }
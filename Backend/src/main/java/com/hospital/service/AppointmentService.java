@@ -1,20 +1,34 @@
 package com.hospital.service;
 
+import com.hospital.dto.AppointmentRow;
+import com.hospital.dto.BatchResult;
+import com.hospital.dto.CursorPage;
+import com.hospital.dto.FreeSlot;
 import com.hospital.entity.Appointment;
 import com.hospital.entity.Patient;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AppointmentService {
 
     Appointment createAppointment(Appointment appointment);
 
+    // Atomically books a free slot; throws SlotUnavailableException if it is already taken
+    Appointment bookSlot(Integer doctorId, LocalDate date, LocalTime time, Integer patientId, String descript);
+
     List<Appointment> getAllAppointments();
 
     Optional<Appointment> getAppointmentById(Integer id);
 
     Appointment updateAppointment(Appointment appointment);
 
+    // Bulk reschedule/update by apId. Only fields present in an item are changed. Items are
+    // checked against each other and the stored slots, then written in chunked JDBC batches.
+    BatchResult updateAppointments(List<Appointment> appointments);
+
     void deleteAppointment(Integer id);
 
     List<Appointment> getAppointmentsByDoctor(Integer doctorId);
@@ -35,7 +49,30 @@ public interface AppointmentService {
 
     boolean checkAvailability(Integer doctorId, String date, String time);
 
+    // Free 15-minute slots from the in-memory availability index
+    List<FreeSlot> getFreeSlots(Integer doctorId, LocalDate from, LocalDate to);
+
+    List<FreeSlot> getFirstFreeSlots(Integer specializationId, LocalDate from, int limit);
+
     List<Appointment> getAppointmentsByDoctorAndDate(Integer doctorId, String date);
 
     List<Patient> getPatientsByDoctorId(Integer doctorId);
+
+    // Keyset-paginated variants of the list endpoints (cursor = null for the first page)
+    CursorPage<Appointment> getAppointmentsPage(String cursor, int limit);
+
+    CursorPage<Appointment> getAppointmentsByStatusPage(String status, String cursor, int limit);
+
+    CursorPage<Appointment> getAppointmentsByDoctorPage(Integer doctorId, String cursor, int limit);
+
+    CursorPage<Appointment> getPastAppointmentsPage(Integer doctorId, String cursor, int limit);
+
+    // Streaming exports: rows are handed to the sink one at a time while the cursor is open
+    void exportAppointments(Consumer<AppointmentRow> sink);
+
+    void exportAppointmentsByStatus(String status, Consumer<AppointmentRow> sink);
+
+    void exportAppointmentsByDoctor(Integer doctorId, Consumer<AppointmentRow> sink);
+
+    void exportPastAppointments(Integer doctorId, Consumer<AppointmentRow> sink);
 }
@@ -1,70 +1,341 @@
 package com.hospital.service;
 
+import com.hospital.datasource.ReplicaRead;
+import com.hospital.dto.AppointmentRow;
+import com.hospital.dto.BatchResult;
+import com.hospital.dto.CursorPage;
+import com.hospital.dto.FreeSlot;
 import com.hospital.entity.Appointment;
+import com.hospital.entity.Patient;
+import com.hospital.index.AppointmentIndexes;
+import com.hospital.index.AppointmentSnapshot;
+import com.hospital.index.AvailabilityIndex;
 import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.BatchWriteRepository;
+import com.hospital.repository.BatchWriteRepository.StoredAppointment;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.util.CursorCodec;
+import com.hospital.util.StripedLocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
-import com.hospital.entity.Patient;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class AppointmentServiceImpl implements AppointmentService {
 
+    private static final Logger log = LoggerFactory.getLogger(AppointmentServiceImpl.class);
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Bookings serialize per (doctor, date); different doctors almost never share a stripe
+    private final StripedLocks slotLocks = new StripedLocks(1024);
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentIndexes appointmentIndexes;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${hospital.mail.appointment-confirmation.enabled:true}")
+    private boolean sendConfirmations;
+
+    @Autowired
+    private BatchWriteRepository batchWriteRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${hospital.batch.chunk-size:500}")
+    private int batchChunkSize;
+
+    @Value("${hospital.batch.max-items:10000}")
+    private int batchMaxItems;
+
     @Override
     public Appointment createAppointment(Appointment appointment) {
-        return appointmentRepository.save(appointment);
+        Appointment created = withSlotLock(appointment, () -> {
+            ensureSlotFree(appointment);
+            Appointment saved = saveSlot(appointment);
+            afterSave(null, saved);
+            return saved;
+        });
+        queueConfirmation(created);
+        return created;
     }
 
     @Override
+    public Appointment bookSlot(Integer doctorId, LocalDate date, LocalTime time, Integer patientId, String descript) {
+        if (doctorId == null || !doctorRepository.existsById(doctorId)) {
+            throw new IllegalArgumentException("Doctor not found with id: " + doctorId);
+        }
+        if (patientId == null || !patientRepository.existsById(patientId)) {
+            throw new IllegalArgumentException("Patient not found with id: " + patientId);
+        }
+        if (date == null || time == null) {
+            throw new IllegalArgumentException("Appointment date and time are required");
+        }
+
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctorRepository.getReferenceById(doctorId));
+        appointment.setPatient(patientRepository.getReferenceById(patientId));
+        appointment.setAppointmentDate(date);
+        appointment.setAppointmentTime(time);
+        appointment.setDescript(descript);
+        return createAppointment(appointment);
+    }
+
+    @Override
+    @ReplicaRead
     public List<Appointment> getAllAppointments() {
         return appointmentRepository.findAll();
     }
 
     @Override
+    @ReplicaRead
     public Optional<Appointment> getAppointmentById(Integer id) {
         return appointmentRepository.findById(id);
     }
 
     @Override
     public Appointment updateAppointment(Appointment appointment) {
-        return appointmentRepository.save(appointment);
+        return withSlotLock(appointment, () -> {
+            AppointmentSnapshot before = snapshotOf(appointment.getApId());
+            ensureSlotFree(appointment);
+            Appointment saved = saveSlot(appointment);
+            afterSave(before, saved);
+            return saved;
+        });
+    }
+
+    @Override
+    public BatchResult updateAppointments(List<Appointment> appointments) {
+        if (appointments.size() > batchMaxItems) {
+            throw new IllegalArgumentException("At most " + batchMaxItems + " appointments per batch");
+        }
+        BatchResult.Item[] results = new BatchResult.Item[appointments.size()];
+        Set<Integer> ids = new HashSet<>();
+        Set<Integer> referencedDoctors = new HashSet<>();
+        Set<Integer> referencedPatients = new HashSet<>();
+        for (Appointment a : appointments) {
+            if (a.getApId() != null) ids.add(a.getApId());
+            if (a.getDoctor() != null && a.getDoctor().getDrId() != null) referencedDoctors.add(a.getDoctor().getDrId());
+            if (a.getPatient() != null && a.getPatient().getpId() != null) referencedPatients.add(a.getPatient().getpId());
+        }
+        Map<Integer, StoredAppointment> current = batchWriteRepository.findAppointments(ids);
+        Set<Integer> doctors = batchWriteRepository.existingIds("doctor", "dr_id", referencedDoctors);
+        Set<Integer> patients = batchWriteRepository.existingIds("patient", "p_id", referencedPatients);
+
+        List<Change> changes = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < appointments.size(); i++) {
+            Appointment a = appointments.get(i);
+            Integer id = a.getApId();
+            StoredAppointment before = id != null ? current.get(id) : null;
+            String error = id == null ? "apId is required"
+                    : before == null ? "Appointment not found with id: " + id
+                    : !seen.add(id) ? "Appointment " + id + " appears more than once in the batch"
+                    : a.getDoctor() != null && !doctors.contains(a.getDoctor().getDrId())
+                            ? "Doctor not found with id: " + a.getDoctor().getDrId()
+                    : a.getPatient() != null && !patients.contains(a.getPatient().getpId())
+                            ? "Patient not found with id: " + a.getPatient().getpId()
+                    : null;
+            if (error != null) {
+                results[i] = BatchResult.Item.failed(i, id, error);
+            } else {
+                changes.add(new Change(i, before, merge(before, a)));
+            }
+        }
+
+        for (int from = 0; from < changes.size(); from += batchChunkSize) {
+            updateChunk(changes.subList(from, Math.min(from + batchChunkSize, changes.size())), results);
+        }
+        return BatchResult.of(results);
+    }
+
+    // Holds the slot stripes of every (doctor, date) the chunk touches, so single bookings on
+    // this node cannot interleave; the unique slot index still guards against other nodes
+    private void updateChunk(List<Change> chunk, BatchResult.Item[] results) {
+        Set<SlotKey> keys = new HashSet<>();
+        Set<Integer> doctorIds = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        for (Change change : chunk) {
+            for (StoredAppointment row : List.of(change.before(), change.after())) {
+                if (row.doctorId() != null && row.appointmentDate() != null) {
+                    keys.add(new SlotKey(row.doctorId(), row.appointmentDate()));
+                    doctorIds.add(row.doctorId());
+                    dates.add(row.appointmentDate());
+                }
+            }
+        }
+        List<? extends Lock> locks = slotLocks.locksFor(keys);
+        locks.forEach(Lock::lock);
+        try {
+            // A slot may be taken by an appointment that is itself moving in this chunk
+            Map<List<Object>, Integer> holders = batchWriteRepository.findSlotHolders(doctorIds, dates);
+            Set<Integer> moving = new HashSet<>();
+            chunk.forEach(change -> moving.add(change.after().apId()));
+            Map<List<Object>, Integer> claimed = new HashMap<>();
+            List<Change> accepted = new ArrayList<>();
+            for (Change change : chunk) {
+                StoredAppointment after = change.after();
+                if (holdsSlot(after)) {
+                    List<Object> slot = BatchWriteRepository.slotKey(after.doctorId(), after.appointmentDate(), after.appointmentTime());
+                    Integer holder = holders.get(slot);
+                    Integer claimant = claimed.putIfAbsent(slot, after.apId());
+                    if ((holder != null && !holder.equals(after.apId()) && !moving.contains(holder)) || claimant != null) {
+                        results[change.index()] = BatchResult.Item.failed(change.index(), after.apId(),
+                                "Doctor " + after.doctorId() + " is already booked on " + after.appointmentDate()
+                                        + " at " + after.appointmentTime());
+                        continue;
+                    }
+                }
+                accepted.add(change);
+            }
+            write(accepted, results);
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    private void write(List<Change> changes, BatchResult.Item[] results) {
+        if (changes.isEmpty()) return;
+        appointmentIndexes.duringWrite(() -> {
+            writeChanges(changes, results);
+            return null;
+        });
+    }
+
+    // One transaction for the accepted changes; if it fails (a chunk member that was rejected
+    // above still holds a slot another one wanted, or another node booked it meanwhile) each
+    // change is retried on its own
+    private void writeChanges(List<Change> changes, BatchResult.Item[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    batchWriteRepository.updateAppointments(changes.stream().map(Change::after).toList()));
+            changes.forEach(change -> applied(change, results));
+        } catch (DataAccessException batchFailure) {
+            for (Change change : changes) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            batchWriteRepository.updateAppointments(List.of(change.after())));
+                    applied(change, results);
+                } catch (DataIntegrityViolationException e) {
+                    StoredAppointment after = change.after();
+                    results[change.index()] = BatchResult.Item.failed(change.index(), after.apId(),
+                            "Doctor " + after.doctorId() + " is already booked on " + after.appointmentDate()
+                                    + " at " + after.appointmentTime());
+                } catch (DataAccessException e) {
+                    results[change.index()] = BatchResult.Item.failed(change.index(), change.after().apId(),
+                            e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void applied(Change change, BatchResult.Item[] results) {
+        appointmentIndexes.updated(snapshot(change.before()), snapshot(change.after()));
+        results[change.index()] = BatchResult.Item.ok(change.index(), change.after().apId(), BatchResult.UPDATED);
+    }
+
+    // Fields left out of a batch item keep their stored value
+    private static StoredAppointment merge(StoredAppointment before, Appointment update) {
+        return new StoredAppointment(before.apId(),
+                update.getDoctor() != null ? update.getDoctor().getDrId() : before.doctorId(),
+                update.getPatient() != null ? update.getPatient().getpId() : before.patientId(),
+                update.getAppointmentDate() != null ? update.getAppointmentDate() : before.appointmentDate(),
+                update.getAppointmentTime() != null ? update.getAppointmentTime() : before.appointmentTime(),
+                update.getDescript() != null ? update.getDescript() : before.descript(),
+                update.getStatus() != null ? update.getStatus() : before.status(),
+                update.getCancelConfirm() != null ? update.getCancelConfirm() : before.cancelConfirm());
+    }
+
+    private static boolean holdsSlot(StoredAppointment row) {
+        return row.doctorId() != null && row.appointmentDate() != null && row.appointmentTime() != null
+                && !Appointment.STATUS_CANCELLED.equalsIgnoreCase(row.status());
+    }
+
+    private static AppointmentSnapshot snapshot(StoredAppointment row) {
+        return new AppointmentSnapshot(row.apId(), row.doctorId(), row.patientId(), row.appointmentDate(),
+                row.appointmentTime(), row.status());
+    }
+
+    private record Change(int index, StoredAppointment before, StoredAppointment after) {
     }
 
     @Override
+    @Transactional
     public void deleteAppointment(Integer id) {
-        appointmentRepository.deleteById(id);
+        appointmentIndexes.duringWrite(() -> {
+            AppointmentSnapshot before = snapshotOf(id);
+            appointmentRepository.deleteById(id);
+            if (before != null) {
+                appointmentIndexes.deleted(before);
+            }
+            return null;
+        });
     }
 
     @Override
+    @ReplicaRead
     public List<Appointment> getAppointmentsByDoctor(Integer doctorId) {
         return appointmentRepository.findByDoctorDrId(doctorId);
     }
 
     @Override
+    @ReplicaRead
     public List<Appointment> getAppointmentsByPatient(Integer patientId) {
-        System.out.println("Fetching appointments for patient ID: " + patientId);
         List<Appointment> appointments = appointmentRepository.findByPatientPId(patientId);
-        System.out.println("Found " + appointments.size() + " appointments for patient ID: " + patientId);
-        if (!appointments.isEmpty()) {
-            System.out.println("First appointment details: " + appointments.get(0).toString());
-        }
+        log.debug("Found {} appointments for patient {}", appointments.size(), patientId);
         return appointments;
     }
 
     @Override
+    @ReplicaRead
     public List<Appointment> getAppointmentsByStatus(String status) {
         return appointmentRepository.findByStatus(status);
     }
 
     @Override
+    @ReplicaRead
     public List<Appointment> getAppointmentsByDate(String date) {
         LocalDate localDate = LocalDate.parse(date);
         return appointmentRepository.findByAppointmentDate(localDate);
@@ -72,23 +343,42 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     public Appointment updateStatus(Integer id, String status) {
-        Appointment appointment = appointmentRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
-        appointment.setStatus(status);
-        return appointmentRepository.save(appointment);
+        // Looked up only to pick the slot stripe, without loading the entity into the request's
+        // persistence context: the row the write depends on is read again under the lock
+        StoredAppointment located = batchWriteRepository.findAppointments(List.of(id)).get(id);
+        if (located == null) {
+            throw new RuntimeException("Appointment not found with id: " + id);
+        }
+        return withSlotLock(located.doctorId(), located.appointmentDate(), located.appointmentTime(), () -> {
+            Appointment appointment = appointmentRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + id));
+            AppointmentSnapshot before = AppointmentSnapshot.of(appointment);
+            boolean reclaimsSlot = !appointment.holdsSlot();
+            appointment.setStatus(status);
+            // Re-activating a cancelled appointment needs its slot back
+            if (reclaimsSlot) {
+                ensureSlotFree(appointment);
+            }
+            Appointment saved = saveSlot(appointment);
+            afterSave(before, saved);
+            return saved;
+        });
     }
 
     @Override
+    @ReplicaRead
     public List<Appointment> getUpcomingAppointments(Integer doctorId) {
         return appointmentRepository.findUpcomingAppointments(doctorId);
     }
 
     @Override
+    @ReplicaRead
     public List<Appointment> getPastAppointments(Integer doctorId) {
         return appointmentRepository.findPastAppointments(doctorId);
     }
 
     @Override
+    @ReplicaRead
     public List<Appointment> getTodayAppointments(Integer doctorId) {
         return appointmentRepository.findTodayAppointments(doctorId);
     }
@@ -97,14 +387,31 @@ public class AppointmentServiceImpl implements AppointmentService {
     public boolean checkAvailability(Integer doctorId, String date, String time) {
         LocalDate appointmentDate = LocalDate.parse(date);
         LocalTime appointmentTime = LocalTime.parse(time);
+
+        // Upcoming dates are answered from the in-memory availability bitmap
+        if (availabilityIndex.covers(appointmentDate)) {
+            return availabilityIndex.isFree(doctorId, appointmentDate, appointmentTime);
+        }
         
         List<Appointment> existingAppointments = appointmentRepository
             .findByDoctorDrIdAndAppointmentDateAndAppointmentTime(doctorId, appointmentDate, appointmentTime);
         
-        return existingAppointments.isEmpty();
+        // Cancelled appointments release their slot
+        return existingAppointments.stream().noneMatch(Appointment::holdsSlot);
     }
 
     @Override
+    public List<FreeSlot> getFreeSlots(Integer doctorId, LocalDate from, LocalDate to) {
+        return availabilityIndex.freeSlots(doctorId, from, to);
+    }
+
+    @Override
+    public List<FreeSlot> getFirstFreeSlots(Integer specializationId, LocalDate from, int limit) {
+        return availabilityIndex.firstFreeSlots(specializationId, from, limit);
+    }
+
+    @Override
+    @ReplicaRead
     public List<Appointment> getAppointmentsByDoctorAndDate(Integer doctorId, String date) {
         LocalDate localDate = LocalDate.parse(date);
         return appointmentRepository.findByDoctorDrIdAndAppointmentDate(doctorId, localDate);
@@ -112,10 +419,174 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     @Override
     public List<Patient> getPatientsByDoctorId(Integer doctorId) {
-        List<Appointment> appointments = appointmentRepository.findByDoctorDrId(doctorId);
-        return appointments.stream()
-                         .map(Appointment::getPatient)
-                         .distinct()
-                         .collect(Collectors.toList());
+        // Served from DoctorPatientIndex, like /api/patients/doctor/{doctorId}
+        return patientService.findByDoctorId(doctorId);
+    }
+
+    @Override
+    @ReplicaRead
+    public CursorPage<Appointment> getAppointmentsPage(String cursor, int limit) {
+        return page(cursor, limit, appointmentRepository::findPageAfter);
+    }
+
+    @Override
+    @ReplicaRead
+    public CursorPage<Appointment> getAppointmentsByStatusPage(String status, String cursor, int limit) {
+        return page(cursor, limit, (afterId, pageable) ->
+                appointmentRepository.findPageByStatusAfter(status, afterId, pageable));
+    }
+
+    @Override
+    @ReplicaRead
+    public CursorPage<Appointment> getAppointmentsByDoctorPage(Integer doctorId, String cursor, int limit) {
+        return page(cursor, limit, (afterId, pageable) ->
+                appointmentRepository.findPageByDoctorAfter(doctorId, afterId, pageable));
+    }
+
+    @Override
+    @ReplicaRead
+    public CursorPage<Appointment> getPastAppointmentsPage(Integer doctorId, String cursor, int limit) {
+        return page(cursor, limit, (afterId, pageable) ->
+                appointmentRepository.findPastPageByDoctorAfter(doctorId, afterId, pageable));
+    }
+
+    @Override
+    @ReplicaRead
+    public void exportAppointments(Consumer<AppointmentRow> sink) {
+        drain(appointmentRepository.streamAll(), sink);
+    }
+
+    @Override
+    @ReplicaRead
+    public void exportAppointmentsByStatus(String status, Consumer<AppointmentRow> sink) {
+        drain(appointmentRepository.streamByStatus(status), sink);
+    }
+
+    @Override
+    @ReplicaRead
+    public void exportAppointmentsByDoctor(Integer doctorId, Consumer<AppointmentRow> sink) {
+        drain(appointmentRepository.streamByDoctor(doctorId), sink);
+    }
+
+    @Override
+    @ReplicaRead
+    public void exportPastAppointments(Integer doctorId, Consumer<AppointmentRow> sink) {
+        drain(appointmentRepository.streamPastByDoctor(doctorId), sink);
+    }
+
+    // Fetch one row past the limit to find out whether another page exists
+    private CursorPage<Appointment> page(String cursor, int limit,
+                                         BiFunction<Integer, Pageable, List<Appointment>> query) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        int afterId = cursor == null || cursor.isBlank() ? 0 : (int) CursorCodec.decode(cursor, 1)[0];
+
+        List<Appointment> rows = query.apply(afterId, PageRequest.of(0, size + 1));
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Appointment> items = rows.subList(0, size);
+        return new CursorPage<>(items, CursorCodec.encode(items.get(size - 1).getApId()));
+    }
+
+    private static void drain(Stream<AppointmentRow> rows, Consumer<AppointmentRow> sink) {
+        try (rows) {
+            rows.forEach(sink);
+        }
+    }
+
+    // Run a write in one transaction while holding the stripe for the appointment's (doctor, date).
+    // The transaction is opened inside the lock, not by @Transactional around it, so the lock
+    // is held through the commit: the next booking for the slot then sees this one in
+    // ensureSlotFree rather than blocking on its uncommitted row in the unique index.
+    // The unique (doctor, date, time, slot_hold) constraint is the final arbiter across nodes.
+    private Appointment withSlotLock(Appointment appointment, Supplier<Appointment> write) {
+        Integer doctorId = appointment.getDoctor() != null ? appointment.getDoctor().getDrId() : null;
+        return withSlotLock(doctorId, appointment.getAppointmentDate(), appointment.getAppointmentTime(), write);
+    }
+
+    private Appointment withSlotLock(Integer doctorId, LocalDate date, LocalTime time, Supplier<Appointment> write) {
+        Supplier<Appointment> transactional = () -> {
+            try {
+                return appointmentIndexes.duringWrite(() -> transactionTemplate.execute(status -> write.get()));
+            } catch (DataIntegrityViolationException e) {
+                throw slotTaken(doctorId, date, time);
+            }
+        };
+        if (doctorId == null || date == null) {
+            return transactional.get();
+        }
+        Lock lock = slotLocks.lockFor(new SlotKey(doctorId, date));
+        lock.lock();
+        try {
+            return transactional.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureSlotFree(Appointment appointment) {
+        if (appointment.getDoctor() == null || appointment.getAppointmentDate() == null
+                || appointment.getAppointmentTime() == null || !appointment.holdsSlot()) {
+            return;
+        }
+        boolean taken = appointmentRepository.findByDoctorDrIdAndAppointmentDateAndAppointmentTime(
+                        appointment.getDoctor().getDrId(), appointment.getAppointmentDate(), appointment.getAppointmentTime())
+                .stream()
+                .anyMatch(existing -> existing.holdsSlot() && !existing.getApId().equals(appointment.getApId()));
+        if (taken) {
+            throw slotTaken(appointment);
+        }
+    }
+
+    // Flushed so a slot conflict fails the write here rather than at commit
+    private Appointment saveSlot(Appointment appointment) {
+        return appointmentRepository.saveAndFlush(appointment);
+    }
+
+    private static SlotUnavailableException slotTaken(Appointment appointment) {
+        return slotTaken(appointment.getDoctor().getDrId(), appointment.getAppointmentDate(), appointment.getAppointmentTime());
+    }
+
+    private static SlotUnavailableException slotTaken(Integer doctorId, LocalDate date, LocalTime time) {
+        return new SlotUnavailableException("Doctor " + doctorId + " is already booked on " + date + " at " + time);
+    }
+
+    private record SlotKey(Integer doctorId, LocalDate date) {
+    }
+
+    // Snapshot the persisted state before a write; the managed entity is mutated by save()
+    private AppointmentSnapshot snapshotOf(Integer id) {
+        if (id == null) return null;
+        return appointmentRepository.findById(id).map(AppointmentSnapshot::of).orElse(null);
+    }
+
+    // Only inserts into the email outbox; EmailDispatcher sends it off the request thread.
+    // The booking is already committed here, so a failure to queue is logged rather than
+    // turning a saved booking into an error the client would retry into a slot conflict.
+    private void queueConfirmation(Appointment appointment) {
+        if (!sendConfirmations || appointment.getPatient() == null || appointment.getPatient().getpId() == null) {
+            return;
+        }
+        try {
+            Optional<String> email = patientRepository.findEmailById(appointment.getPatient().getpId())
+                    .filter(address -> !address.isBlank());
+            if (email.isPresent()) {
+                String doctorName = appointment.getDoctor() != null
+                        ? doctorRepository.findNameById(appointment.getDoctor().getDrId()).orElse(null)
+                        : null;
+                emailService.sendAppointmentConfirmation(appointment, email.get(), doctorName);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not queue confirmation for appointment {}", appointment.getApId(), e);
+        }
+    }
+
+    // Keep the in-memory indexes in step with the write once it commits
+    private void afterSave(AppointmentSnapshot before, Appointment saved) {
+        if (before == null) {
+            appointmentIndexes.created(saved);
+        } else {
+            appointmentIndexes.updated(before, saved);
+        }
     }
 }
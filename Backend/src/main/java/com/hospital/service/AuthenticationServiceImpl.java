@@ -5,16 +5,24 @@ import com.hospital.dto.LoginResponse;
 import com.hospital.entity.Admin;
 import com.hospital.entity.Patient;
 import com.hospital.entity.Doctor;
+import com.hospital.cache.DirectoryCache;
+import com.hospital.index.AvailabilityIndex;
+import com.hospital.index.DoctorSearchIndex;
+import com.hospital.index.PatientSearchIndex;
 import com.hospital.repository.AdminRepository;
 import com.hospital.repository.PatientRepository;
 import com.hospital.repository.DoctorRepository;
 import com.hospital.security.JwtUtil;
+import com.hospital.security.TokenRevocationStore;
+import com.hospital.security.TooManyRequestsException;
+import com.hospital.util.AfterCommit;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class AuthenticationServiceImpl implements AuthenticationService {
@@ -34,8 +42,20 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     @Autowired
     private JwtUtil jwtUtil;
 
-    // In-memory blacklist for tokens (basic logout mechanism)
-    private final Set<String> blacklistedTokens = new HashSet<>();
+    @Autowired
+    private TokenRevocationStore revocationStore;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private DirectoryCache directoryCache;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private DoctorSearchIndex doctorSearchIndex;
 
     @Override
     public LoginResponse authenticate(LoginRequest loginRequest) {
@@ -45,6 +65,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         if (!passwordEncoder.matches(loginRequest.getPassword(), admin.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
+        upgradeHash(loginRequest.getPassword(), admin.getPassword(), hash -> {
+            admin.setPassword(hash);
+            adminRepository.save(admin);
+        });
 
         String token = jwtUtil.generateToken(admin.getEmail(), loginRequest.getUserType());
 
@@ -67,6 +91,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         if (!passwordEncoder.matches(loginRequest.getPassword(), patient.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
+        upgradeHash(loginRequest.getPassword(), patient.getPassword(), hash -> {
+            patient.setPassword(hash);
+            patientRepository.save(patient);
+        });
 
         String token = jwtUtil.generateToken(patient.getEmail(), "PATIENT");
 
@@ -89,6 +117,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         if (!passwordEncoder.matches(loginRequest.getPassword(), doctor.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
+        upgradeHash(loginRequest.getPassword(), doctor.getPassword(), hash -> {
+            doctor.setPassword(hash);
+            doctorRepository.save(doctor);
+        });
 
         String token = jwtUtil.generateToken(doctor.getEmail(), "DOCTOR");
 
@@ -103,8 +135,15 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         );
     }
 
+    // The email check and the insert share one transaction; the search index and directory
+    // only learn about the new account once it has committed
     @Override
+    @Transactional
     public LoginResponse registerPatient(LoginRequest registerRequest) {
+        // Hashed before the first query: the pooled connection is only taken at the first
+        // statement, and would otherwise sit idle through the bcrypt rounds
+        String hash = passwordEncoder.encode(registerRequest.getPassword());
+
         // Check if patient already exists
         if (patientRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
             throw new RuntimeException("Patient with this email already exists");
@@ -115,10 +154,11 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         // Create new patient
         Patient patient = new Patient();
         patient.setEmail(registerRequest.getEmail());
-        patient.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        patient.setPassword(hash);
         patient.setName(registerRequest.getEmail().split("@")[0]); // Use email prefix as name
         
         Patient savedPatient = patientRepository.save(patient);
+        AfterCommit.run(() -> patientSearchIndex.put(savedPatient));
 
         String token = jwtUtil.generateToken(savedPatient.getEmail(), "PATIENT");
 
@@ -134,7 +174,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     }
 
     @Override
+    @Transactional
     public LoginResponse registerDoctor(LoginRequest registerRequest) {
+        String hash = passwordEncoder.encode(registerRequest.getPassword());
+
         // Check if doctor already exists
         if (doctorRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
             throw new RuntimeException("Doctor with this email already exists");
@@ -143,10 +186,15 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         // Create new doctor
         Doctor doctor = new Doctor();
         doctor.setEmail(registerRequest.getEmail());
-        doctor.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        doctor.setPassword(hash);
         doctor.setName(registerRequest.getEmail().split("@")[0]); // Use email prefix as name
         
         Doctor savedDoctor = doctorRepository.save(doctor);
+        AfterCommit.run(() -> {
+            availabilityIndex.registerDoctor(savedDoctor.getDrId(), null);
+            doctorSearchIndex.put(savedDoctor);
+            directoryCache.invalidate();
+        });
 
         String token = jwtUtil.generateToken(savedDoctor.getEmail(), "DOCTOR");
 
@@ -161,22 +209,30 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         );
     }
 
+    // A login is the only time the plain password is at hand, so that is when a hash stored at a
+    // lower cost than hospital.auth.bcrypt-strength gets replaced. If the hashing pool is busy the
+    // login still succeeds and the next one tries again.
+    private void upgradeHash(String rawPassword, String storedHash, Consumer<String> store) {
+        if (!passwordEncoder.upgradeEncoding(storedHash)) return;
+        try {
+            store.accept(passwordEncoder.encode(rawPassword));
+        } catch (TooManyRequestsException e) {
+            // Keep the old hash for now
+        }
+    }
+
     @Override
     public void logout(String token) {
-        blacklistedTokens.add(token);
+        // Revoke by token ID until the token's own expiry; invalid or expired tokens need no entry
+        Claims claims = jwtUtil.verify(token);
+        if (claims != null) {
+            revocationStore.revoke(jwtUtil.tokenId(token, claims), claims.getExpiration().getTime());
+        }
     }
 
     @Override
     public boolean validateToken(String token) {
-        if (blacklistedTokens.contains(token)) {
-            return false;
-        }
-
-        try {
-            String email = jwtUtil.extractEmail(token);
-            return jwtUtil.validateToken(token, email);
-        } catch (Exception e) {
-            return false;
-        }
+        Claims claims = jwtUtil.verify(token);
+        return claims != null && !revocationStore.isRevoked(jwtUtil.tokenId(token, claims));
     }
 }
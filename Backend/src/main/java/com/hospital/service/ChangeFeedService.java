@@ -0,0 +1,14 @@
+package com.hospital.service;
+
+import com.hospital.dto.ChangeSet;
+import com.hospital.entity.Appointment;
+
+public interface ChangeFeedService {
+
+    // Appointments inserted, updated or deleted since the token, optionally for one patient.
+    // A null token returns no rows and a token for "now", to be taken before a full load.
+    ChangeSet<Appointment> getAppointmentChanges(String since, Integer patientId, int limit);
+
+    // Drops tombstones older than the retention; returns how many went
+    int purgeTombstones();
+}
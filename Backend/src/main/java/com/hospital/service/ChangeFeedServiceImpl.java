@@ -0,0 +1,115 @@
+package com.hospital.service;
+
+import com.hospital.dto.ChangeSet;
+import com.hospital.entity.Appointment;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.AppointmentTombstoneRepository;
+import com.hospital.util.CursorCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+// Delta sync over appointment.updated_at. A token is the (updatedAt, apId) position the caller
+// has seen up to; a poll reads the rows after it with one range scan and the tombstones written
+// in the same time window. Tokens never reach closer to now than the settle interval, so a
+// transaction that stamped its rows just before the poll but commits just after is still read
+// by the next poll rather than skipped.
+@Service
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedServiceImpl.class);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentTombstoneRepository tombstoneRepository;
+
+    @Value("${hospital.changes.settle:PT5S}")
+    private Duration settle;
+
+    @Value("${hospital.changes.tombstone-retention:P7D}")
+    private Duration retention;
+
+    @Value("${hospital.changes.max-limit:500}")
+    private int maxLimit;
+
+    // Stays on the primary: a lagging replica would hand out a token past rows it has not
+    // received yet, and the poller would never see them
+    @Override
+    @Transactional(readOnly = true)
+    public ChangeSet<Appointment> getAppointmentChanges(String since, Integer patientId, int limit) {
+        LocalDateTime horizon = LocalDateTime.now().minus(settle).truncatedTo(ChronoUnit.MICROS);
+        if (since == null || since.isBlank()) {
+            return new ChangeSet<>(List.of(), List.of(), token(horizon, Integer.MAX_VALUE), false);
+        }
+
+        long[] keys = CursorCodec.decode(since, 2);
+        LocalDateTime sinceTime = time(keys[0]);
+        int afterId = (int) keys[1];
+        if (sinceTime.isBefore(LocalDateTime.now().minus(retention))) {
+            throw new ChangeTokenExpiredException("Change token is older than " + retention + "; reload in full");
+        }
+        // A token ahead of the horizon (clock moved back, settle lowered) is answered as idle
+        if (!sinceTime.isBefore(horizon)) {
+            return new ChangeSet<>(List.of(), List.of(), since, false);
+        }
+
+        int size = Math.max(1, Math.min(limit, maxLimit));
+        PageRequest pageable = PageRequest.of(0, size + 1);
+        List<Appointment> rows = patientId == null
+                ? appointmentRepository.findChangedAfter(sinceTime, afterId, horizon, pageable)
+                : appointmentRepository.findChangedByPatientAfter(patientId, sinceTime, afterId, horizon, pageable);
+
+        boolean hasMore = rows.size() > size;
+        LocalDateTime upTo = horizon;
+        String next = token(horizon, Integer.MAX_VALUE);
+        if (hasMore) {
+            rows = rows.subList(0, size);
+            Appointment last = rows.get(size - 1);
+            upTo = last.getUpdatedAt();
+            next = token(upTo, last.getApId());
+        }
+        List<Integer> deleted = tombstoneRepository.deletedBetween(sinceTime, upTo, patientId);
+        return new ChangeSet<>(rows, deleted, next, hasMore);
+    }
+
+    @Scheduled(fixedDelayString = "${hospital.changes.purge-interval:3600000}")
+    public void scheduledPurge() {
+        int purged = purgeTombstones();
+        if (purged > 0) log.info("Purged {} appointment tombstones", purged);
+    }
+
+    @Override
+    public int purgeTombstones() {
+        return tombstoneRepository.purgeBefore(LocalDateTime.now().minus(retention));
+    }
+
+    // updated_at is a wall-clock DATETIME(6); tokens carry it as microseconds, UTC used only as
+    // a fixed offset for the conversion
+    private static String token(LocalDateTime time, int apId) {
+        Instant instant = time.toInstant(ZoneOffset.UTC);
+        return CursorCodec.encode(ChronoUnit.MICROS.between(Instant.EPOCH, instant), apId);
+    }
+
+    private static LocalDateTime time(long micros) {
+        try {
+            return LocalDateTime.ofInstant(Instant.EPOCH.plus(micros, ChronoUnit.MICROS), ZoneOffset.UTC);
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid change token", e);
+        }
+    }
+}
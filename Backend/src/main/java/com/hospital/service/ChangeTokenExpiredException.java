@@ -0,0 +1,11 @@
+package com.hospital.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Thrown when a change-feed token is older than the tombstone retention, so deletes since then
+// may be gone; the client has to reload in full and start a new feed
+@ResponseStatus(HttpStatus.GONE)
+public class ChangeTokenExpiredException extends RuntimeException {
+    public ChangeTokenExpiredException(String message) { super(message); }
+}
@@ -19,7 +19,8 @@ public interface DoctorService {
 
     List<Doctor> getDoctorsBySpecializationId(Integer spId);
 
-    List<Doctor> searchDoctorsByName(String name);
+    // Best matches first, at most limit results
+    List<Doctor> searchDoctorsByName(String name, int limit);
 
     Optional<Doctor> findByEmail(String email);
 
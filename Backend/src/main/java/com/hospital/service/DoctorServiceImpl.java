@@ -1,14 +1,25 @@
 package com.hospital.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.hospital.cache.DirectoryCache;
+import com.hospital.datasource.ReplicaRead;
 import com.hospital.entity.Doctor;
+import com.hospital.index.AppointmentIndexes;
+import com.hospital.index.AvailabilityIndex;
+import com.hospital.index.DoctorPatientIndex;
+import com.hospital.index.DoctorSearchIndex;
 import com.hospital.repository.DoctorRepository;
-import com.hospital.repository.AppointmentRepository;
+import com.hospital.util.AfterCommit;
 
 @Service
 public class DoctorServiceImpl implements DoctorService {
@@ -17,56 +28,113 @@ public class DoctorServiceImpl implements DoctorService {
     private DoctorRepository doctorRepository;
 
     @Autowired
-    private AppointmentRepository appointmentRepository;
+    private AppointmentIndexes appointmentIndexes;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private DoctorPatientIndex doctorPatientIndex;
+
+    @Autowired
+    private DirectoryCache directoryCache;
+
+    @Autowired
+    private DoctorSearchIndex doctorSearchIndex;
 
     @Override
+    @Transactional
     public Doctor saveDoctor(Doctor doctor) {
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        AfterCommit.run(() -> indexed(saved));
+        return saved;
     }
 
+    // Cached lists are shared between requests, so they are handed out read-only
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = DirectoryCache.DOCTORS, key = "'all'")
     public List<Doctor> getAllDoctors() {
-        return doctorRepository.findAll();
+        return List.copyOf(doctorRepository.findAll());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = DirectoryCache.DOCTOR, key = "#id", unless = "#result == null")
     public Optional<Doctor> getDoctorById(Integer id) {
         return doctorRepository.findById(id);
     }
 
     @Override
+    @Transactional
     public Doctor updateDoctor(Doctor doctor) {
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        AfterCommit.run(() -> indexed(saved));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteDoctor(Integer id) {
         doctorRepository.deleteById(id);
+        AfterCommit.run(() -> {
+            availabilityIndex.removeDoctor(id);
+            doctorSearchIndex.remove(id);
+            directoryCache.invalidate();
+        });
+        // Doctor.appointments cascades, so the appointment indexes have to be recomputed
+        appointmentIndexes.rebuild();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = DirectoryCache.DOCTORS_BY_SPECIALIZATION, key = "#specializationId")
     public List<Doctor> getDoctorsBySpecializationId(Integer specializationId) {
         // ✅ Correct method name that matches DoctorRepository
-        return doctorRepository.findBySpecializationId(specializationId);
+        return List.copyOf(doctorRepository.findBySpecializationId(specializationId));
     }
 
     @Override
-    public List<Doctor> searchDoctorsByName(String name) {
-        return doctorRepository.findByNameContainingIgnoreCase(name);
+    @ReplicaRead
+    public List<Doctor> searchDoctorsByName(String name, int limit) {
+        List<Integer> ids = doctorSearchIndex.searchByName(name, limit);
+        // Load the matched doctors by primary key, keeping the index's ranking
+        Map<Integer, Doctor> byId = new HashMap<>();
+        for (Doctor doctor : doctorRepository.findAllById(ids)) {
+            byId.put(doctor.getDrId(), doctor);
+        }
+        List<Doctor> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Doctor doctor = byId.get(id);
+            if (doctor != null) result.add(doctor);
+        }
+        return result;
     }
 
     @Override
+    @ReplicaRead
     public Optional<Doctor> findByEmail(String email) {
         return doctorRepository.findByEmail(email);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsById(Integer id) {
         return doctorRepository.existsById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public long getPatientCount(Integer doctorId) {
-        return appointmentRepository.countDistinctPatientsByDoctorId(doctorId);
+        return doctorPatientIndex.patientCount(doctorId);
+    }
+
+    // Once a doctor write commits. Free-slot search by specialization needs to know every
+    // doctor, booked or not.
+    private void indexed(Doctor doctor) {
+        availabilityIndex.registerDoctor(doctor.getDrId(),
+                doctor.getSpecialization() != null ? doctor.getSpecialization().getId() : null);
+        doctorSearchIndex.put(doctor);
+        directoryCache.invalidate();
     }
 }
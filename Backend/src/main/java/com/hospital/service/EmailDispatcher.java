@@ -0,0 +1,272 @@
+package com.hospital.service;
+
+import com.hospital.entity.OutboundEmail;
+import com.hospital.repository.OutboundEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drains the email_outbox table. Each poll claims a batch of due messages, splits it across a
+// small fixed pool of workers, and every worker sends its share over one SMTP connection
+// (JavaMailSender.send(MimeMessage...)). Failed messages are retried with exponential backoff
+// and marked FAILED after max-attempts.
+@Component
+public class EmailDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${hospital.mail.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${hospital.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${hospital.mail.outbox.workers:2}")
+    private int workerCount;
+
+    @Value("${hospital.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${hospital.mail.outbox.initial-backoff:PT30S}")
+    private Duration initialBackoff;
+
+    @Value("${hospital.mail.outbox.max-backoff:PT1H}")
+    private Duration maxBackoff;
+
+    // A claimed batch older than this is assumed lost (e.g. the node died) and re-queued
+    @Value("${hospital.mail.outbox.claim-timeout:PT5M}")
+    private Duration claimTimeout;
+
+    private ThreadPoolExecutor workers;
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final AtomicLong pending = new AtomicLong();
+    private Timer sendTimer;
+    private Timer deliveryDelay;
+    private Counter sent;
+    private Counter retried;
+    private Counter failed;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerCount),
+                task -> {
+                    Thread thread = new Thread(task, "email-sender-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        Gauge.builder("hospital.mail.outbox.pending", pending, AtomicLong::get)
+                .description("Messages waiting in the email outbox")
+                .register(meterRegistry);
+        sendTimer = Timer.builder("hospital.mail.send")
+                .description("SMTP time per batch sent over one connection")
+                .register(meterRegistry);
+        deliveryDelay = Timer.builder("hospital.mail.delivery.delay")
+                .description("Time from enqueue to successful send")
+                .register(meterRegistry);
+        sent = meterRegistry.counter("hospital.mail.messages", "outcome", "sent");
+        retried = meterRegistry.counter("hospital.mail.messages", "outcome", "retried");
+        failed = meterRegistry.counter("hospital.mail.messages", "outcome", "failed");
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdown();
+    }
+
+    // The drain runs on its own thread: with virtual threads enabled, fixed-delay jobs share a
+    // single scheduler thread, and an SMTP batch must not hold up the other scheduled jobs
+    @Scheduled(fixedDelayString = "${hospital.mail.outbox.poll-interval:1000}")
+    public void dispatch() {
+        if (!enabled || !polling.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("email-outbox-poll").start(() -> {
+            try {
+                drain();
+            } finally {
+                polling.set(false);
+            }
+        });
+    }
+
+    private void drain() {
+        LocalDateTime now = LocalDateTime.now();
+        outboundEmailRepository.releaseStale(now.minus(claimTimeout));
+
+        List<Long> due;
+        do {
+            due = outboundEmailRepository.findDueIds(now, PageRequest.of(0, batchSize));
+            if (due.isEmpty()) break;
+            String token = UUID.randomUUID().toString();
+            if (outboundEmailRepository.claim(due, token, now) > 0) {
+                sendAcrossWorkers(outboundEmailRepository.findByClaimToken(token));
+            }
+        } while (due.size() == batchSize);
+
+        pending.set(outboundEmailRepository.countByStatus(OutboundEmail.STATUS_PENDING));
+    }
+
+    // Current number of PENDING messages as of the last poll
+    public long pendingCount() {
+        return pending.get();
+    }
+
+    private void sendAcrossWorkers(List<OutboundEmail> batch) {
+        int chunkSize = (batch.size() + workerCount - 1) / workerCount;
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<OutboundEmail> chunk = batch.subList(from, Math.min(from + chunkSize, batch.size()));
+            futures.add(workers.submit(() -> sendChunk(chunk)));
+        }
+        // Wait, so the next poll never claims while this batch is still in flight
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Email worker failed", e.getCause());
+            }
+        }
+    }
+
+    private void sendChunk(List<OutboundEmail> chunk) {
+        Map<MimeMessage, OutboundEmail> messages = new IdentityHashMap<>();
+        for (OutboundEmail email : chunk) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException | RuntimeException e) {
+                // Cannot be built (bad address, missing attachment): retrying will not help
+                markFailed(email, e, true);
+            }
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        if (!messages.isEmpty()) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                if (failures.isEmpty()) {
+                    failures = allFailed(messages, e);
+                }
+            } catch (MailException e) {
+                failures = allFailed(messages, e);
+            } finally {
+                sample.stop(sendTimer);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, OutboundEmail> entry : messages.entrySet()) {
+            OutboundEmail email = entry.getValue();
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                email.setStatus(OutboundEmail.STATUS_SENT);
+                email.setSentAt(now);
+                email.setAttempts(email.getAttempts() + 1);
+                email.setClaimToken(null);
+                sent.increment();
+                deliveryDelay.record(Duration.between(email.getCreatedAt(), now));
+            } else {
+                markFailed(email, failure, false);
+            }
+        }
+        outboundEmailRepository.saveAll(chunk);
+    }
+
+    private void markFailed(OutboundEmail email, Exception error, boolean permanent) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setClaimToken(null);
+        String message = String.valueOf(error.getMessage());
+        email.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        if (permanent || attempts >= maxAttempts) {
+            email.setStatus(OutboundEmail.STATUS_FAILED);
+            failed.increment();
+        } else {
+            email.setStatus(OutboundEmail.STATUS_PENDING);
+            email.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+            retried.increment();
+        }
+    }
+
+    // initial-backoff doubled per failed attempt, capped at max-backoff
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private MimeMessage toMimeMessage(OutboundEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        boolean multipart = email.isHtml() || email.getAttachmentPath() != null;
+        MimeMessageHelper helper = new MimeMessageHelper(message, multipart);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject() != null ? email.getSubject() : "");
+        helper.setText(email.getBody() != null ? email.getBody() : "", email.isHtml());
+        if (email.getAttachmentPath() != null) {
+            File file = new File(email.getAttachmentPath());
+            if (!file.isFile()) {
+                throw new MessagingException("Attachment not found: " + email.getAttachmentPath());
+            }
+            FileSystemResource resource = new FileSystemResource(file);
+            helper.addAttachment(resource.getFilename(), resource);
+        }
+        return message;
+    }
+
+    private static Map<Object, Exception> allFailed(Map<MimeMessage, OutboundEmail> messages, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        for (MimeMessage message : messages.keySet()) {
+            failures.put(message, e);
+        }
+        return failures;
+    }
+}
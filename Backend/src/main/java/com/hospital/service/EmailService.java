@@ -1,79 +1,60 @@
 package com.hospital.service;
 
 import com.hospital.entity.Appointment;
+import com.hospital.entity.OutboundEmail;
+import com.hospital.repository.OutboundEmailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import java.io.File;
 
+// Every send method only writes the message to the email_outbox table and returns;
+// EmailDispatcher delivers it in batches on its own worker pool and retries failures.
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
+    private final OutboundEmailRepository outboundEmailRepository;
 
     @Autowired
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(OutboundEmailRepository outboundEmailRepository) {
+        this.outboundEmailRepository = outboundEmailRepository;
     }
 
     // ----------------- Simple Text Email -----------------
     public void sendSimpleMessage(String to, String subject, String text) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Error sending simple email: " + e.getMessage());
-        }
+        enqueue(to, subject, text, false, null);
     }
 
     // ----------------- HTML Email -----------------
     public void sendHtmlMessage(String to, String subject, String htmlBody) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true); // true = HTML
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            System.err.println("Error sending HTML email: " + e.getMessage());
-        }
+        enqueue(to, subject, htmlBody, true, null);
     }
 
     // ----------------- Email with Attachment -----------------
+    // The file is read when the message is sent, so it must still exist at that point
     public void sendMessageWithAttachment(String to, String subject, String text, File attachment) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(text);
-
-            FileSystemResource file = new FileSystemResource(attachment);
-            helper.addAttachment(file.getFilename(), file);
-
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            System.err.println("Error sending email with attachment: " + e.getMessage());
-        }
+        enqueue(to, subject, text, false, attachment != null ? attachment.getAbsolutePath() : null);
     }
 
     // ----------------- Send Appointment Confirmation -----------------
-    public void sendAppointmentConfirmation(Appointment appointment, String patientEmail) {
-        String subject = "Appointment Confirmation - Hospital";
-        String htmlBody = "<h3>Appointment Confirmed</h3>"
+    // Sent on booking, when the appointment is usually still PENDING, so the wording follows its status
+    public void sendAppointmentConfirmation(Appointment appointment, String patientEmail, String doctorName) {
+        boolean confirmed = "CONFIRMED".equalsIgnoreCase(appointment.getStatus());
+        Integer doctorId = appointment.getDoctor() != null ? appointment.getDoctor().getDrId() : null;
+        String doctor = doctorName != null && !doctorName.isBlank()
+                ? HtmlUtils.htmlEscape(doctorName) + " (ID " + doctorId + ")"
+                : "Doctor ID " + doctorId;
+
+        String subject = confirmed ? "Appointment Confirmed - Hospital" : "Appointment Request Received - Hospital";
+        String htmlBody = "<h3>" + (confirmed ? "Appointment Confirmed" : "Appointment Request Received") + "</h3>"
                 + "<p>Dear Patient,</p>"
-                + "<p>Your appointment with Doctor ID: <b>" + appointment.getApId() + "</b> "
-                + "is confirmed.</p>"
+                + "<p>Your appointment with <b>" + doctor + "</b> "
+                + (confirmed ? "is confirmed." : "has been received and is awaiting confirmation.") + "</p>"
                 + "<p><b>Date:</b> " + appointment.getAppointmentDate() + "<br>"
                 + "<b>Time:</b> " + appointment.getAppointmentTime() + "</p>"
                 + "<p>Status: <b>" + appointment.getStatus() + "</b></p>"
@@ -81,4 +62,18 @@ public class EmailService {
 
         sendHtmlMessage(patientEmail, subject, htmlBody);
     }
+
+    private void enqueue(String to, String subject, String body, boolean html, String attachmentPath) {
+        if (to == null || to.isBlank()) {
+            log.warn("Not queueing email without a recipient: {}", subject);
+            return;
+        }
+        OutboundEmail email = new OutboundEmail();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setHtml(html);
+        email.setAttachmentPath(attachmentPath);
+        outboundEmailRepository.save(email);
+    }
 }
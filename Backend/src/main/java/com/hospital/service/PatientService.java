@@ -29,11 +29,13 @@ public interface PatientService {
 
     List<Patient> findByNameContaining(String name);
 
-    List<Patient> findByContactContaining(String contact);
+    // Best matches first, at most limit results
+    List<Patient> findByContactContaining(String contact, int limit);
 
     List<Patient> findByDoctorId(Integer doctorId);
 
     Patient changePassword(Integer id, String currentPassword, String newPassword);
 
-	List<Patient> searchPatientsByName(String name);
+	// Best matches first, at most limit results
+	List<Patient> searchPatientsByName(String name, int limit);
 }
@@ -1,12 +1,21 @@
 package com.hospital.service;
 
+import com.hospital.datasource.ReplicaRead;
 import com.hospital.entity.Patient;
+import com.hospital.index.AppointmentIndexes;
+import com.hospital.index.DoctorPatientIndex;
+import com.hospital.index.PatientSearchIndex;
 import com.hospital.repository.PatientRepository;
+import com.hospital.util.AfterCommit;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,66 +27,95 @@ public class PatientServiceImpl implements PatientService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AppointmentIndexes appointmentIndexes;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private DoctorPatientIndex doctorPatientIndex;
+
     @Override
+    @Transactional
     public Patient save(Patient patient) {
         // Encode password before saving
         if (patient.getPassword() != null) {
             patient.setPassword(passwordEncoder.encode(patient.getPassword()));
         }
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        AfterCommit.run(() -> patientSearchIndex.put(saved));
+        return saved;
     }
 
     @Override
+    @ReplicaRead
     public List<Patient> getAllPatients() {
         return patientRepository.findAll();
     }
 
     @Override
+    @ReplicaRead
     public Optional<Patient> getPatientById(Integer id) {
         return patientRepository.findById(id);
     }
 
     @Override
+    @Transactional
     public Patient updatePatient(Patient patient) {
-        return patientRepository.save(patient);
+        Patient saved = patientRepository.save(patient);
+        AfterCommit.run(() -> patientSearchIndex.put(saved));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deletePatient(Integer id) {
         patientRepository.deleteById(id);
+        AfterCommit.run(() -> patientSearchIndex.remove(id));
+        // Patient.appointments cascades, so the appointment indexes have to be recomputed
+        appointmentIndexes.rebuild();
     }
 
     @Override
+    @ReplicaRead
     public Optional<Patient> findByEmail(String email) {
         return patientRepository.findByEmail(email);
     }
 
     @Override
+    @ReplicaRead
     public List<Patient> getPatientsByBloodGroup(String bloodGroup) {
         return patientRepository.findByBloodGroup(bloodGroup);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsById(Integer id) {
         return patientRepository.existsById(id);
     }
 
     @Override
+    @ReplicaRead
     public List<Patient> findByNameContaining(String name) {
         return patientRepository.findByNameContainingIgnoreCase(name);
     }
 
     @Override
-    public List<Patient> findByContactContaining(String contact) {
-        return patientRepository.findByContactContaining(contact);
+    @ReplicaRead
+    public List<Patient> findByContactContaining(String contact, int limit) {
+        return inRankOrder(patientSearchIndex.searchByContact(contact, limit));
     }
 
     @Override
+    @ReplicaRead
     public List<Patient> findByDoctorId(Integer doctorId) {
-        return patientRepository.findDistinctByAppointmentsDoctorDrId(doctorId);
+        // The relationship comes from memory; only the patient rows are read, by primary key
+        return inRankOrder(doctorPatientIndex.patientIds(doctorId));
     }
 
     @Override
+    @Transactional
     public Patient changePassword(Integer id, String currentPassword, String newPassword) {
         Optional<Patient> optionalPatient = patientRepository.findById(id);
         if (optionalPatient.isPresent()) {
@@ -94,7 +132,22 @@ public class PatientServiceImpl implements PatientService {
     }
 
     @Override
-    public List<Patient> searchPatientsByName(String name) {
-        return patientRepository.findByNameContainingIgnoreCase(name);
+    @ReplicaRead
+    public List<Patient> searchPatientsByName(String name, int limit) {
+        return inRankOrder(patientSearchIndex.searchByName(name, limit));
+    }
+
+    // Load the matched patients by primary key, keeping the index's order
+    private List<Patient> inRankOrder(List<Integer> ids) {
+        Map<Integer, Patient> byId = new HashMap<>();
+        for (Patient patient : patientRepository.findAllById(ids)) {
+            byId.put(patient.getpId(), patient);
+        }
+        List<Patient> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Patient patient = byId.get(id);
+            if (patient != null) result.add(patient);
+        }
+        return result;
     }
 }
@@ -1,15 +1,22 @@
 package com.hospital.service;
 
+import com.hospital.dto.BatchResult;
+import com.hospital.dto.CursorPage;
+import com.hospital.dto.PrescriptionRow;
 import com.hospital.entity.Prescription;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface PrescriptionService {
 
     Prescription createPrescription(Prescription prescription);
 
+    // Bulk insert: validated up front, written in chunked JDBC batches, one result per item
+    BatchResult createPrescriptions(List<Prescription> prescriptions);
+
     List<Prescription> getAllPrescriptions();
 
     Optional<Prescription> getPrescriptionById(Integer id);
@@ -22,9 +29,16 @@ public interface PrescriptionService {
 
     List<Prescription> getPrescriptionsByPatient(Integer patientId);
 
+    // Keyset pages of a patient's prescriptions, newest first; a page costs the same at any depth
+    CursorPage<Prescription> getPrescriptionsByPatientPage(Integer patientId, String cursor, int limit);
+
     List<Prescription> getPrescriptionsByAppointment(Integer appointmentId);
 
     List<Prescription> getPrescriptionsByDate(LocalDate date);
 
+    // Streams rows dated in [from, to] (open-ended when a bound is null), optionally for one
+    // doctor, to the sink as they are read; nothing is buffered
+    void exportPrescriptions(LocalDate from, LocalDate to, Integer doctorId, Consumer<PrescriptionRow> sink);
+
     boolean existsById(Integer id);
 }
@@ -1,21 +1,65 @@
 package com.hospital.service;
 
+import com.hospital.datasource.ReplicaRead;
+import com.hospital.dto.BatchResult;
+import com.hospital.dto.CursorPage;
+import com.hospital.dto.PrescriptionRow;
 import com.hospital.entity.Prescription;
+import com.hospital.repository.AnalyticsRollupRepository;
+import com.hospital.repository.BatchWriteRepository;
+import com.hospital.repository.BatchWriteRepository.NewPrescription;
+import com.hospital.repository.PrescriptionExportRepository;
 import com.hospital.repository.PrescriptionRepository;
+import com.hospital.util.CursorCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class PrescriptionServiceImpl implements PrescriptionService {
 
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionServiceImpl.class);
+    private static final int MAX_PAGE_SIZE = 500;
+    // Cursor date key for a row without a date; those rows come after every dated one
+    private static final long UNDATED = Long.MIN_VALUE;
+
     @Autowired
     private PrescriptionRepository prescriptionRepository;
 
+    @Autowired
+    private BatchWriteRepository batchWriteRepository;
+
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+
+    @Autowired
+    private PrescriptionExportRepository exportRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${hospital.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${hospital.batch.max-items:10000}")
+    private int maxItems;
+
     @Override
+    @Transactional
     public Prescription createPrescription(Prescription prescription) {
         // Set the current date if not provided
         if (prescription.getDate() == null) {
@@ -37,56 +81,187 @@ public class PrescriptionServiceImpl implements PrescriptionService {
             prescription.setApId(prescription.getAppointment().getApId());
         }
         
-        System.out.println("Creating prescription: " + prescription);
+        log.debug("Creating prescription for patient {} by doctor {}", prescription.getPId(),
+                prescription.getDoctor() != null ? prescription.getDoctor().getDrId() : null);
         return prescriptionRepository.save(prescription);
     }
 
     @Override
+    public BatchResult createPrescriptions(List<Prescription> prescriptions) {
+        if (prescriptions.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " prescriptions per batch");
+        }
+        BatchResult.Item[] results = new BatchResult.Item[prescriptions.size()];
+        List<NewPrescription> rows = new ArrayList<>(prescriptions.size());
+        Set<Integer> doctorIds = new HashSet<>();
+        Set<Integer> patientIds = new HashSet<>();
+        Set<Integer> appointmentIds = new HashSet<>();
+        for (Prescription p : prescriptions) {
+            NewPrescription row = toRow(p);
+            rows.add(row);
+            if (row.doctorId() != null) doctorIds.add(row.doctorId());
+            if (row.patientId() != null) patientIds.add(row.patientId());
+            if (row.appointmentId() != null) appointmentIds.add(row.appointmentId());
+        }
+
+        // One existence query per referenced table instead of one per item
+        Set<Integer> doctors = batchWriteRepository.existingIds("doctor", "dr_id", doctorIds);
+        Set<Integer> patients = batchWriteRepository.existingIds("patient", "p_id", patientIds);
+        Set<Integer> appointments = batchWriteRepository.existingIds("appointment", "ap_id", appointmentIds);
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            NewPrescription row = rows.get(i);
+            String error = row.doctorId() == null ? "doctor is required"
+                    : row.patientId() == null ? "patient is required"
+                    : !doctors.contains(row.doctorId()) ? "Doctor not found with id: " + row.doctorId()
+                    : !patients.contains(row.patientId()) ? "Patient not found with id: " + row.patientId()
+                    : row.appointmentId() != null && !appointments.contains(row.appointmentId())
+                            ? "Appointment not found with id: " + row.appointmentId()
+                    : null;
+            if (error != null) {
+                results[i] = BatchResult.Item.failed(i, null, error);
+            } else {
+                valid.add(i);
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += chunkSize) {
+            insertChunk(rows, valid.subList(from, Math.min(from + chunkSize, valid.size())), results);
+        }
+        return BatchResult.of(results);
+    }
+
+    // One transaction per chunk. If the batch fails (e.g. a doctor deleted since validation),
+    // the chunk is retried row by row so only the offending items are reported as failed.
+    private void insertChunk(List<NewPrescription> rows, List<Integer> indexes, BatchResult.Item[] results) {
+        List<NewPrescription> chunk = indexes.stream().map(rows::get).toList();
+        try {
+            List<Integer> ids = transactionTemplate.execute(status -> batchWriteRepository.insertPrescriptions(chunk));
+            for (int k = 0; k < indexes.size(); k++) {
+                results[indexes.get(k)] = BatchResult.Item.ok(indexes.get(k), ids.get(k), BatchResult.CREATED);
+            }
+        } catch (DataAccessException batchFailure) {
+            for (int index : indexes) {
+                try {
+                    List<Integer> ids = transactionTemplate.execute(
+                            status -> batchWriteRepository.insertPrescriptions(List.of(rows.get(index))));
+                    results[index] = BatchResult.Item.ok(index, ids.get(0), BatchResult.CREATED);
+                } catch (DataAccessException e) {
+                    results[index] = BatchResult.Item.failed(index, null, e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    // Same defaults as createPrescription
+    private static NewPrescription toRow(Prescription p) {
+        Integer patientId = p.getPatient() != null && p.getPatient().getpId() != null ? p.getPatient().getpId() : p.getPId();
+        Integer appointmentId = p.getAppointment() != null && p.getAppointment().getApId() != null
+                ? p.getAppointment().getApId() : p.getApId();
+        return new NewPrescription(p.getMedicine(), p.getAdvice(), p.getRemark(),
+                p.getStatus() != null ? p.getStatus() : "Active",
+                p.getDate() != null ? p.getDate() : LocalDate.now(),
+                p.getDoctor() != null ? p.getDoctor().getDrId() : null,
+                patientId, appointmentId);
+    }
+
+    @Override
+    @ReplicaRead
     public List<Prescription> getAllPrescriptions() {
         return prescriptionRepository.findAll();
     }
 
     @Override
+    @ReplicaRead
     public Optional<Prescription> getPrescriptionById(Integer id) {
         return prescriptionRepository.findById(id);
     }
 
     @Override
+    @Transactional
     public Prescription updatePrescription(Prescription prescription) {
+        // The rollup sees the new day through updated_at; the old one has to be marked, in the
+        // same transaction as the save
+        if (prescription.getId() != null) {
+            rollupRepository.markPrescriptionDayDirty(prescription.getId(), prescription.getDate());
+        }
         return prescriptionRepository.save(prescription);
     }
 
     @Override
+    @Transactional
     public void deletePrescription(Integer id) {
+        rollupRepository.markPrescriptionDayDirty(id, null);
         prescriptionRepository.deleteById(id);
     }
 
     @Override
+    @ReplicaRead
     public List<Prescription> getPrescriptionsByDoctor(Integer doctorId) {
         return prescriptionRepository.findByDoctorDrId(doctorId);
     }
 
     @Override
+    @ReplicaRead
     public List<Prescription> getPrescriptionsByPatient(Integer patientId) {
-        System.out.println("Fetching prescriptions for patient ID: " + patientId);
         List<Prescription> prescriptions = prescriptionRepository.findByPatientPId(patientId);
-        System.out.println("Found " + prescriptions.size() + " prescriptions for patient ID: " + patientId);
-        if (!prescriptions.isEmpty()) {
-            System.out.println("First prescription details: " + prescriptions.get(0));
-        }
+        log.debug("Found {} prescriptions for patient {}", prescriptions.size(), patientId);
         return prescriptions;
     }
 
     @Override
+    @ReplicaRead
+    public CursorPage<Prescription> getPrescriptionsByPatientPage(Integer patientId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one row past the limit to find out whether another page exists
+        List<Prescription> rows = new ArrayList<>(size + 1);
+        int undatedBefore = Integer.MAX_VALUE;
+        if (cursor == null || cursor.isBlank()) {
+            rows.addAll(prescriptionRepository.findPageByPatient(patientId, PageRequest.of(0, size + 1)));
+        } else {
+            long[] after = CursorCodec.decode(cursor, 2);
+            if (after[0] == UNDATED) {
+                undatedBefore = (int) after[1];
+            } else {
+                rows.addAll(prescriptionRepository.findPageByPatientBefore(patientId, LocalDate.ofEpochDay(after[0]),
+                        (int) after[1], PageRequest.of(0, size + 1)));
+            }
+        }
+        // Dated rows ran out within this page: carry on with the undated ones
+        if (rows.size() <= size) {
+            rows.addAll(prescriptionRepository.findUndatedPageByPatientBefore(patientId, undatedBefore,
+                    PageRequest.of(0, size + 1 - rows.size())));
+        }
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Prescription> items = rows.subList(0, size);
+        Prescription last = items.get(size - 1);
+        long dateKey = last.getDate() != null ? last.getDate().toEpochDay() : UNDATED;
+        return new CursorPage<>(items, CursorCodec.encode(dateKey, last.getId()));
+    }
+
+    @Override
+    @ReplicaRead
     public List<Prescription> getPrescriptionsByAppointment(Integer appointmentId) {
         return prescriptionRepository.findByAppointmentApId(appointmentId);
     }
 
     @Override
+    @ReplicaRead
     public List<Prescription> getPrescriptionsByDate(LocalDate date) {
         return prescriptionRepository.findByDate(date);
     }
 
+    @Override
+    @ReplicaRead
+    public void exportPrescriptions(LocalDate from, LocalDate to, Integer doctorId, Consumer<PrescriptionRow> sink) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        exportRepository.stream(from, to, doctorId, sink);
+    }
+
     @Override
     public boolean existsById(Integer id) {
         return prescriptionRepository.existsById(id);
@@ -0,0 +1,10 @@
+package com.hospital.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Thrown when a doctor already has an active appointment at the requested date and time
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SlotUnavailableException extends RuntimeException {
+    public SlotUnavailableException(String message) { super(message); }
+}
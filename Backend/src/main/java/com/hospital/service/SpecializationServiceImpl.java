@@ -1,9 +1,16 @@
 package com.hospital.service;
 
+import com.hospital.cache.DirectoryCache;
+import com.hospital.datasource.ReplicaRead;
 import com.hospital.entity.Specialization;
+import com.hospital.index.AppointmentIndexes;
+import com.hospital.index.DoctorSearchIndex;
 import com.hospital.repository.SpecializationRepository;
+import com.hospital.util.AfterCommit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,37 +21,62 @@ public class SpecializationServiceImpl implements SpecializationService {
     @Autowired
     private SpecializationRepository specializationRepository;
 
+    @Autowired
+    private DirectoryCache directoryCache;
+
+    @Autowired
+    private AppointmentIndexes appointmentIndexes;
+
+    @Autowired
+    private DoctorSearchIndex doctorSearchIndex;
+
     @Override
+    @Transactional
     public Specialization createSpecialization(Specialization specialization) {
-        return specializationRepository.save(specialization);
+        Specialization saved = specializationRepository.save(specialization);
+        AfterCommit.run(directoryCache::invalidate);
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = DirectoryCache.SPECIALIZATIONS, key = "'all'")
     public List<Specialization> getAllSpecializations() {
-        return specializationRepository.findAll();
+        return List.copyOf(specializationRepository.findAll());
     }
 
     @Override
+    @ReplicaRead
     public Optional<Specialization> getSpecializationById(Integer id) {
         return specializationRepository.findById(id);
     }
 
     @Override
+    @Transactional
     public Specialization updateSpecialization(Specialization specialization) {
-        return specializationRepository.save(specialization);
+        Specialization saved = specializationRepository.save(specialization);
+        AfterCommit.run(directoryCache::invalidate);
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteSpecialization(Integer id) {
         specializationRepository.deleteById(id);
+        AfterCommit.run(directoryCache::invalidate);
+        // Specialization.doctors cascades (and from there their appointments)
+        appointmentIndexes.rebuild();
+        AfterCommit.run(doctorSearchIndex::rebuild);
     }
 
     @Override
+    @ReplicaRead
     public Optional<Specialization> getSpecializationByName(String name) {
         return specializationRepository.findByName(name);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsById(Integer id) {
         return specializationRepository.existsById(id);
     }
@@ -0,0 +1,26 @@
+package com.hospital.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Defers the in-memory side effects of a write (indexes, caches, push events) until the
+// surrounding transaction commits, so a rollback never leaves them ahead of the database.
+// Outside a transaction the write is already committed and the action runs straight away.
+// Actions must not write to the database: the committed connection is still bound.
+public final class AfterCommit {
+
+    private AfterCommit() {}
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.hospital.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque cursor tokens for keyset pagination: the sort key of the last row, base64url-encoded
+public final class CursorCodec {
+
+    private CursorCodec() {}
+
+    public static String encode(long... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (long key : keys) {
+            if (sb.length() > 0) sb.append(':');
+            sb.append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long[] decode(String cursor, int expectedKeys) {
+        long[] keys;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            keys = new long[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                keys[i] = Long.parseLong(parts[i]);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        if (keys.length != expectedKeys) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,103 @@
+package com.hospital.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+
+// Row formats of the streaming exports. Rows are flat records: NDJSON writes one JSON object
+// per line, CSV writes a header from the record components and one RFC 4180 line per row.
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() { return contentType; }
+
+    public String extension() { return extension; }
+
+    public static ExportFormat parse(String value) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) return format;
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value + " (use csv or ndjson)");
+    }
+
+    // Stateless per row: nothing is kept between rows, so memory stays flat for any row count
+    public interface RowWriter<T extends Record> {
+        void start(OutputStream out) throws IOException;
+
+        void write(T row, OutputStream out) throws IOException;
+    }
+
+    public <T extends Record> RowWriter<T> writer(Class<T> rowType, ObjectMapper objectMapper) {
+        if (this == NDJSON) {
+            return new RowWriter<>() {
+                @Override
+                public void start(OutputStream out) {}
+
+                @Override
+                public void write(T row, OutputStream out) throws IOException {
+                    out.write(objectMapper.writeValueAsBytes(row));
+                    out.write('\n');
+                }
+            };
+        }
+        RecordComponent[] components = rowType.getRecordComponents();
+        return new RowWriter<>() {
+            @Override
+            public void start(OutputStream out) throws IOException {
+                StringBuilder line = new StringBuilder();
+                for (RecordComponent component : components) {
+                    if (line.length() > 0) line.append(',');
+                    line.append(component.getName());
+                }
+                out.write(line.append("\r\n").toString().getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void write(T row, OutputStream out) throws IOException {
+                StringBuilder line = new StringBuilder(128);
+                for (int i = 0; i < components.length; i++) {
+                    if (i > 0) line.append(',');
+                    appendCsv(line, value(components[i], row));
+                }
+                out.write(line.append("\r\n").toString().getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    private static Object value(RecordComponent component, Record row) {
+        try {
+            return component.getAccessor().invoke(row);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + component.getName(), e);
+        }
+    }
+
+    // Quoted only when the value holds a separator, a quote or a line break; null is an empty field
+    static void appendCsv(StringBuilder line, Object value) {
+        if (value == null) return;
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
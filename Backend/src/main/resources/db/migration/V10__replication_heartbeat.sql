@@ -0,0 +1,7 @@
+-- Heartbeat for read-replica routing: the primary updates the single row every
+-- hospital.datasource.replica.heartbeat-interval and the replica's copy shows how far behind it is.
+CREATE TABLE IF NOT EXISTS replication_heartbeat (
+    id INT NOT NULL,
+    beat_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,31 @@
+-- One active booking per doctor/date/time.
+-- slot_hold is 1 while an appointment holds its slot and NULL once cancelled; unique indexes
+-- ignore NULLs, so cancelled appointments do not block the slot from being booked again.
+-- Existing duplicate active bookings keep the slot on the earliest (lowest ap_id) row only.
+SET @dbname = DATABASE();
+
+SET @column = (SELECT COUNT(1) FROM information_schema.columns WHERE table_schema = @dbname AND table_name = 'appointment' AND column_name = 'slot_hold');
+SET @sql1 = IF(@column = 0, 'ALTER TABLE appointment ADD COLUMN slot_hold BIT(1) NULL;', 'SELECT 1');
+PREPARE stmt1 FROM @sql1;
+EXECUTE stmt1;
+DEALLOCATE PREPARE stmt1;
+
+UPDATE appointment SET slot_hold = CASE WHEN UPPER(status) = 'CANCELLED' THEN NULL ELSE 1 END;
+
+-- Release the slot on later duplicates so the unique index can be built. Their status is left
+-- as is; saving one again re-claims the slot and is refused as a conflict until it is moved or cancelled.
+UPDATE appointment later
+JOIN appointment earlier
+  ON earlier.doctor_id = later.doctor_id
+ AND earlier.appointment_date = later.appointment_date
+ AND earlier.appointment_time = later.appointment_time
+ AND earlier.slot_hold = 1
+ AND earlier.ap_id < later.ap_id
+SET later.slot_hold = NULL
+WHERE later.slot_hold = 1;
+
+SET @index1 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'appointment' AND index_name = 'uk_appointment_doctor_slot');
+SET @sql2 = IF(@index1 = 0, 'CREATE UNIQUE INDEX uk_appointment_doctor_slot ON appointment(doctor_id, appointment_date, appointment_time, slot_hold);', 'SELECT 1');
+PREPARE stmt2 FROM @sql2;
+EXECUTE stmt2;
+DEALLOCATE PREPARE stmt2;
@@ -0,0 +1,20 @@
+-- Durable queue for outgoing email (see OutboundEmail / EmailDispatcher)
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255),
+    body TEXT,
+    html BIT(1) NOT NULL,
+    attachment_path VARCHAR(1024),
+    status VARCHAR(16) NOT NULL,
+    attempts INT NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    claim_token VARCHAR(36),
+    claimed_at DATETIME(6),
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6),
+    last_error VARCHAR(1000),
+    PRIMARY KEY (id),
+    INDEX idx_email_outbox_due (status, next_attempt_at),
+    INDEX idx_email_outbox_claim (claim_token)
+);
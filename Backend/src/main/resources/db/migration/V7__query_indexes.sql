@@ -0,0 +1,77 @@
+-- Indexes for the queries in AppointmentRepository, PatientRepository and PrescriptionRepository.
+-- Kept in step with the @Table(indexes = ...) declarations on the entities; QueryPlanTest fails
+-- if any repository query falls back to a full table scan.
+--
+-- appointment: (doctor_id, appointment_date, appointment_time) lookups already use the unique
+--   slot key from V5.
+--   patient_date  - patient listings and the patient stats card (status + date covered)
+--   doctor        - doctor listings, keyset pages and exports ordered by ap_id, distinct
+--                   patients per doctor
+--   status        - status filters, status pages and exports ordered by ap_id
+--   date_slot     - date filters, prescriptions by appointment date and the availability index
+--                   rebuild (date range covering doctor, time and status)
+-- patient: login/register look up by email; blood group filter. Name and contact searches are
+--   infix LIKEs that no B-tree index serves; they go through PatientSearchIndex.
+-- prescription: patient history is ordered by date, doctor/day sheets filter by date; the
+--   single-column idx_prescription_patient becomes a prefix of patient_date and is dropped.
+SET @dbname = DATABASE();
+
+SET @index1 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'appointment' AND index_name = 'idx_appointment_patient_date');
+SET @sql1 = IF(@index1 = 0, 'CREATE INDEX idx_appointment_patient_date ON appointment(patient_id, appointment_date, status);', 'SELECT 1');
+PREPARE stmt1 FROM @sql1;
+EXECUTE stmt1;
+DEALLOCATE PREPARE stmt1;
+
+SET @index2 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'appointment' AND index_name = 'idx_appointment_doctor');
+SET @sql2 = IF(@index2 = 0, 'CREATE INDEX idx_appointment_doctor ON appointment(doctor_id, ap_id);', 'SELECT 1');
+PREPARE stmt2 FROM @sql2;
+EXECUTE stmt2;
+DEALLOCATE PREPARE stmt2;
+
+SET @index3 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'appointment' AND index_name = 'idx_appointment_status');
+SET @sql3 = IF(@index3 = 0, 'CREATE INDEX idx_appointment_status ON appointment(status, ap_id);', 'SELECT 1');
+PREPARE stmt3 FROM @sql3;
+EXECUTE stmt3;
+DEALLOCATE PREPARE stmt3;
+
+SET @index4 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'appointment' AND index_name = 'idx_appointment_date_slot');
+SET @sql4 = IF(@index4 = 0, 'CREATE INDEX idx_appointment_date_slot ON appointment(appointment_date, doctor_id, appointment_time, status);', 'SELECT 1');
+PREPARE stmt4 FROM @sql4;
+EXECUTE stmt4;
+DEALLOCATE PREPARE stmt4;
+
+SET @index5 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'patient' AND index_name = 'idx_patient_email');
+SET @sql5 = IF(@index5 = 0, 'CREATE INDEX idx_patient_email ON patient(email);', 'SELECT 1');
+PREPARE stmt5 FROM @sql5;
+EXECUTE stmt5;
+DEALLOCATE PREPARE stmt5;
+
+SET @index6 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'patient' AND index_name = 'idx_patient_blood_group');
+SET @sql6 = IF(@index6 = 0, 'CREATE INDEX idx_patient_blood_group ON patient(blood_group);', 'SELECT 1');
+PREPARE stmt6 FROM @sql6;
+EXECUTE stmt6;
+DEALLOCATE PREPARE stmt6;
+
+SET @index7 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'prescription' AND index_name = 'idx_prescription_patient_date');
+SET @sql7 = IF(@index7 = 0, 'CREATE INDEX idx_prescription_patient_date ON prescription(p_id, created_at);', 'SELECT 1');
+PREPARE stmt7 FROM @sql7;
+EXECUTE stmt7;
+DEALLOCATE PREPARE stmt7;
+
+SET @index8 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'prescription' AND index_name = 'idx_prescription_doctor_date');
+SET @sql8 = IF(@index8 = 0, 'CREATE INDEX idx_prescription_doctor_date ON prescription(doctor_id, created_at);', 'SELECT 1');
+PREPARE stmt8 FROM @sql8;
+EXECUTE stmt8;
+DEALLOCATE PREPARE stmt8;
+
+SET @index9 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'prescription' AND index_name = 'idx_prescription_appointment');
+SET @sql9 = IF(@index9 = 0, 'CREATE INDEX idx_prescription_appointment ON prescription(ap_id);', 'SELECT 1');
+PREPARE stmt9 FROM @sql9;
+EXECUTE stmt9;
+DEALLOCATE PREPARE stmt9;
+
+SET @index10 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'prescription' AND index_name = 'idx_prescription_patient');
+SET @sql10 = IF(@index10 > 0, 'DROP INDEX idx_prescription_patient ON prescription;', 'SELECT 1');
+PREPARE stmt10 FROM @sql10;
+EXECUTE stmt10;
+DEALLOCATE PREPARE stmt10;
@@ -0,0 +1,69 @@
+-- Daily analytics rollups (see AnalyticsRollupJob). appointment and prescription get an
+-- updated_at column that the job uses as its watermark; existing rows are stamped now so the
+-- first run, which rebuilds every day anyway, starts from a consistent point.
+SET @dbname = DATABASE();
+
+SET @column1 = (SELECT COUNT(1) FROM information_schema.columns WHERE table_schema = @dbname AND table_name = 'appointment' AND column_name = 'updated_at');
+SET @sql1 = IF(@column1 = 0, 'ALTER TABLE appointment ADD COLUMN updated_at DATETIME(6) NULL;', 'SELECT 1');
+PREPARE stmt1 FROM @sql1;
+EXECUTE stmt1;
+DEALLOCATE PREPARE stmt1;
+
+SET @column2 = (SELECT COUNT(1) FROM information_schema.columns WHERE table_schema = @dbname AND table_name = 'prescription' AND column_name = 'updated_at');
+SET @sql2 = IF(@column2 = 0, 'ALTER TABLE prescription ADD COLUMN updated_at DATETIME(6) NULL;', 'SELECT 1');
+PREPARE stmt2 FROM @sql2;
+EXECUTE stmt2;
+DEALLOCATE PREPARE stmt2;
+
+UPDATE appointment SET updated_at = NOW(6) WHERE updated_at IS NULL;
+UPDATE prescription SET updated_at = NOW(6) WHERE updated_at IS NULL;
+
+SET @index3 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'appointment' AND index_name = 'idx_appointment_updated');
+SET @sql3 = IF(@index3 = 0, 'CREATE INDEX idx_appointment_updated ON appointment(updated_at);', 'SELECT 1');
+PREPARE stmt3 FROM @sql3;
+EXECUTE stmt3;
+DEALLOCATE PREPARE stmt3;
+
+SET @index4 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'prescription' AND index_name = 'idx_prescription_updated');
+SET @sql4 = IF(@index4 = 0, 'CREATE INDEX idx_prescription_updated ON prescription(updated_at);', 'SELECT 1');
+PREPARE stmt4 FROM @sql4;
+EXECUTE stmt4;
+DEALLOCATE PREPARE stmt4;
+
+-- Rebuilding a prescription day reads it by created_at
+SET @index5 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'prescription' AND index_name = 'idx_prescription_date');
+SET @sql5 = IF(@index5 = 0, 'CREATE INDEX idx_prescription_date ON prescription(created_at, doctor_id);', 'SELECT 1');
+PREPARE stmt5 FROM @sql5;
+EXECUTE stmt5;
+DEALLOCATE PREPARE stmt5;
+
+CREATE TABLE IF NOT EXISTS appointment_daily_rollup (
+    rollup_day DATE NOT NULL,
+    doctor_id INT NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    specialization_id INT,
+    total BIGINT NOT NULL,
+    PRIMARY KEY (rollup_day, doctor_id, status),
+    INDEX idx_appointment_rollup_doctor (doctor_id, rollup_day),
+    INDEX idx_appointment_rollup_specialization (specialization_id, rollup_day)
+);
+
+CREATE TABLE IF NOT EXISTS prescription_daily_rollup (
+    rollup_day DATE NOT NULL,
+    doctor_id INT NOT NULL,
+    total BIGINT NOT NULL,
+    PRIMARY KEY (rollup_day, doctor_id),
+    INDEX idx_prescription_rollup_doctor (doctor_id, rollup_day)
+);
+
+CREATE TABLE IF NOT EXISTS analytics_rollup_state (
+    fact VARCHAR(32) NOT NULL,
+    watermark DATETIME(6) NOT NULL,
+    PRIMARY KEY (fact)
+);
+
+CREATE TABLE IF NOT EXISTS analytics_dirty_day (
+    fact VARCHAR(32) NOT NULL,
+    rollup_day DATE NOT NULL,
+    PRIMARY KEY (fact, rollup_day)
+);
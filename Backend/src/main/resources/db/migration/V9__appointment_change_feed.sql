@@ -0,0 +1,20 @@
+-- Delta sync for appointment pollers (GET /api/appointments/changes). Inserts and updates are
+-- read back by (updated_at, ap_id); patient_updated serves the per-patient feed. Deletes leave
+-- a row in appointment_tombstone, purged after hospital.changes.tombstone-retention.
+SET @dbname = DATABASE();
+
+SET @index1 = (SELECT COUNT(1) FROM information_schema.statistics WHERE table_schema = @dbname AND table_name = 'appointment' AND index_name = 'idx_appointment_patient_updated');
+SET @sql1 = IF(@index1 = 0, 'CREATE INDEX idx_appointment_patient_updated ON appointment(patient_id, updated_at);', 'SELECT 1');
+PREPARE stmt1 FROM @sql1;
+EXECUTE stmt1;
+DEALLOCATE PREPARE stmt1;
+
+CREATE TABLE IF NOT EXISTS appointment_tombstone (
+    ap_id INT NOT NULL,
+    patient_id INT NULL,
+    doctor_id INT NULL,
+    deleted_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (ap_id),
+    INDEX idx_tombstone_deleted (deleted_at),
+    INDEX idx_tombstone_patient_deleted (patient_id, deleted_at)
+);
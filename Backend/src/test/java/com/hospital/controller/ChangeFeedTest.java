@@ -0,0 +1,149 @@
+package com.hospital.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.util.CursorCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ChangeFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void pollReturnsInsertsUpdatesAndDeletesSinceTheToken() throws Exception {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Feed");
+        doctorRepository.save(doctor);
+        Patient patient = new Patient();
+        patient.setName("Feed Patient");
+        patientRepository.save(patient);
+        Patient other = new Patient();
+        other.setName("Other Feed Patient");
+        patientRepository.save(other);
+        String feed = "/api/appointments/changes?patientId=" + patient.getpId();
+
+        JsonNode start = poll(feed);
+        assertEquals(0, start.get("changed").size());
+        String token = start.get("next").asText();
+
+        Thread.sleep(5);
+        Appointment kept = appointmentRepository.save(appointment(doctor, patient, 9));
+        Appointment removed = appointmentRepository.save(appointment(doctor, patient, 10));
+        appointmentRepository.save(appointment(doctor, other, 11));
+        Thread.sleep(5);
+
+        JsonNode inserted = poll(feed + "&since=" + token);
+        assertEquals(List.of(kept.getApId(), removed.getApId()), ids(inserted.get("changed")));
+        assertEquals(0, inserted.get("deleted").size());
+        token = inserted.get("next").asText();
+
+        mockMvc.perform(get(feed + "&since=" + token)).andExpect(status().isNoContent());
+
+        kept.setStatus("CONFIRMED");
+        appointmentRepository.save(kept);
+        appointmentRepository.deleteById(removed.getApId());
+        Thread.sleep(5);
+
+        JsonNode changed = poll(feed + "&since=" + token + "&limit=1");
+        assertEquals(List.of(kept.getApId()), ids(changed.get("changed")));
+        assertEquals("CONFIRMED", changed.get("changed").get(0).get("status").asText());
+        assertEquals(List.of(removed.getApId()), ids(changed.get("deleted")));
+        assertFalse(changed.get("hasMore").asBoolean());
+    }
+
+    @Test
+    void limitPagesThroughChangesInWriteOrder() throws Exception {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Feed Pages");
+        doctorRepository.save(doctor);
+        Patient patient = new Patient();
+        patient.setName("Feed Pages Patient");
+        patientRepository.save(patient);
+        String feed = "/api/appointments/changes?limit=2&patientId=" + patient.getpId();
+
+        String token = poll(feed).get("next").asText();
+        Thread.sleep(5);
+        List<Integer> written = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            written.add(appointmentRepository.save(appointment(doctor, patient, 9 + i)).getApId());
+        }
+        Thread.sleep(5);
+
+        List<Integer> read = new ArrayList<>();
+        JsonNode page;
+        do {
+            page = poll(feed + "&since=" + token);
+            read.addAll(ids(page.get("changed")));
+            token = page.get("next").asText();
+        } while (page.get("hasMore").asBoolean());
+        assertEquals(written, read);
+    }
+
+    @Test
+    void badAndExpiredTokensAreRejected() throws Exception {
+        mockMvc.perform(get("/api/appointments/changes?since=not-a-token")).andExpect(status().isBadRequest());
+        String ancient = CursorCodec.encode(0L, 0L);
+        mockMvc.perform(get("/api/appointments/changes?since=" + ancient)).andExpect(status().isGone());
+    }
+
+    private JsonNode poll(String url) throws Exception {
+        String body = mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode node = objectMapper.readTree(body);
+        assertTrue(node.hasNonNull("next"));
+        return node;
+    }
+
+    private static List<Integer> ids(JsonNode array) {
+        List<Integer> ids = new ArrayList<>();
+        array.forEach(node -> ids.add(node.isInt() ? node.asInt() : node.get("apId").asInt()));
+        return ids;
+    }
+
+    private static Appointment appointment(Doctor doctor, Patient patient, int hour) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDate(LocalDate.of(2030, 1, 15));
+        appointment.setAppointmentTime(LocalTime.of(hour, 0));
+        return appointment;
+    }
+}
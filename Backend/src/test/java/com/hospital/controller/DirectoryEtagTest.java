@@ -0,0 +1,93 @@
+package com.hospital.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DirectoryEtagTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void specializationListIsRevalidatedUntilAWriteChangesIt() throws Exception {
+        String etag = etagOf("/api/specializations");
+        mockMvc.perform(get("/api/specializations").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        JsonNode created = send(post("/api/specializations"), "{\"name\":\"Etag Studies\"}", 201);
+        String afterCreate = notModifiedMiss("/api/specializations", etag);
+
+        int id = created.get("id").asInt();
+        send(put("/api/specializations/" + id), "{\"id\":" + id + ",\"name\":\"Etag Studies II\"}", 200);
+        String afterUpdate = notModifiedMiss("/api/specializations", afterCreate);
+
+        mockMvc.perform(delete("/api/specializations/" + id)).andExpect(status().isNoContent());
+        String afterDelete = notModifiedMiss("/api/specializations", afterUpdate);
+        // The tag is derived from the body, so the original list gets its original tag back
+        assertEquals(etag, afterDelete);
+    }
+
+    @Test
+    void doctorTagsOnlyChangeWithTheirOwnContent() throws Exception {
+        int first = send(post("/api/doctors"), "{\"name\":\"Dr Etag One\"}", 201).get("drId").asInt();
+        String firstEtag = etagOf("/api/doctors/" + first);
+        String listEtag = etagOf("/api/doctors");
+
+        int second = send(post("/api/doctors"), "{\"name\":\"Dr Etag Two\"}", 201).get("drId").asInt();
+        // Another doctor's write clears the caches but leaves this response, and its tag, as it was
+        mockMvc.perform(get("/api/doctors/" + first).header("If-None-Match", firstEtag))
+                .andExpect(status().isNotModified());
+        notModifiedMiss("/api/doctors", listEtag);
+
+        send(put("/api/doctors/" + first), "{\"name\":\"Dr Etag Renamed\"}", 200);
+        String renamed = notModifiedMiss("/api/doctors/" + first, firstEtag);
+        mockMvc.perform(get("/api/doctors/" + first).header("If-None-Match", renamed))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(delete("/api/doctors/" + second)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/doctors/" + second)).andExpect(status().isNotFound());
+    }
+
+    private String etagOf(String path) throws Exception {
+        String etag = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag, path);
+        return etag;
+    }
+
+    // The old tag no longer matches: a full 200 response comes back under a new tag
+    private String notModifiedMiss(String path, String staleEtag) throws Exception {
+        String etag = mockMvc.perform(get(path).header("If-None-Match", staleEtag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(staleEtag, etag);
+        return etag;
+    }
+
+    private JsonNode send(MockHttpServletRequestBuilder request, String json, int expectedStatus) throws Exception {
+        String body = mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString();
+        return body.isEmpty() ? null : objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,139 @@
+package com.hospital.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Prescription;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.repository.PrescriptionRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WithMockUser
+class ExportStreamingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private Integer doctorId;
+    private final LocalDate day = LocalDate.of(2001, 3, 1);
+
+    @BeforeAll
+    void seed() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Export");
+        doctorRepository.save(doctor);
+        doctorId = doctor.getDrId();
+        Doctor other = new Doctor();
+        other.setName("Dr Other");
+        doctorRepository.save(other);
+        Patient patient = new Patient();
+        patient.setName("Export, \"Quoted\" Patient");
+        patientRepository.save(patient);
+
+        for (int i = 0; i < 5; i++) {
+            prescriptionRepository.save(prescription(doctor, patient, day.plusDays(i), "Medicine " + i));
+        }
+        prescriptionRepository.save(prescription(other, patient, day, "Other"));
+    }
+
+    @Test
+    void csvIsFilteredByDoctorAndDateRange() throws Exception {
+        MvcResult result = export("/api/prescriptions/export?format=csv&doctorId=" + doctorId
+                + "&from=" + day.plusDays(1) + "&to=" + day.plusDays(3));
+        List<String> lines = body(result, false).lines().toList();
+
+        assertEquals("id,date,status,medicine,advice,remark,doctorId,doctorName,patientId,patientName,appointmentId",
+                lines.get(0));
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(1).contains("," + day.plusDays(1) + ",Active,Medicine 1,"));
+        assertTrue(lines.get(1).contains(",Dr Export,"));
+        assertTrue(lines.get(1).contains(",\"Export, \"\"Quoted\"\" Patient\","));
+        assertTrue(lines.get(3).contains("Medicine 3"));
+    }
+
+    @Test
+    void gzippedNdjsonHasOneObjectPerRow() throws Exception {
+        MvcResult result = export("/api/prescriptions/export?format=ndjson&gzip=true&from=" + day + "&to=" + day);
+        List<String> lines = body(result, true).lines().toList();
+
+        assertEquals(2, lines.size());
+        for (String line : lines) {
+            JsonNode row = objectMapper.readTree(line);
+            assertEquals(day.toString(), row.get("date").asText());
+            assertEquals("Export, \"Quoted\" Patient", row.get("patientName").asText());
+        }
+    }
+
+    @Test
+    void rejectsBadRequestsBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/prescriptions/export?format=xml")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/prescriptions/export?from=" + day + "&to=" + day.minusDays(1)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult export(String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url)).andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Content-Disposition"))
+                .andReturn();
+    }
+
+    private static String body(MvcResult result, boolean gzip) throws IOException {
+        byte[] bytes = result.getResponse().getContentAsByteArray();
+        if (gzip) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+                bytes = in.readAllBytes();
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Prescription prescription(Doctor doctor, Patient patient, LocalDate date, String medicine) {
+        Prescription prescription = new Prescription();
+        prescription.setDoctor(doctor);
+        prescription.setPatient(patient);
+        prescription.setMedicine(medicine);
+        prescription.setDate(date);
+        return prescription;
+    }
+}
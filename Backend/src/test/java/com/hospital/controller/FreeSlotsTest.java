@@ -0,0 +1,100 @@
+package com.hospital.controller;
+
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Specialization;
+import com.hospital.repository.PatientRepository;
+import com.hospital.repository.SpecializationRepository;
+import com.hospital.service.AppointmentService;
+import com.hospital.service.DoctorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FreeSlotsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private SpecializationRepository specializationRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void freeSlotsAndAvailabilityReflectBookings() throws Exception {
+        Specialization specialization = new Specialization();
+        specialization.setName("Free Slot Medicine");
+        specializationRepository.save(specialization);
+        Doctor first = doctor("Dr First Free", specialization);
+        Doctor second = doctor("Dr Second Free", specialization);
+        Patient patient = new Patient();
+        patient.setName("Free Slot Patient");
+        patientRepository.save(patient);
+        LocalDate day = LocalDate.now().plusDays(5);
+
+        appointmentService.bookSlot(first.getDrId(), day, LocalTime.of(9, 0), patient.getpId(), "On grid");
+        appointmentService.bookSlot(first.getDrId(), day, LocalTime.of(9, 20), patient.getpId(), "Off grid");
+
+        // Default opening hours are 09:00-17:00: 32 slots, two of them taken
+        mockMvc.perform(get("/api/appointments/free-slots")
+                        .param("doctorId", first.getDrId().toString())
+                        .param("from", day.toString())
+                        .param("to", day.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(30)))
+                .andExpect(jsonPath("$[0].time").value("09:30:00"))
+                .andExpect(jsonPath("$[*].time", not(hasItem("09:15:00"))));
+
+        mockMvc.perform(get("/api/appointments/check")
+                        .param("doctorId", first.getDrId().toString())
+                        .param("date", day.toString())
+                        .param("time", "09:15"))
+                .andExpect(jsonPath("$.available").value(true));
+        mockMvc.perform(get("/api/appointments/check")
+                        .param("doctorId", first.getDrId().toString())
+                        .param("date", day.toString())
+                        .param("time", "09:20"))
+                .andExpect(jsonPath("$.available").value(false));
+
+        mockMvc.perform(get("/api/appointments/free-slots/specialization/" + specialization.getId())
+                        .param("from", day.toString())
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].doctorId").value(second.getDrId()))
+                .andExpect(jsonPath("$[0].time").value("09:00:00"))
+                .andExpect(jsonPath("$[1].doctorId").value(second.getDrId()))
+                .andExpect(jsonPath("$[1].time").value("09:15:00"))
+                .andExpect(jsonPath("$[2].doctorId").value(first.getDrId()))
+                .andExpect(jsonPath("$[2].time").value("09:30:00"));
+    }
+
+    private Doctor doctor(String name, Specialization specialization) {
+        Doctor doctor = new Doctor();
+        doctor.setName(name);
+        doctor.setSpecialization(specialization);
+        return doctorService.saveDoctor(doctor);
+    }
+}
@@ -0,0 +1,169 @@
+package com.hospital.controller;
+
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Prescription;
+import com.hospital.entity.Specialization;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.PrescriptionRepository;
+import com.hospital.repository.SpecializationRepository;
+import com.hospital.service.DoctorService;
+import com.hospital.service.PatientService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Every list endpoint must issue a constant number of SQL statements however many rows it
+// returns: associations are fetched with the listing query and responses are DTOs, so
+// serialization never lazy-loads per row.
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ResponseQueryCountTest {
+
+    private static final int ROWS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SpecializationRepository specializationRepository;
+
+    // Saved through the services so the search indexes know about them
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    private Statistics statistics;
+    private Integer specializationId;
+    private Integer doctorId;
+    private Integer patientId;
+    private Integer appointmentId;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeAll
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        Specialization specialization = new Specialization();
+        specialization.setName("Query Count");
+        specializationId = specializationRepository.save(specialization).getId();
+
+        // One doctor with several patients, appointments and prescriptions, so that any
+        // per-row lazy load would show up as extra statements
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Count");
+        doctor.setSpecialization(specialization);
+        doctorService.saveDoctor(doctor);
+        doctorId = doctor.getDrId();
+
+        for (int i = 0; i < ROWS; i++) {
+            Patient patient = new Patient();
+            patient.setName("Count Patient " + i);
+            patient.setContact("55500" + i);
+            patient.setBloodGroup("QC+");
+            patientService.save(patient);
+            patientId = patient.getpId();
+
+            for (LocalDate date : List.of(today.minusDays(1), today, today.plusDays(1))) {
+                Appointment appointment = new Appointment();
+                appointment.setDoctor(doctor);
+                appointment.setPatient(patient);
+                appointment.setAppointmentDate(date);
+                appointment.setAppointmentTime(LocalTime.of(8, 0).plusMinutes(15L * i));
+                appointmentRepository.save(appointment);
+                appointmentId = appointment.getApId();
+
+                Prescription prescription = new Prescription();
+                prescription.setDoctor(doctor);
+                prescription.setPatient(patient);
+                prescription.setPId(patient.getpId());
+                prescription.setAppointment(appointment);
+                prescription.setApId(appointment.getApId());
+                prescription.setMedicine("m" + i);
+                prescriptionRepository.save(prescription);
+            }
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void listEndpointsIssueAConstantNumberOfQueries() {
+        List<String> endpoints = List.of(
+                "/api/appointments",
+                "/api/appointments/doctor/" + doctorId,
+                "/api/appointments/patient/" + patientId,
+                "/api/appointments/status/PENDING",
+                "/api/appointments/date/" + today,
+                "/api/appointments/doctor/" + doctorId + "/upcoming",
+                "/api/appointments/doctor/" + doctorId + "/past",
+                "/api/appointments/doctor/" + doctorId + "/today",
+                "/api/appointments/doctor/" + doctorId + "/date/" + today,
+                "/api/appointments/" + doctorId + "/patients",
+                "/api/appointments/page",
+                "/api/appointments/status/PENDING/page",
+                "/api/appointments/doctor/" + doctorId + "/page",
+                "/api/appointments/doctor/" + doctorId + "/past/page",
+                "/api/patients",
+                "/api/patients/bloodgroup/QC+",
+                "/api/patients/search?name=count",
+                "/api/patients/search-contact?contact=555",
+                "/api/patients/doctor/" + doctorId,
+                "/api/doctors",
+                "/api/doctors/specialization/" + specializationId,
+                "/api/doctors/search?name=count",
+                "/api/specializations",
+                "/api/prescriptions",
+                "/api/prescriptions/doctor/" + doctorId,
+                "/api/prescriptions/patient/" + patientId,
+                "/api/prescriptions/appointment/" + appointmentId,
+                "/api/prescriptions/date/" + today);
+
+        List<Executable> checks = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            checks.add(() -> assertSingleQuery(endpoint));
+        }
+        assertAll(checks);
+    }
+
+    private void assertSingleQuery(String endpoint) throws Exception {
+        statistics.clear();
+        int status = mockMvc.perform(get(endpoint)).andReturn().getResponse().getStatus();
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(200, status, endpoint);
+        // Cached directory reads may not hit the database at all
+        assertTrue(statements <= 1, endpoint + " issued " + statements + " statements");
+    }
+}
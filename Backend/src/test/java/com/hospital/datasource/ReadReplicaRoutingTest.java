@@ -0,0 +1,179 @@
+package com.hospital.datasource;
+
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.service.AppointmentService;
+import com.hospital.service.PatientService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two in-memory H2 databases stand in for the primary and the replica; replicate() copies the
+// primary over, and the replica's rows are edited afterwards to tell which one served a read
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "hospital.datasource.replica.url=jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        // The test drives the heartbeat itself
+        "hospital.datasource.replica.heartbeat-interval=3600000"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @TempDir
+    private Path dumpDir;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replicaReadsGoToTheReplicaUntilItFallsBehind() {
+        Patient patient = newPatient("Primary Name");
+        replicateAndCatchUp();
+        replica.update("UPDATE patient SET name = 'Replica Name' WHERE p_id = ?", patient.getpId());
+
+        assertEquals("Replica Name", patientService.getPatientById(patient.getpId()).orElseThrow().getName());
+        // Writes and reads on write paths stay on the primary
+        assertTrue(patientService.existsById(patient.getpId()));
+        assertEquals("Primary Name", primary.queryForObject(
+                "SELECT name FROM patient WHERE p_id = ?", String.class, patient.getpId()));
+
+        // The replica's copy of the heartbeat is now a minute old
+        replica.update("UPDATE replication_heartbeat SET beat_at = ?", System.currentTimeMillis() - 60_000);
+        lagMonitor.check();
+        assertFalse(lagMonitor.isHealthy());
+        assertEquals("Primary Name", patientService.getPatientById(patient.getpId()).orElseThrow().getName());
+    }
+
+    @Test
+    void aWriteAfterAReplicaReadInTheSameRequestGoesToThePrimary() {
+        Patient patient = newPatient("Before");
+        replicateAndCatchUp();
+
+        // Like open-in-view: one EntityManager for the whole request
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            Patient read = patientService.getPatientById(patient.getpId()).orElseThrow();
+            read.setName("After");
+            patientService.updatePatient(read);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+
+        assertEquals("After", primary.queryForObject(
+                "SELECT name FROM patient WHERE p_id = ?", String.class, patient.getpId()));
+    }
+
+    @Test
+    void aBookingIsReadBackFromThePrimaryUntilTheReplicaHasIt() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Replica");
+        doctorRepository.save(doctor);
+        Patient patient = newPatient("Booking Patient");
+        replicateAndCatchUp();
+
+        signIn("booking.patient@routing.test");
+        Appointment booked = appointmentService.bookSlot(doctor.getDrId(), LocalDate.now().plusDays(3),
+                LocalTime.of(10, 0), patient.getpId(), "Checkup");
+
+        // The replica has not got it yet: the patient who booked still sees it, others read the replica
+        assertEquals(List.of(booked.getApId()), appointmentIds(patient.getpId()));
+        signIn("someone.else@routing.test");
+        assertEquals(List.of(), appointmentIds(patient.getpId()));
+
+        // Once a heartbeat written after the booking has replicated, the patient is back on the replica
+        lagMonitor.check();
+        replicate();
+        lagMonitor.check();
+        replica.update("UPDATE appointment SET descript = 'Replica copy' WHERE ap_id = ?", booked.getApId());
+        signIn("booking.patient@routing.test");
+        assertEquals("Replica copy", appointmentService.getAppointmentsByPatient(patient.getpId()).get(0).getDescript());
+    }
+
+    private Patient newPatient(String name) {
+        Patient patient = new Patient();
+        patient.setName(name);
+        return patientService.save(patient);
+    }
+
+    private List<Integer> appointmentIds(Integer patientId) {
+        return appointmentService.getAppointmentsByPatient(patientId).stream().map(Appointment::getApId).toList();
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    // Beat, copy the primary (heartbeat included) to the replica, and let the monitor see it
+    private void replicateAndCatchUp() {
+        lagMonitor.check();
+        replicate();
+        lagMonitor.check();
+        assertTrue(lagMonitor.isHealthy());
+    }
+
+    private void replicate() {
+        String dump = dumpDir.resolve("primary.sql").toString();
+        primary.execute("SCRIPT TO '" + dump + "'");
+        replica.execute("DROP ALL OBJECTS");
+        replica.execute("RUNSCRIPT FROM '" + dump + "'");
+    }
+}
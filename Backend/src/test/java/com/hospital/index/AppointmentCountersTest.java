@@ -0,0 +1,137 @@
+package com.hospital.index;
+
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.service.AppointmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AppointmentCountersTest {
+
+    @Autowired
+    private AppointmentCounters counters;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void createUpdateAndDeleteMoveTheCounters() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Counted");
+        doctorRepository.save(doctor);
+        Patient patient = new Patient();
+        patient.setName("Counted Patient");
+        patientRepository.save(patient);
+        LocalDate day = LocalDate.of(2031, 3, 14);
+        // Other tests write through the repositories directly, so start from a recount
+        counters.rebuild();
+        long total = counters.total();
+        long pending = counters.countByStatus("PENDING");
+        long confirmed = counters.countByStatus("CONFIRMED");
+
+        Appointment booked = appointmentService.bookSlot(doctor.getDrId(), day, LocalTime.of(9, 0), patient.getpId(), "Counted");
+        assertEquals(total + 1, counters.total());
+        assertEquals(pending + 1, counters.countByStatus("PENDING"));
+        assertEquals(1, counters.countByDate(day));
+        assertEquals(1, counters.countByDoctor(doctor.getDrId()));
+
+        appointmentService.updateStatus(booked.getApId(), "CONFIRMED");
+        assertEquals(total + 1, counters.total());
+        assertEquals(pending, counters.countByStatus("PENDING"));
+        assertEquals(confirmed + 1, counters.countByStatus("CONFIRMED"));
+
+        appointmentService.deleteAppointment(booked.getApId());
+        assertEquals(total, counters.total());
+        assertEquals(confirmed, counters.countByStatus("CONFIRMED"));
+        assertEquals(0, counters.countByDate(day));
+        assertEquals(0, counters.countByDoctor(doctor.getDrId()));
+
+        // The incremental counts agree with a recount
+        counters.rebuild();
+        assertEquals(total, counters.total());
+        assertEquals(pending, counters.countByStatus("PENDING"));
+    }
+
+    @Test
+    void indexesOnlySeeCommittedWrites() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Rolled Back");
+        doctorRepository.save(doctor);
+        Patient patient = new Patient();
+        patient.setName("Rolled Back Patient");
+        patientRepository.save(patient);
+        LocalDate day = LocalDate.of(2031, 4, 2);
+        LocalTime time = LocalTime.of(10, 0);
+        counters.rebuild();
+        long total = counters.total();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            appointmentService.bookSlot(doctor.getDrId(), day, time, patient.getpId(), "Rolled back");
+            status.setRollbackOnly();
+        });
+        assertEquals(total, counters.total());
+        assertEquals(0, counters.countByDoctor(doctor.getDrId()));
+        assertTrue(availabilityIndex.isFree(doctor.getDrId(), day, time));
+
+        // Inside an outer transaction the booking is counted once that transaction commits
+        transactionTemplate.executeWithoutResult(status -> {
+            appointmentService.bookSlot(doctor.getDrId(), day, time, patient.getpId(), "Committed");
+            assertEquals(total, counters.total());
+        });
+        assertEquals(total + 1, counters.total());
+        assertEquals(1, counters.countByDoctor(doctor.getDrId()));
+        assertFalse(availabilityIndex.isFree(doctor.getDrId(), day, time));
+    }
+
+    @Test
+    void rebuildWaitsForAWriteInProgress() throws Exception {
+        CountDownLatch saved = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> counters.duringWrite(() -> {
+            saved.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(saved.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(counters::rebuild);
+        Thread.sleep(100);
+        assertFalse(rebuild.isDone());
+
+        release.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+        rebuild.get(5, TimeUnit.SECONDS);
+    }
+}
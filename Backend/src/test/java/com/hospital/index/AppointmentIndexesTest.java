@@ -0,0 +1,88 @@
+package com.hospital.index;
+
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.service.AppointmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+class AppointmentIndexesTest {
+
+    @Autowired
+    private AppointmentIndexes appointmentIndexes;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private DoctorPatientIndex doctorPatientIndex;
+
+    @Autowired
+    private AppointmentCounters counters;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @MockitoSpyBean
+    private AppointmentRepository appointmentRepository;
+
+    @Test
+    void aBookingDuringARebuildIsNotLost() throws Exception {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Rebuilt");
+        doctorRepository.save(doctor);
+        Patient patient = new Patient();
+        patient.setName("Rebuilt Patient");
+        patientRepository.save(patient);
+        LocalDate day = LocalDate.now().plusDays(5);
+        LocalTime time = LocalTime.of(11, 0);
+
+        // The availability rebuild reads a snapshot from before the booking (the doctor has no
+        // rows yet), then waits before swapping it in while the booking runs
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch booked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            queried.countDown();
+            booked.await(500, TimeUnit.MILLISECONDS);
+            return List.of();
+        }).when(appointmentRepository).findActiveSlotsFrom(any());
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(appointmentIndexes::rebuild);
+        assertTrue(queried.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> booking = CompletableFuture.runAsync(() -> {
+            appointmentService.bookSlot(doctor.getDrId(), day, time, patient.getpId(), "Booked during a rebuild");
+            booked.countDown();
+        });
+        rebuild.get(5, TimeUnit.SECONDS);
+        booking.get(5, TimeUnit.SECONDS);
+
+        assertFalse(availabilityIndex.isFree(doctor.getDrId(), day, time));
+        assertEquals(1, counters.countByDoctor(doctor.getDrId()));
+        assertEquals(1, doctorPatientIndex.patientCount(doctor.getDrId()));
+    }
+}
@@ -0,0 +1,113 @@
+package com.hospital.index;
+
+import com.hospital.dto.FreeSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvailabilityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+    private final AvailabilityIndex index = new AvailabilityIndex(LocalTime.of(9, 0), LocalTime.of(17, 0), 30);
+
+    @Test
+    void aBookingMarksItsSlotUntilCancelled() {
+        AppointmentSnapshot booked = appointment(1, 7, "10:00", "PENDING");
+        index.apply(null, booked);
+        assertFalse(index.isFree(7, DAY, LocalTime.of(10, 0)));
+        assertTrue(index.isFree(7, DAY, LocalTime.of(10, 15)));
+        assertTrue(index.isFree(8, DAY, LocalTime.of(10, 0)));
+        assertFalse(freeTimes(7).contains(LocalTime.of(10, 0)));
+        assertEquals(31, freeTimes(7).size());
+
+        index.apply(booked, appointment(1, 7, "10:00", "CANCELLED"));
+        assertTrue(index.isFree(7, DAY, LocalTime.of(10, 0)));
+        assertEquals(32, freeTimes(7).size());
+    }
+
+    @Test
+    void slotsAfterTheFirst64AreTracked() {
+        // 16:45 is slot 67, in the second word of the bitmap
+        AppointmentSnapshot late = appointment(1, 7, "16:45", "CONFIRMED");
+        index.apply(null, late);
+        assertFalse(index.isFree(7, DAY, LocalTime.of(16, 45)));
+        assertTrue(index.isFree(7, DAY, LocalTime.of(16, 30)));
+        assertFalse(freeTimes(7).contains(LocalTime.of(16, 45)));
+
+        index.apply(late, appointment(1, 7, "16:30", "CONFIRMED"));
+        assertTrue(index.isFree(7, DAY, LocalTime.of(16, 45)));
+        assertFalse(index.isFree(7, DAY, LocalTime.of(16, 30)));
+    }
+
+    @Test
+    void offGridBookingsOnlyTakeTheirExactTime() {
+        AppointmentSnapshot offGrid = appointment(1, 7, "10:10", "PENDING");
+        index.apply(null, offGrid);
+        // Same answer as the booking path, which only refuses the exact time
+        assertTrue(index.isFree(7, DAY, LocalTime.of(10, 0)));
+        assertFalse(index.isFree(7, DAY, LocalTime.of(10, 10)));
+        // Listings do not offer a slot an off-grid booking starts in
+        assertFalse(freeTimes(7).contains(LocalTime.of(10, 0)));
+
+        index.apply(offGrid, null);
+        assertTrue(index.isFree(7, DAY, LocalTime.of(10, 10)));
+        assertTrue(freeTimes(7).contains(LocalTime.of(10, 0)));
+    }
+
+    @Test
+    void sharedSlotsStayTakenUntilTheirLastOccupantLeaves() {
+        AppointmentSnapshot first = appointment(1, 7, "10:00", "PENDING");
+        AppointmentSnapshot second = appointment(2, 7, "10:00", "PENDING");
+        AppointmentSnapshot offGrid = appointment(3, 7, "10:05", "PENDING");
+        index.apply(null, first);
+        index.apply(null, second);
+        index.apply(null, offGrid);
+
+        index.apply(first, null);
+        assertFalse(index.isFree(7, DAY, LocalTime.of(10, 0)));
+        index.apply(second, null);
+        assertTrue(index.isFree(7, DAY, LocalTime.of(10, 0)));
+        assertFalse(freeTimes(7).contains(LocalTime.of(10, 0)));
+
+        index.apply(offGrid, null);
+        assertTrue(freeTimes(7).contains(LocalTime.of(10, 0)));
+    }
+
+    @Test
+    void firstFreeSlotsInterleaveDoctorsOfOneSpecializationInTimeOrder() {
+        index.registerDoctor(7, 1);
+        index.registerDoctor(8, 1);
+        index.registerDoctor(9, 2);
+        index.registerDoctor(10, null);
+        index.apply(null, appointment(1, 7, "09:00", "PENDING"));
+
+        List<FreeSlot> first = index.firstFreeSlots(1, DAY, 4);
+        assertEquals(List.of(
+                new FreeSlot(8, DAY, LocalTime.of(9, 0)),
+                new FreeSlot(7, DAY, LocalTime.of(9, 15)),
+                new FreeSlot(8, DAY, LocalTime.of(9, 15)),
+                new FreeSlot(7, DAY, LocalTime.of(9, 30))), first);
+
+        // The search carries on into the next day once one is full
+        List<FreeSlot> spanning = index.firstFreeSlots(2, DAY, 33);
+        assertEquals(33, spanning.size());
+        assertEquals(new FreeSlot(9, DAY.plusDays(1), LocalTime.of(9, 0)), spanning.get(32));
+        assertTrue(index.firstFreeSlots(3, DAY, 5).isEmpty());
+        assertTrue(index.firstFreeSlots(1, DAY, 0).isEmpty());
+    }
+
+    private List<LocalTime> freeTimes(Integer doctorId) {
+        return index.freeSlots(doctorId, DAY, DAY).stream().map(FreeSlot::time).toList();
+    }
+
+    private static AppointmentSnapshot appointment(Integer apId, Integer doctorId, String time, String status) {
+        return new AppointmentSnapshot(apId, doctorId, 100, DAY, LocalTime.parse(time), status);
+    }
+}
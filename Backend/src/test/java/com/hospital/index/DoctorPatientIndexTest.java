@@ -0,0 +1,98 @@
+package com.hospital.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DoctorPatientIndexTest {
+
+    private final DoctorPatientIndex index = new DoctorPatientIndex();
+
+    @Test
+    void patientLeavesWithTheirLastAppointment() {
+        AppointmentSnapshot first = appointment(1, 7, 100);
+        AppointmentSnapshot second = appointment(2, 7, 100);
+        index.apply(null, first);
+        index.apply(null, second);
+        index.apply(null, appointment(3, 7, 50));
+        assertEquals(List.of(50, 100), index.patientIds(7));
+
+        index.apply(first, null);
+        assertEquals(2, index.patientCount(7));
+        // Moving the remaining appointment to another doctor takes the patient along
+        index.apply(second, appointment(2, 8, 100));
+        assertEquals(List.of(50), index.patientIds(7));
+        assertEquals(List.of(100), index.patientIds(8));
+        assertEquals(0, index.patientCount(9));
+    }
+
+    @Test
+    void aDeltaFromBeforeARebuildIsSkipped() {
+        long current = index.epoch();
+        // Stands in for a write that committed before a rebuild whose snapshot already has it
+        index.apply(null, appointment(1, 7, 100), current - 1);
+        assertEquals(0, index.patientCount(7));
+
+        index.apply(null, appointment(1, 7, 100), current);
+        assertEquals(List.of(100), index.patientIds(7));
+    }
+
+    @Test
+    void concurrentJoinsAndLeavesSettleOnTheFinalCounts() throws Exception {
+        int threads = 8;
+        int rounds = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int patientId = t % 2;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    AppointmentSnapshot booked = appointment(i, 3, patientId);
+                    index.apply(null, booked);
+                    index.apply(booked, null);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(0, index.patientCount(3));
+
+        index.apply(null, appointment(1, 3, 1));
+        assertEquals(List.of(1), index.patientIds(3));
+    }
+
+    @Test
+    void concurrentWritersAreNotLost() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    index.apply(null, appointment(offset + i, 1, offset + i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(threads * perThread, index.patientCount(1));
+    }
+
+    private static AppointmentSnapshot appointment(int apId, int doctorId, int patientId) {
+        return new AppointmentSnapshot(apId, doctorId, patientId, LocalDate.of(2030, 1, 1), LocalTime.NOON, "Pending");
+    }
+}
@@ -0,0 +1,71 @@
+package com.hospital.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NGramIndexTest {
+
+    private final NGramIndex index = new NGramIndex(2);
+
+    @Test
+    void shortQueriesAreASinglePostingLookup() {
+        index.put(1, "Anna", null);
+        index.put(2, "Bob", null);
+        index.put(3, "Hannah", null);
+        assertEquals(List.of(1, 3), index.search("a", 10, 0));
+        assertEquals(List.of(1, 3), index.search("nn", 10, 0));
+        assertEquals(List.of(2), index.search("B", 10, 0));
+        assertTrue(index.search("x", 10, 0).isEmpty());
+        assertTrue(index.search("  ", 10, 0).isEmpty());
+    }
+
+    @Test
+    void sharedTrigramsAloneDoNotMatch() {
+        // 1 and 3 hold both trigrams of "abcd" but not the string itself
+        index.put(1, "abcxbcd", null);
+        index.put(2, "xabcd", null);
+        index.put(3, "abc bcd", null);
+        assertEquals(List.of(2), index.search("abcd", 10, 0));
+        // Every trigram of "abcab" is in "bcabc", which does not contain it
+        index.put(4, "bcabc", null);
+        assertTrue(index.search("abcab", 10, 0).isEmpty());
+    }
+
+    @Test
+    void resultsAreRankedExactThenPrefixThenWordThenAnywhere() {
+        index.put(1, "Mary Ann", null);
+        index.put(2, "Ann", null);
+        index.put(3, "Joanne", null);
+        index.put(4, "Annabel", null);
+        index.put(5, "Anne", null);
+        assertEquals(List.of(2, 5, 4, 1, 3), index.search("ann", 10, 0));
+        assertEquals(List.of(2, 5), index.search("ann", 2, 0));
+        assertTrue(index.search("ann", 0, 0).isEmpty());
+    }
+
+    @Test
+    void aDocumentMatchedThroughTwoFieldsKeepsItsBestRank() {
+        index.put(1, "Lee Smith", "smith@example.com");
+        index.put(2, "Smith", "other@example.com");
+        index.put(3, "Jo Bloggs", "smithers@example.com");
+        assertEquals(List.of(2, 1, 3), index.search("smith", 10, 0, 1));
+        assertEquals(List.of(1, 3), index.search("smith", 10, 1));
+    }
+
+    @Test
+    void replacingOrRemovingADocumentUpdatesItsPostings() {
+        index.put(1, "Carol", null);
+        index.put(1, "Diane", null);
+        assertTrue(index.search("carol", 10, 0).isEmpty());
+        assertTrue(index.search("c", 10, 0).isEmpty());
+        assertEquals(List.of(1), index.search("dia", 10, 0));
+
+        index.remove(1);
+        assertTrue(index.search("d", 10, 0).isEmpty());
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,78 @@
+package com.hospital.index;
+
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.service.DoctorService;
+import com.hospital.service.PatientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class SearchIndexTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private DoctorSearchIndex doctorSearchIndex;
+
+    @Test
+    void patientSavesUpdatesAndDeletesReachTheIndex() {
+        Patient patient = new Patient();
+        patient.setName("Quillon Vey");
+        patient.setEmail("qvey@search.test");
+        patient.setContact("0201 555 7788");
+        patient.setMobileNo("07700 931 442");
+        Integer id = patientService.save(patient).getpId();
+
+        assertEquals(List.of(id), patientSearchIndex.searchByName("quillon", 10));
+        assertEquals(List.of(id), patientSearchIndex.searchByName("QVEY@search", 10));
+        assertEquals(List.of(id), patientSearchIndex.searchByContact("931 44", 10));
+        assertEquals(List.of(id), patientSearchIndex.searchByContact("555 77", 10));
+        // Name and email are not searched as contact details, nor the reverse
+        assertTrue(patientSearchIndex.searchByContact("quillon", 10).isEmpty());
+        assertTrue(patientSearchIndex.searchByName("07700 931", 10).isEmpty());
+        assertEquals(List.of(id), patientService.searchPatientsByName("Quillon", 10).stream().map(Patient::getpId).toList());
+
+        patient.setName("Quillon Marr");
+        patient.setMobileNo("07700 000 111");
+        patientService.updatePatient(patient);
+        assertTrue(patientSearchIndex.searchByName("quillon vey", 10).isEmpty());
+        assertEquals(List.of(id), patientSearchIndex.searchByName("marr", 10));
+        assertTrue(patientSearchIndex.searchByContact("931 44", 10).isEmpty());
+        assertEquals(List.of(id), patientSearchIndex.searchByContact("000 111", 10));
+
+        patientService.deletePatient(id);
+        assertTrue(patientSearchIndex.searchByName("quillon", 10).isEmpty());
+        assertTrue(patientSearchIndex.searchByContact("000 111", 10).isEmpty());
+    }
+
+    @Test
+    void doctorSavesUpdatesAndDeletesReachTheIndex() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Ysolde Farquar");
+        Integer id = doctorService.saveDoctor(doctor).getDrId();
+        assertEquals(List.of(id), doctorSearchIndex.searchByName("ysolde", 10));
+        assertEquals(List.of(id), doctorService.searchDoctorsByName("Farquar", 10).stream().map(Doctor::getDrId).toList());
+
+        doctor.setName("Dr Ysolde Brannock");
+        doctorService.updateDoctor(doctor);
+        assertTrue(doctorSearchIndex.searchByName("farquar", 10).isEmpty());
+        assertEquals(List.of(id), doctorSearchIndex.searchByName("brannock", 10));
+
+        doctorService.deleteDoctor(id);
+        assertTrue(doctorSearchIndex.searchByName("ysolde", 10).isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package com.hospital.observability;
+
+import com.hospital.security.JwtUtil;
+import com.hospital.service.PrescriptionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+// Boot tests turn metrics export off unless asked
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Test
+    @WithMockUser
+    void scrapeCoversEndpointsRepositoriesPoolAndAuth() throws Exception {
+        mockMvc.perform(get("/api/doctors").header("X-Request-Id", "req-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Request-Id", "req-1"));
+        jwtUtil.verify(jwtUtil.generateToken("metrics@example.com", "PATIENT"));
+        passwordEncoder.matches("secret", passwordEncoder.encode("secret"));
+        prescriptionService.exportPrescriptions(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 1, 2), null, row -> {});
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        for (String metric : new String[] {
+                "http_server_requests_seconds_count{", "uri=\"/api/doctors\"",
+                "spring_data_repository_invocations_seconds_count{",
+                "hospital_repository_jdbc_seconds_count{",
+                "hikaricp_connections_acquire_seconds_count{",
+                "hospital_auth_jwt_verify_seconds_count{cache=\"miss\"",
+                "hospital_auth_password_seconds_count{",
+                "cache_gets_total{cache=\"jwtClaims\""}) {
+            assertTrue(scrape.contains(metric), "missing " + metric);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.hospital.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hospital.index.AppointmentSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppointmentBroadcasterTest {
+
+    private final AppointmentBroadcaster broadcaster = new AppointmentBroadcaster(
+            new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(), 4, Duration.ofMinutes(1));
+
+    @AfterEach
+    void stop() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void eventsFanOutToTheDoctorThePatientAndAdminStreams() throws Exception {
+        RecordingEmitter doctor1 = subscribe(1, null);
+        RecordingEmitter doctor2 = subscribe(2, null);
+        RecordingEmitter patient7 = subscribe(null, 7);
+        RecordingEmitter admin = subscribe(null, null);
+
+        broadcaster.created(snapshot(100, 1, 7));
+        // Moved from doctor 1 to doctor 2: both hear about it
+        broadcaster.updated(snapshot(100, 1, 7), snapshot(100, 2, 7));
+        broadcaster.deleted(snapshot(101, 2, 8));
+
+        awaitEvents(admin, 3);
+        awaitEvents(doctor2, 2);
+        assertEquals(List.of("CREATED 100", "UPDATED 100"), doctor1.events());
+        assertEquals(List.of("UPDATED 100", "DELETED 101"), doctor2.events());
+        assertEquals(List.of("CREATED 100", "UPDATED 100"), patient7.events());
+        assertEquals(List.of("CREATED 100", "UPDATED 100", "DELETED 101"), admin.events());
+        assertEquals(4, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void slowSubscriberBacklogIsCoalescedIntoOneResync() throws Exception {
+        RecordingEmitter fast = subscribe(null, null);
+        RecordingEmitter slow = subscribe(null, null);
+        awaitFrames(slow, 1);
+        slow.stall();
+
+        // Paced so the fast subscriber keeps up
+        for (int i = 0; i < 20; i++) {
+            broadcaster.created(snapshot(200 + i, 1, 1));
+            awaitEvents(fast, i + 1);
+        }
+        assertEquals(20, fast.events().size());
+        slow.resume();
+        awaitFrames(slow, 3);
+        Thread.sleep(50);
+
+        // The frame in flight when it stalled, then one resync for everything it missed
+        assertEquals(List.of("CREATED 200", "resync"), slow.events());
+    }
+
+    private RecordingEmitter subscribe(Integer doctorId, Integer patientId) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(doctorId, patientId, emitter);
+        return emitter;
+    }
+
+    private static AppointmentSnapshot snapshot(int apId, int doctorId, int patientId) {
+        return new AppointmentSnapshot(apId, doctorId, patientId, LocalDate.of(2030, 1, 1), LocalTime.of(9, 0), "PENDING");
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.events().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(emitter.events().size() >= count, "only got " + emitter.events());
+    }
+
+    private static void awaitFrames(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.frames.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(emitter.frames.size() >= count, "only got " + emitter.frames);
+    }
+
+    // Records what would go on the wire; stall() blocks the next send like a client that stopped reading
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String frame = builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(Object::toString)
+                    .collect(Collectors.joining());
+            frames.add(frame);
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void stall() {
+            gate = new CountDownLatch(1);
+        }
+
+        void resume() {
+            gate.countDown();
+        }
+
+        // "TYPE apId" per appointment event, "resync" per resync; heartbeats left out
+        List<String> events() {
+            return frames.stream()
+                    .filter(frame -> !frame.startsWith(":"))
+                    .map(frame -> frame.contains("event:resync") ? "resync"
+                            : frame.replaceAll("(?s).*\"type\":\"(\\w+)\",\"apId\":(\\d+).*", "$1 $2"))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.hospital.repository;
+
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Prescription;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs EXPLAIN on the SQL behind every query method of AppointmentRepository, PatientRepository
+// and PrescriptionRepository and fails if any table is read by a full scan. Methods that have to
+// read the whole table (listings, exports, whole-table aggregates, infix LIKE searches) are
+// listed in FULL_SCAN_ALLOWED with the reason. A new repository method fails the coverage test
+// until it is added to one of the two lists.
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    private static final Map<String, String> FULL_SCAN_ALLOWED = Map.of(
+            "AppointmentRepository.findAll", "unfiltered listing",
+            "AppointmentRepository.streamAll", "full export",
+            "AppointmentRepository.countGroupedByStatus", "whole-table aggregate for the counters rebuild",
+            "AppointmentRepository.countGroupedByDate", "whole-table aggregate for the counters rebuild",
+            "AppointmentRepository.countGroupedByDoctor", "whole-table aggregate for the counters rebuild",
+            "AppointmentRepository.countGroupedByDoctorAndPatient", "whole-table aggregate, loads DoctorPatientIndex",
+            "PatientRepository.findSearchFields", "loads PatientSearchIndex",
+            "PatientRepository.findByNameContainingIgnoreCase", "infix LIKE",
+            "PatientRepository.findByContactContaining", "infix LIKE",
+            "PrescriptionRepository.findAll", "unfiltered listing");
+
+    // H2 plans annotate each table access with /* schema.index: condition */, or
+    // /* schema.table.tableScan */ when no index is used
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* (\\w+\\.\\w+(?:\\.tableScan)?)(: [^*]+)? \\*/");
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Integer doctorId;
+    private Integer patientId;
+    private Integer appointmentId;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeAll
+    void seed() {
+        // Enough rows, spread over enough doctors and patients, that a scan costs more than an
+        // index lookup
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Doctor doctor = new Doctor();
+            doctor.setName("Dr Plan " + i);
+            doctors.add(doctor);
+        }
+        doctors = doctorRepository.saveAll(doctors);
+        doctorId = doctors.get(0).getDrId();
+
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Patient patient = new Patient();
+            patient.setName("Plan Patient " + i);
+            patient.setEmail("plan" + i + "@plan.test");
+            patient.setBloodGroup(i % 2 == 0 ? "A+" : "O-");
+            patients.add(patient);
+        }
+        patients = patientRepository.saveAll(patients);
+        patientId = patients.get(0).getpId();
+
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctors.get(i % doctors.size()));
+            appointment.setPatient(patients.get(i % patients.size()));
+            appointment.setAppointmentDate(today.minusDays(200).plusDays(i / 2));
+            appointment.setAppointmentTime(LocalTime.of(9, 0).plusMinutes(15L * (i % 2)));
+            appointment.setStatus(i % 10 == 0 ? Appointment.STATUS_CANCELLED : "COMPLETED");
+            appointments.add(appointment);
+        }
+        appointments = appointmentRepository.saveAll(appointments);
+        appointmentId = appointments.get(0).getApId();
+
+        List<Prescription> prescriptions = new ArrayList<>();
+        for (Appointment appointment : appointments) {
+            Prescription prescription = new Prescription();
+            prescription.setDoctor(appointment.getDoctor());
+            prescription.setPatient(appointment.getPatient());
+            prescription.setPId(appointment.getPatient().getpId());
+            prescription.setAppointment(appointment);
+            prescription.setApId(appointment.getApId());
+            prescription.setMedicine("Plan medicine");
+            prescription.setDate(appointment.getAppointmentDate());
+            prescriptions.add(prescription);
+        }
+        prescriptionRepository.saveAll(prescriptions);
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private Map<String, Runnable> queries() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        String a = "AppointmentRepository.";
+        queries.put(a + "findAll", () -> appointmentRepository.findAll());
+        queries.put(a + "findById", () -> appointmentRepository.findById(appointmentId));
+        queries.put(a + "findByDoctorDrId", () -> appointmentRepository.findByDoctorDrId(doctorId));
+        queries.put(a + "findByPatientPId", () -> appointmentRepository.findByPatientPId(patientId));
+        queries.put(a + "findByStatus", () -> appointmentRepository.findByStatus("PENDING"));
+        queries.put(a + "findByAppointmentDate", () -> appointmentRepository.findByAppointmentDate(today));
+        queries.put(a + "findTodayAppointments", () -> appointmentRepository.findTodayAppointments(doctorId));
+        queries.put(a + "findUpcomingAppointments", () -> appointmentRepository.findUpcomingAppointments(doctorId));
+        queries.put(a + "findPastAppointments", () -> appointmentRepository.findPastAppointments(doctorId));
+        queries.put(a + "findByDoctorDrIdAndAppointmentDate",
+                () -> appointmentRepository.findByDoctorDrIdAndAppointmentDate(doctorId, today));
+        queries.put(a + "findByDoctorDrIdAndAppointmentDateAndAppointmentTime",
+                () -> appointmentRepository.findByDoctorDrIdAndAppointmentDateAndAppointmentTime(doctorId, today, LocalTime.of(9, 0)));
+        queries.put(a + "countGroupedByStatus", () -> appointmentRepository.countGroupedByStatus());
+        queries.put(a + "countGroupedByDate", () -> appointmentRepository.countGroupedByDate());
+        queries.put(a + "countGroupedByDoctor", () -> appointmentRepository.countGroupedByDoctor());
+        queries.put(a + "countGroupedByDoctorAndPatient", () -> appointmentRepository.countGroupedByDoctorAndPatient());
+        queries.put(a + "countByDoctorGroupedByStatusAndBucket",
+                () -> appointmentRepository.countByDoctorGroupedByStatusAndBucket(doctorId));
+        queries.put(a + "countByPatientGroupedByStatusAndBucket",
+                () -> appointmentRepository.countByPatientGroupedByStatusAndBucket(patientId));
+        queries.put(a + "findActiveSlotsFrom", () -> appointmentRepository.findActiveSlotsFrom(today));
+        queries.put(a + "findPageAfter", () -> appointmentRepository.findPageAfter(appointmentId, PAGE));
+        queries.put(a + "findPageByStatusAfter", () -> appointmentRepository.findPageByStatusAfter("PENDING", 0, PAGE));
+        queries.put(a + "findPageByDoctorAfter", () -> appointmentRepository.findPageByDoctorAfter(doctorId, 0, PAGE));
+        queries.put(a + "findPastPageByDoctorAfter", () -> appointmentRepository.findPastPageByDoctorAfter(doctorId, 0, PAGE));
+        LocalDateTime polled = LocalDateTime.now();
+        queries.put(a + "findChangedAfter",
+                () -> appointmentRepository.findChangedAfter(polled, Integer.MAX_VALUE, polled.plusSeconds(5), PAGE));
+        queries.put(a + "findChangedByPatientAfter",
+                () -> appointmentRepository.findChangedByPatientAfter(patientId, polled, Integer.MAX_VALUE, polled.plusSeconds(5), PAGE));
+        queries.put(a + "streamAll", () -> drain(appointmentRepository::streamAll));
+        queries.put(a + "streamByStatus", () -> drain(() -> appointmentRepository.streamByStatus("PENDING")));
+        queries.put(a + "streamByDoctor", () -> drain(() -> appointmentRepository.streamByDoctor(doctorId)));
+        queries.put(a + "streamPastByDoctor", () -> drain(() -> appointmentRepository.streamPastByDoctor(doctorId)));
+
+        String p = "PatientRepository.";
+        queries.put(p + "findByPId", () -> patientRepository.findByPId(patientId));
+        queries.put(p + "findByEmail", () -> patientRepository.findByEmail("plan1@plan.test"));
+        queries.put(p + "findByNameContainingIgnoreCase", () -> patientRepository.findByNameContainingIgnoreCase("plan"));
+        queries.put(p + "findByContactContaining", () -> patientRepository.findByContactContaining("555"));
+        queries.put(p + "findByBloodGroup", () -> patientRepository.findByBloodGroup("AB-"));
+        queries.put(p + "findEmailById", () -> patientRepository.findEmailById(patientId));
+        queries.put(p + "findSearchFields", () -> patientRepository.findSearchFields());
+
+        String r = "PrescriptionRepository.";
+        queries.put(r + "findAll", () -> prescriptionRepository.findAll());
+        queries.put(r + "findById", () -> prescriptionRepository.findById(1));
+        queries.put(r + "findByPatientPId", () -> prescriptionRepository.findByPatientPId(patientId));
+        queries.put(r + "findPageByPatient", () -> prescriptionRepository.findPageByPatient(patientId, PAGE));
+        queries.put(r + "findPageByPatientBefore",
+                () -> prescriptionRepository.findPageByPatientBefore(patientId, today.minusDays(100), Integer.MAX_VALUE, PAGE));
+        queries.put(r + "findUndatedPageByPatientBefore",
+                () -> prescriptionRepository.findUndatedPageByPatientBefore(patientId, Integer.MAX_VALUE, PAGE));
+        queries.put(r + "findByDoctorDrIdAndDate", () -> prescriptionRepository.findByDoctorDrIdAndDate(doctorId, today));
+        queries.put(r + "findByAppointmentIdWithDoctor", () -> prescriptionRepository.findByAppointmentIdWithDoctor(appointmentId));
+        queries.put(r + "findByDoctorDrId", () -> prescriptionRepository.findByDoctorDrId(doctorId));
+        queries.put(r + "findByAppointmentApId", () -> prescriptionRepository.findByAppointmentApId(appointmentId));
+        queries.put(r + "findByDate", () -> prescriptionRepository.findByDate(today));
+        queries.put(r + "countByPatientPId", () -> prescriptionRepository.countByPatientPId(patientId));
+        queries.put(r + "countByDoctorDrId", () -> prescriptionRepository.countByDoctorDrId(doctorId));
+        return queries;
+    }
+
+    @Test
+    void everyRepositoryQueryIsChecked() {
+        TreeSet<String> declared = new TreeSet<>();
+        for (Class<?> repository : List.of(AppointmentRepository.class, PatientRepository.class, PrescriptionRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (!method.isDefault() && !Modifier.isStatic(method.getModifiers()) && !method.isSynthetic()) {
+                    declared.add(repository.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+        assertEquals(declared, new TreeSet<>(queries().keySet()));
+    }
+
+    @Test
+    void noRepositoryQueryFullScansATable() {
+        List<String> failures = new ArrayList<>();
+        queries().forEach((name, query) -> {
+            List<String> statements = CapturedStatements.capture(query);
+            assertFalse(statements.isEmpty(), name + " issued no SQL");
+            if (FULL_SCAN_ALLOWED.containsKey(name)) {
+                return;
+            }
+            for (String sql : statements) {
+                String plan = explain(sql);
+                List<String> scanned = fullScans(plan);
+                if (!scanned.isEmpty()) {
+                    failures.add(name + " scans " + scanned + "\n    " + plan);
+                }
+            }
+        });
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1).replaceAll("\\s+", " ");
+            }
+        });
+    }
+
+    private static List<String> fullScans(String plan) {
+        List<String> scanned = new ArrayList<>();
+        Matcher access = TABLE_ACCESS.matcher(plan);
+        while (access.find()) {
+            // A table scan, or an index walked end to end without a condition
+            if (access.group(1).endsWith(".tableScan") || access.group(2) == null) {
+                scanned.add(access.group(1));
+            }
+        }
+        return scanned;
+    }
+
+    // Stream queries need an open transaction and must be consumed and closed inside it
+    private void drain(java.util.function.Supplier<? extends Stream<?>> query) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<?> rows = query.get()) {
+                rows.forEach(row -> { });
+            }
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package com.hospital.security;
+
+import com.hospital.entity.Patient;
+import com.hospital.repository.PatientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LoginProtectionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @MockitoSpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void repeatedLoginsForOneAccountAreRefusedWith429() throws Exception {
+        // Default email burst is 10
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(patientLogin("nobody@throttle.test", "wrong")).andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(patientLogin("NoBody@throttle.test", "wrong"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        // Other accounts are unaffected
+        mockMvc.perform(patientLogin("somebody@throttle.test", "wrong")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void loginRehashesAPasswordStoredBelowTheConfiguredCost() throws Exception {
+        Patient patient = new Patient();
+        patient.setName("Legacy Hash");
+        patient.setEmail("legacy@rehash.test");
+        patient.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        patientRepository.save(patient);
+
+        mockMvc.perform(patientLogin("legacy@rehash.test", "secret")).andExpect(status().isOk());
+
+        String stored = patientRepository.findByEmail("legacy@rehash.test").orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2a$10$"), stored);
+        assertTrue(passwordEncoder.matches("secret", stored));
+        mockMvc.perform(patientLogin("legacy@rehash.test", "secret")).andExpect(status().isOk());
+    }
+
+    @Test
+    void saturatedHashingPoolRefusesInsteadOfQueueing() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder slow = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 1, Duration.ofSeconds(5),
+                new SimpleMeterRegistry())) {
+            // One hashing, one queued behind it, the third is turned away at once
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+            Thread.sleep(50);
+            TooManyRequestsException refused = assertThrows(TooManyRequestsException.class, () -> encoder.encode("c"));
+            assertEquals(1, refused.getRetryAfterSeconds());
+
+            release.countDown();
+            String a = running.get(5, TimeUnit.SECONDS);
+            String b = queued.get(5, TimeUnit.SECONDS);
+            assertTrue(encoder.matches("a", a));
+            assertTrue(encoder.matches("b", b));
+        }
+    }
+
+    @Test
+    void saturatedHashingOnPatientCreateIsA503() throws Exception {
+        doThrow(new TooManyRequestsException("Too many sign-in attempts, please try again shortly", 1))
+                .when(passwordEncoder).encode(any());
+
+        mockMvc.perform(post("/api/patients")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Busy Admin Create\",\"password\":\"secret\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    private static org.springframework.test.web.servlet.RequestBuilder patientLogin(String email, String password) {
+        return post("/api/auth/patient/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+    }
+}
@@ -0,0 +1,110 @@
+package com.hospital.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TokenRevocationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void aTokenIsRejectedAfterLogout() throws Exception {
+        String bearer = "Bearer " + jwtUtil.generateToken("revoked@logout.test", "ADMIN");
+        mockMvc.perform(get("/api/analytics/dashboard").header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/analytics/dashboard").header("Authorization", bearer))
+                .andExpect(status().isForbidden());
+        // A fresh token for the same user is unaffected
+        String fresh = "Bearer " + jwtUtil.generateToken("revoked@logout.test", "ADMIN");
+        mockMvc.perform(get("/api/analytics/dashboard").header("Authorization", fresh))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void expiredRevocationsAreEvictedBySweep() throws Exception {
+        InMemoryRevocationBackend backend = new InMemoryRevocationBackend();
+        TokenRevocationStore store = new TokenRevocationStore(backend, 1000, 0.01);
+        long now = System.currentTimeMillis();
+        store.revoke("short-lived", now + 50);
+        store.revoke("long-lived", now + 60_000);
+        // Already expired tokens are not recorded at all
+        store.revoke("expired", now - 1);
+        assertEquals(2, store.size());
+
+        Thread.sleep(100);
+        assertFalse(store.isRevoked("short-lived"));
+        store.sweep();
+
+        assertEquals(1, store.size());
+        assertTrue(store.isRevoked("long-lived"));
+        assertEquals(1, backend.fetchSince(0).size());
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 5000; i++) {
+            filter.add("jti-" + i);
+        }
+        // Well past its sizing the false positive rate degrades, but every added value is still found
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(filter.mightContain("jti-" + i), "jti-" + i);
+        }
+    }
+
+    @Test
+    void bloomFilterFalsePositivesStayNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("revoked-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("active-" + i)) falsePositives++;
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void aRevocationOnOneNodeIsVisibleOnAnotherAfterSync() {
+        RevocationBackend shared = new InMemoryRevocationBackend();
+        TokenRevocationStore nodeA = new TokenRevocationStore(shared, 1000, 0.01);
+        TokenRevocationStore nodeB = new TokenRevocationStore(shared, 1000, 0.01);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        nodeA.revoke("jti-a", expiresAt);
+        assertTrue(nodeA.isRevoked("jti-a"));
+        assertFalse(nodeB.isRevoked("jti-a"));
+
+        nodeB.sync();
+        assertTrue(nodeB.isRevoked("jti-a"));
+
+        // Sync only pulls what is new, and the flow works in the other direction too
+        nodeB.revoke("jti-b", expiresAt);
+        nodeB.sync();
+        nodeA.sync();
+        assertTrue(nodeA.isRevoked("jti-b"));
+        assertEquals(2, nodeA.size());
+        assertEquals(2, nodeB.size());
+    }
+}
@@ -0,0 +1,117 @@
+package com.hospital.service;
+
+import com.hospital.dto.TrendSeries;
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Prescription;
+import com.hospital.entity.Specialization;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.repository.SpecializationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class AnalyticsRollupTest {
+
+    @Autowired
+    private AnalyticsRollupJob rollupJob;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private SpecializationRepository specializationRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void trendsFollowCreatesMovesAndDeletes() {
+        Specialization specialization = new Specialization();
+        specialization.setName("Rollup");
+        specializationRepository.save(specialization);
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Rollup");
+        doctor.setSpecialization(specialization);
+        doctorRepository.save(doctor);
+        Patient patient = new Patient();
+        patient.setName("Rollup Patient");
+        patientRepository.save(patient);
+
+        LocalDate first = LocalDate.now().plusDays(30);
+        LocalDate second = first.plusDays(1);
+        Appointment a = appointmentService.bookSlot(doctor.getDrId(), first, LocalTime.of(9, 0), patient.getpId(), null);
+        Appointment b = appointmentService.bookSlot(doctor.getDrId(), first, LocalTime.of(9, 15), patient.getpId(), null);
+        appointmentService.bookSlot(doctor.getDrId(), first, LocalTime.of(9, 30), patient.getpId(), null);
+        Appointment d = appointmentService.bookSlot(doctor.getDrId(), second, LocalTime.of(9, 0), patient.getpId(), null);
+        Prescription kept = prescribe(doctor, patient, a, first);
+        Prescription removed = prescribe(doctor, patient, b, first);
+
+        rollupJob.refresh();
+        assertEquals(List.of(3L, 1L), counts(analyticsService.getAppointmentTrend(first, second, doctor.getDrId(), null, null)));
+        assertEquals(List.of(3L, 1L), counts(analyticsService.getAppointmentTrend(first, second, null, specialization.getId(), null)));
+        assertEquals(2L, analyticsService.getPrescriptionTrend(first, second, doctor.getDrId()).total());
+
+        // Move a to the second day, cancel b, delete d and one prescription: the first day only
+        // reaches the rollup through the dirty-day marks
+        Appointment moved = appointmentService.getAppointmentById(a.getApId()).orElseThrow();
+        moved.setAppointmentDate(second);
+        moved.setAppointmentTime(LocalTime.of(10, 0));
+        appointmentService.updateAppointment(moved);
+        appointmentService.updateStatus(b.getApId(), Appointment.STATUS_CANCELLED);
+        appointmentService.deleteAppointment(d.getApId());
+        prescriptionService.deletePrescription(removed.getId());
+
+        rollupJob.refresh();
+        TrendSeries trend = analyticsService.getAppointmentTrend(first, second, doctor.getDrId(), null, null);
+        assertEquals(List.of(2L, 1L), counts(trend));
+        assertEquals(3L, trend.total());
+        assertNotNull(trend.refreshedAt());
+        assertEquals(List.of(1L, 0L), counts(analyticsService.getAppointmentTrend(first, second, doctor.getDrId(), null, "cancelled")));
+        assertEquals(List.of(1L, 0L), counts(analyticsService.getPrescriptionTrend(first, second, doctor.getDrId())));
+        assertEquals(kept.getId(), prescriptionService.getPrescriptionsByAppointment(a.getApId()).get(0).getId());
+    }
+
+    @Test
+    void rejectsBadRanges() {
+        LocalDate today = LocalDate.now();
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getAppointmentTrend(today, today.minusDays(1), null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getPrescriptionTrend(today.minusYears(20), today, null));
+    }
+
+    private Prescription prescribe(Doctor doctor, Patient patient, Appointment appointment, LocalDate date) {
+        Prescription prescription = new Prescription();
+        prescription.setDoctor(doctor);
+        prescription.setPatient(patient);
+        prescription.setAppointment(appointment);
+        prescription.setMedicine("Rollup");
+        prescription.setDate(date);
+        return prescriptionService.createPrescription(prescription);
+    }
+
+    private static List<Long> counts(TrendSeries trend) {
+        return trend.points().stream().map(TrendSeries.Point::count).toList();
+    }
+}
@@ -0,0 +1,145 @@
+package com.hospital.service;
+
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class AppointmentBookingConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void concurrentBookingsNeverDoubleBookASlot() throws Exception {
+        List<Doctor> doctors = List.of(newDoctor(), newDoctor(), newDoctor());
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            patients.add(newPatient());
+        }
+        LocalDate date = LocalDate.now().plusDays(1);
+        List<LocalTime> slots = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            slots.add(LocalTime.of(9, 0).plusMinutes(15L * i));
+        }
+
+        // Every thread tries every slot of every doctor at the same moment
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Patient patient : patients) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (Doctor doctor : doctors) {
+                    for (LocalTime time : slots) {
+                        try {
+                            appointmentService.bookSlot(doctor.getDrId(), date, time, patient.getpId(), "stress");
+                            booked.incrementAndGet();
+                        } catch (SlotUnavailableException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        int totalSlots = doctors.size() * slots.size();
+        assertEquals(totalSlots, booked.get());
+        assertEquals(totalSlots * (THREADS - 1), rejected.get());
+        for (Doctor doctor : doctors) {
+            for (LocalTime time : slots) {
+                assertEquals(1, appointmentRepository
+                        .findByDoctorDrIdAndAppointmentDateAndAppointmentTime(doctor.getDrId(), date, time).size());
+            }
+        }
+    }
+
+    @Test
+    void cancelledSlotCanBeBookedAgain() {
+        Doctor doctor = newDoctor();
+        LocalDate date = LocalDate.now().plusDays(2);
+        LocalTime time = LocalTime.of(10, 0);
+
+        Appointment first = appointmentService.bookSlot(doctor.getDrId(), date, time, newPatient().getpId(), null);
+        assertThrows(SlotUnavailableException.class,
+                () -> appointmentService.bookSlot(doctor.getDrId(), date, time, newPatient().getpId(), null));
+
+        appointmentService.updateStatus(first.getApId(), Appointment.STATUS_CANCELLED);
+        appointmentService.bookSlot(doctor.getDrId(), date, time, newPatient().getpId(), null);
+
+        // Re-activating the cancelled booking would double-book the slot
+        assertThrows(SlotUnavailableException.class,
+                () -> appointmentService.updateStatus(first.getApId(), "PENDING"));
+    }
+
+    @Test
+    void uniqueConstraintRejectsDuplicatesThatBypassTheService() {
+        Doctor doctor = newDoctor();
+        LocalDate date = LocalDate.now().plusDays(3);
+        LocalTime time = LocalTime.of(11, 0);
+
+        appointmentRepository.save(appointment(doctor, newPatient(), date, time));
+        assertThrows(DataIntegrityViolationException.class,
+                () -> appointmentRepository.save(appointment(doctor, newPatient(), date, time)));
+    }
+
+    private Appointment appointment(Doctor doctor, Patient patient, LocalDate date, LocalTime time) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDate(date);
+        appointment.setAppointmentTime(time);
+        return appointment;
+    }
+
+    private Doctor newDoctor() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Doctor");
+        return doctorRepository.save(doctor);
+    }
+
+    private Patient newPatient() {
+        Patient patient = new Patient();
+        patient.setName("Patient");
+        return patientRepository.save(patient);
+    }
+}
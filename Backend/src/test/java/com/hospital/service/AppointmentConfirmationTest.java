@@ -0,0 +1,94 @@
+package com.hospital.service;
+
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.OutboundEmail;
+import com.hospital.entity.Patient;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.OutboundEmailRepository;
+import com.hospital.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+class AppointmentConfirmationTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @MockitoSpyBean
+    private EmailService emailService;
+
+    @Test
+    void bookingQueuesAMessageNamingTheDoctorAndItsPendingStatus() {
+        Doctor doctor = doctor("Dr Ottoline <Reyes>");
+        Patient patient = patient("confirm@booking.test");
+
+        Appointment booked = appointmentService.bookSlot(doctor.getDrId(), LocalDate.now().plusDays(4),
+                LocalTime.of(11, 0), patient.getpId(), "Check-up");
+
+        List<OutboundEmail> queued = outboundEmailRepository.findAll().stream()
+                .filter(email -> "confirm@booking.test".equals(email.getRecipient()))
+                .toList();
+        assertEquals(1, queued.size());
+        String body = queued.get(0).getBody();
+        assertTrue(body.contains("Dr Ottoline &lt;Reyes&gt; (ID " + doctor.getDrId() + ")"), body);
+        assertTrue(body.contains("awaiting confirmation"), body);
+        assertFalse(body.contains("is confirmed"), body);
+        assertFalse(body.contains("Doctor ID: <b>" + booked.getApId()), body);
+        assertEquals("Appointment Request Received - Hospital", queued.get(0).getSubject());
+    }
+
+    @Test
+    void aBookingStandsWhenItsConfirmationCannotBeQueued() {
+        Doctor doctor = doctor("Dr Outbox Down");
+        Patient patient = patient("outbox-down@booking.test");
+        doThrow(new DataAccessResourceFailureException("outbox unavailable"))
+                .when(emailService).sendAppointmentConfirmation(any(), anyString(), any());
+
+        Appointment booked = appointmentService.bookSlot(doctor.getDrId(), LocalDate.now().plusDays(4),
+                LocalTime.of(11, 0), patient.getpId(), "Check-up");
+
+        assertTrue(appointmentRepository.existsById(booked.getApId()));
+    }
+
+    private Doctor doctor(String name) {
+        Doctor doctor = new Doctor();
+        doctor.setName(name);
+        return doctorRepository.save(doctor);
+    }
+
+    private Patient patient(String email) {
+        Patient patient = new Patient();
+        patient.setName("Confirmation Patient");
+        patient.setEmail(email);
+        return patientRepository.save(patient);
+    }
+}
@@ -0,0 +1,144 @@
+package com.hospital.service;
+
+import com.hospital.dto.BatchResult;
+import com.hospital.entity.Appointment;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Prescription;
+import com.hospital.index.AvailabilityIndex;
+import com.hospital.repository.AppointmentRepository;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.repository.PrescriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BatchIngestionTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    private Doctor doctor;
+    private Patient patient;
+    private final LocalDate date = LocalDate.now().plusDays(5);
+
+    @BeforeEach
+    void seed() {
+        doctor = new Doctor();
+        doctor.setName("Dr Batch");
+        doctorRepository.save(doctor);
+        patient = new Patient();
+        patient.setName("Batch Patient");
+        patientRepository.save(patient);
+    }
+
+    @Test
+    void prescriptionBatchReportsEachItem() {
+        Appointment appointment = book(LocalTime.of(9, 0));
+        Doctor missing = new Doctor();
+        missing.setDrId(Integer.MAX_VALUE);
+
+        BatchResult result = prescriptionService.createPrescriptions(List.of(
+                prescription(doctor, null, "Paracetamol"),
+                prescription(missing, null, "Ibuprofen"),
+                prescription(doctor, appointment, "Amoxicillin")));
+
+        assertEquals(3, result.total());
+        assertEquals(2, result.succeeded());
+        assertEquals(BatchResult.CREATED, result.items().get(0).status());
+        assertEquals(BatchResult.FAILED, result.items().get(1).status());
+        assertTrue(result.items().get(1).error().contains("Doctor not found"));
+
+        Prescription stored = prescriptionRepository.findById(result.items().get(2).id()).orElseThrow();
+        assertEquals("Amoxicillin", stored.getMedicine());
+        assertEquals(patient.getpId(), stored.getPId());
+        assertEquals(appointment.getApId(), stored.getApId());
+        assertEquals("Active", stored.getStatus());
+        assertNotNull(stored.getDate());
+    }
+
+    @Test
+    void appointmentsCanTradeSlotsButNotTakeHeldOnes() {
+        Appointment a = book(LocalTime.of(10, 0));
+        Appointment b = book(LocalTime.of(10, 15));
+        Appointment c = book(LocalTime.of(10, 30));
+
+        // Swap a and b in one batch; an unknown id fails on its own
+        BatchResult swap = appointmentService.updateAppointments(List.of(
+                move(a.getApId(), LocalTime.of(10, 15)),
+                move(b.getApId(), LocalTime.of(10, 0)),
+                move(Integer.MAX_VALUE, LocalTime.of(11, 0))));
+        assertEquals(List.of(BatchResult.UPDATED, BatchResult.UPDATED, BatchResult.FAILED),
+                swap.items().stream().map(BatchResult.Item::status).toList());
+        assertEquals(LocalTime.of(10, 15), appointmentRepository.findById(a.getApId()).orElseThrow().getAppointmentTime());
+        assertEquals(LocalTime.of(10, 0), appointmentRepository.findById(b.getApId()).orElseThrow().getAppointmentTime());
+
+        // c still holds 10:30
+        BatchResult blocked = appointmentService.updateAppointments(List.of(move(a.getApId(), LocalTime.of(10, 30))));
+        assertEquals(BatchResult.FAILED, blocked.items().get(0).status());
+
+        // ...unless c moves away in the same batch
+        BatchResult chained = appointmentService.updateAppointments(List.of(
+                move(a.getApId(), LocalTime.of(10, 30)),
+                move(c.getApId(), LocalTime.of(11, 0))));
+        assertEquals(2, chained.succeeded());
+        assertTrue(availabilityIndex.isFree(doctor.getDrId(), date, LocalTime.of(10, 15)));
+        assertFalse(availabilityIndex.isFree(doctor.getDrId(), date, LocalTime.of(10, 30)));
+        assertFalse(availabilityIndex.isFree(doctor.getDrId(), date, LocalTime.of(11, 0)));
+        // Fields not in the item are kept
+        assertEquals("batch", appointmentRepository.findById(c.getApId()).orElseThrow().getDescript());
+    }
+
+    private Appointment book(LocalTime time) {
+        return appointmentService.bookSlot(doctor.getDrId(), date, time, patient.getpId(), "batch");
+    }
+
+    private Appointment move(Integer apId, LocalTime time) {
+        Appointment update = new Appointment();
+        update.setApId(apId);
+        update.setAppointmentTime(time);
+        update.setStatus(null);
+        return update;
+    }
+
+    private Prescription prescription(Doctor doctor, Appointment appointment, String medicine) {
+        Prescription prescription = new Prescription();
+        prescription.setDoctor(doctor);
+        prescription.setPatient(patient);
+        prescription.setAppointment(appointment);
+        prescription.setMedicine(medicine);
+        prescription.setStatus(null);
+        prescription.setDate(null);
+        return prescription;
+    }
+}
@@ -0,0 +1,82 @@
+package com.hospital.service;
+
+import com.hospital.entity.OutboundEmail;
+import com.hospital.repository.OutboundEmailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the real dispatcher against an in-process SMTP server on localhost:3025
+@SpringBootTest
+@TestPropertySource(properties = {
+        "hospital.mail.outbox.enabled=true",
+        "hospital.mail.outbox.poll-interval=100",
+        "hospital.mail.outbox.initial-backoff=PT0.2S",
+        "hospital.mail.outbox.max-backoff=PT0.5S"
+})
+class EmailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @BeforeEach
+    void clearOutbox() {
+        outboundEmailRepository.deleteAll();
+    }
+
+    @Test
+    void queuedMessagesAreDeliveredInTheBackground() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            emailService.sendHtmlMessage("patient" + i + "@example.com", "Subject " + i, "<p>Body " + i + "</p>");
+        }
+
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 5), "all queued messages delivered");
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(5, received.length);
+        awaitTrue(() -> outboundEmailRepository.countByStatus(OutboundEmail.STATUS_SENT) == 5);
+    }
+
+    @Test
+    void failedSendsAreRetriedUntilTheServerIsBack() throws Exception {
+        greenMail.stop();
+        emailService.sendSimpleMessage("retry@example.com", "Retry", "Sent once the server is back");
+
+        // At least two failed attempts while the server is down, message still queued
+        awaitTrue(() -> {
+            List<OutboundEmail> queued = outboundEmailRepository.findAll();
+            return queued.size() == 1 && queued.get(0).getAttempts() >= 2
+                    && OutboundEmail.STATUS_PENDING.equals(queued.get(0).getStatus());
+        });
+
+        greenMail.start();
+        assertTrue(greenMail.waitForIncomingEmail(10_000, 1), "message delivered after retry");
+        awaitTrue(() -> outboundEmailRepository.countByStatus(OutboundEmail.STATUS_SENT) == 1);
+        assertEquals("retry@example.com", greenMail.getReceivedMessages()[0].getAllRecipients()[0].toString());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 10s");
+            Thread.sleep(50);
+        }
+    }
+}
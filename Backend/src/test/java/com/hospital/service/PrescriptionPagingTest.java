@@ -0,0 +1,124 @@
+package com.hospital.service;
+
+import com.hospital.dto.CursorPage;
+import com.hospital.entity.Doctor;
+import com.hospital.entity.Patient;
+import com.hospital.entity.Prescription;
+import com.hospital.repository.DoctorRepository;
+import com.hospital.repository.PatientRepository;
+import com.hospital.repository.PrescriptionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PrescriptionPagingTest {
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void pagesWalkTheHistoryNewestFirstWithoutGapsOrRepeats() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Paging");
+        doctorRepository.save(doctor);
+        Patient patient = new Patient();
+        patient.setName("Paging Patient");
+        patientRepository.save(patient);
+
+        List<Prescription> rows = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            Prescription prescription = new Prescription();
+            prescription.setDoctor(doctor);
+            prescription.setPatient(patient);
+            prescription.setPId(patient.getpId());
+            prescription.setMedicine("Medicine " + i);
+            // Three per day: page boundaries fall inside a day
+            prescription.setDate(LocalDate.of(2020, 1, 1).plusDays(i / 3));
+            rows.add(prescription);
+        }
+        List<Integer> expected = prescriptionRepository.saveAll(rows).stream()
+                .sorted(Comparator.comparing(Prescription::getDate).thenComparing(Prescription::getId).reversed())
+                .map(Prescription::getId)
+                .toList();
+
+        List<Integer> read = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<Prescription> page = prescriptionService.getPrescriptionsByPatientPage(patient.getpId(), cursor, 5);
+            page.items().forEach(prescription -> {
+                assertNotNull(prescription.getDoctor().getName());
+                read.add(prescription.getId());
+            });
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, read);
+        assertEquals(5, pages);
+        assertTrue(prescriptionService.getPrescriptionsByPatientPage(-1, null, 5).items().isEmpty());
+    }
+
+    @Test
+    void undatedPrescriptionsFollowTheDatedOnesAcrossPages() {
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr Undated");
+        doctorRepository.save(doctor);
+        Patient patient = new Patient();
+        patient.setName("Undated Patient");
+        patientRepository.save(patient);
+
+        List<Prescription> rows = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            Prescription prescription = new Prescription();
+            prescription.setDoctor(doctor);
+            prescription.setPatient(patient);
+            prescription.setPId(patient.getpId());
+            prescription.setMedicine("Medicine " + i);
+            // Every third row has no date, including the first and last saved
+            prescription.setDate(i % 3 == 0 ? null : LocalDate.of(2021, 6, 1).plusDays(i));
+            rows.add(prescription);
+        }
+        List<Prescription> saved = prescriptionRepository.saveAll(rows);
+        List<Integer> expected = new ArrayList<>();
+        saved.stream()
+                .filter(prescription -> prescription.getDate() != null)
+                .sorted(Comparator.comparing(Prescription::getDate).thenComparing(Prescription::getId).reversed())
+                .forEach(prescription -> expected.add(prescription.getId()));
+        saved.stream()
+                .filter(prescription -> prescription.getDate() == null)
+                .sorted(Comparator.comparing(Prescription::getId).reversed())
+                .forEach(prescription -> expected.add(prescription.getId()));
+
+        // Page sizes that end a page on the last dated row, inside the undated rows, and on an undated row
+        for (int limit : new int[]{2, 3, 4, 6}) {
+            List<Integer> read = new ArrayList<>();
+            String cursor = null;
+            do {
+                CursorPage<Prescription> page = prescriptionService.getPrescriptionsByPatientPage(patient.getpId(), cursor, limit);
+                page.items().forEach(prescription -> read.add(prescription.getId()));
+                cursor = page.nextCursor();
+            } while (cursor != null);
+            assertEquals(expected, read, "limit " + limit);
+        }
+    }
+}
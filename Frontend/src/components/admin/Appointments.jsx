@@ -8,7 +8,7 @@ import {
   XCircleIcon,
   ArrowPathIcon
 } from '@heroicons/react/24/outline';
-import { appointmentService } from '../../services/api';
+import { appointmentService, mergeAppointmentChanges, subscribeToAppointments } from '../../services/api';
 import { toast } from 'react-toastify';
 import { Link } from 'react-router-dom';
 
@@ -22,6 +22,7 @@ const Appointments = () => {
   const [filterStatus, setFilterStatus] = useState('all');
   const [refreshing, setRefreshing] = useState(false);
   const pollingRef = useRef(null);
+  const changeTokenRef = useRef(null);
 
   const getAppointmentDateStr = (appt) =>
     appt?.appointmentDate ?? appt?.appointment_date ?? appt?.date ?? null;
@@ -109,6 +110,16 @@ const Appointments = () => {
         }
 
         console.log('Using patient ID:', patientId);
+        // Background refreshes only fetch what changed since the last poll
+        if (isRefreshing && changeTokenRef.current) {
+          changeTokenRef.current = await appointmentService.pollAppointmentChanges(
+            changeTokenRef.current, patientId,
+            (changes) => setAppointments((current) => mergeAppointmentChanges(current, changes)));
+          if (changeTokenRef.current) return;
+        }
+        // Full load: take the feed token first so nothing written meanwhile is missed
+        const feed = await appointmentService.getAppointmentChanges(null, patientId).catch(() => null);
+        changeTokenRef.current = feed?.data?.next ?? null;
         const response = await appointmentService.getAppointmentsByPatient(patientId);
         console.log('Appointments API response:', response);
 
@@ -154,6 +165,20 @@ const Appointments = () => {
     };
   }, [fetchAppointments]);
 
+  // Live updates: each pushed write triggers a background refresh through the change feed
+  useEffect(() => {
+    let patientId = null;
+    try {
+      const user = JSON.parse(localStorage.getItem('user') || '{}');
+      patientId = user.id || user.P_ID || user.patientId || user.userId;
+    } catch (e) {
+      console.error('Error parsing user data for the appointment stream:', e);
+    }
+    if (!patientId) return undefined;
+    const source = subscribeToAppointments({ patientId }, () => fetchAppointments(true));
+    return () => source.close();
+  }, [fetchAppointments]);
+
   const handleCancelAppointment = async (appointmentId) => {
     if (!appointmentId) return;
     if (!window.confirm('Are you sure you want to cancel this appointment?')) return;
@@ -1,4 +1,4 @@
-import React, { useState, useEffect, useMemo, useCallback } from 'react';
+import React, { useState, useEffect, useMemo, useCallback, useRef } from 'react';
 import { 
   UserIcon, 
   ExclamationCircleIcon, 
@@ -8,7 +8,7 @@ import {
   XCircleIcon,
   ArrowPathIcon
 } from '@heroicons/react/24/outline';
-import { appointmentService } from '../../services/api';
+import { appointmentService, mergeAppointmentChanges, subscribeToAppointments } from '../../services/api';
 import { toast } from 'react-toastify';
 import { Link } from 'react-router-dom';
 
@@ -22,6 +22,7 @@ const Appointments = () => {
   const [filterStatus, setFilterStatus] = useState('all');
   const [refreshing, setRefreshing] = useState(false);
   const [pollingInterval, setPollingInterval] = useState(null);
+  const changeTokenRef = useRef(null);
 
   // Define fetchAppointments first
   const fetchAppointments = useCallback(async (isRefreshing = false) => {
@@ -70,6 +71,16 @@ const Appointments = () => {
       console.log('Using patient ID:', patientId);
       console.log('Fetching appointments for patient ID:', patientId);
       
+      // Background refreshes only fetch what changed since the last poll
+      if (isRefreshing && changeTokenRef.current) {
+        changeTokenRef.current = await appointmentService.pollAppointmentChanges(
+          changeTokenRef.current, patientId,
+          (changes) => setAppointments((current) => mergeAppointmentChanges(current, changes)));
+        if (changeTokenRef.current) return;
+      }
+      // Full load: take the feed token first so nothing written meanwhile is missed
+      const feed = await appointmentService.getAppointmentChanges(null, patientId).catch(() => null);
+      changeTokenRef.current = feed?.data?.next ?? null;
       const response = await appointmentService.getAppointmentsByPatient(patientId);
       console.log('Appointments API response:', response);
       
@@ -129,6 +140,20 @@ const Appointments = () => {
     };
   }, [fetchAppointments]);
 
+  // Live updates: each pushed write triggers a background refresh through the change feed
+  useEffect(() => {
+    let patientId = null;
+    try {
+      const user = JSON.parse(localStorage.getItem('user') || '{}');
+      patientId = user.id || user.P_ID || user.patientId || user.userId;
+    } catch (e) {
+      console.error('Error parsing user data for the appointment stream:', e);
+    }
+    if (!patientId) return undefined;
+    const source = subscribeToAppointments({ patientId }, () => fetchAppointments(true));
+    return () => source.close();
+  }, [fetchAppointments]);
+
   // Keyboard shortcut for refresh (F5 or Ctrl+R)
   useEffect(() => {
     const handleKeyDown = (event) => {
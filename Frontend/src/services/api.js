@@ -251,6 +251,61 @@ export const appointmentService = {
   checkAvailability: (doctorId, date, time) => 
     api.get(`/appointments/check?doctorId=${doctorId}&date=${date}&time=${time}`),
   getDoctorPatients: (doctorId) => api.get(`/appointments/${doctorId}/patients`),
+  // Change feed: without a token returns { next } to start from (take it before a full load);
+  // with one returns { changed, deleted, next, hasMore }, or 204 when nothing changed
+  getAppointmentChanges: (since, patientId) =>
+    api.get('/appointments/changes', { params: { since: since || undefined, patientId } }),
+  // Applies everything changed since `token` via apply(changeSet) and resolves to the token for
+  // the next poll, or null when the caller has to reload in full (token expired or rejected)
+  async pollAppointmentChanges(token, patientId, apply) {
+    try {
+      let next = token;
+      let hasMore = true;
+      while (hasMore) {
+        const response = await api.get('/appointments/changes', { params: { since: next, patientId } });
+        if (response.status === 204) break;
+        apply(response.data);
+        next = response.data.next;
+        hasMore = response.data.hasMore;
+      }
+      return next;
+    } catch (error) {
+      console.warn('Change feed unavailable, reloading in full:', error?.response?.status);
+      return null;
+    }
+  },
+};
+
+// Opens the live appointment stream for { doctorId } or { patientId } (neither: every
+// appointment) and calls onChange, debounced, after pushed writes and resync requests. The
+// browser reconnects on its own; close the returned EventSource when done.
+export const subscribeToAppointments = (filter, onChange, delayMs = 250) => {
+  const params = new URLSearchParams();
+  if (filter?.doctorId) params.set('doctorId', filter.doctorId);
+  if (filter?.patientId) params.set('patientId', filter.patientId);
+  const source = new EventSource(`${API_BASE_URL}/appointments/stream?${params}`);
+  let timer = null;
+  const schedule = () => {
+    clearTimeout(timer);
+    timer = setTimeout(onChange, delayMs);
+  };
+  source.addEventListener('appointment', schedule);
+  source.addEventListener('resync', schedule);
+  const close = source.close.bind(source);
+  source.close = () => {
+    clearTimeout(timer);
+    close();
+  };
+  return source;
+};
+
+// Merges a change-feed response into a list of appointments: changed rows replace or join the
+// list, deleted ids leave it
+export const mergeAppointmentChanges = (appointments, changes) => {
+  const byId = new Map(appointments.map((appointment) => [appointment.apId, appointment]));
+  (changes.changed || []).forEach((appointment) => byId.set(appointment.apId, appointment));
+  (changes.deleted || []).forEach((id) => byId.delete(id));
+  return Array.from(byId.values());
 };
 
 // Prescription services